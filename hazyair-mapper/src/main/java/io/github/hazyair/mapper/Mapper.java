@@ -0,0 +1,23 @@
+package io.github.hazyair.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a {@code <Model>Mapper} class next to the annotated model which copies its public
+ * instance fields from and to {@code Cursor}, {@code Bundle} and {@code ContentValues}.
+ * Field names are used as column and key names, in declaration order.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface Mapper {
+
+    /**
+     * Excludes a field from the generated mapper.
+     */
+    @Retention(RetentionPolicy.SOURCE)
+    @Target(ElementType.FIELD)
+    @interface Ignore {}
+}
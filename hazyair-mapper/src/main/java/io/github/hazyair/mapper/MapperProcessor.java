@@ -0,0 +1,309 @@
+package io.github.hazyair.mapper;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+public class MapperProcessor extends AbstractProcessor {
+
+    private static final ClassName CURSOR = ClassName.get("android.database", "Cursor");
+    private static final ClassName BUNDLE = ClassName.get("android.os", "Bundle");
+    private static final ClassName CONTENT_VALUES =
+            ClassName.get("android.content", "ContentValues");
+    private static final ClassName COLLECTIONS = ClassName.get(Collections.class);
+    private static final ClassName WEAK_HASH_MAP = ClassName.get("java.util", "WeakHashMap");
+    private static final ClassName MAP = ClassName.get("java.util", "Map");
+    private static final String _ID = "_id";
+
+    private enum Kind {
+        INT("Int"), LONG("Long"), DOUBLE("Double"), BOOLEAN("Boolean"), STRING("String");
+
+        final String suffix;
+
+        Kind(String suffix) {
+            this.suffix = suffix;
+        }
+    }
+
+    private static class Column {
+        final String name;
+        final Kind kind;
+
+        Column(String name, Kind kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(Mapper.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Mapper.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@Mapper can only be applied to classes");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<Column> columns = columns(type);
+            if (columns == null) continue;
+            try {
+                write(type, columns);
+            } catch (IOException e) {
+                error(type, "Unable to write mapper: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private List<Column> columns(TypeElement type) {
+        List<Column> columns = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)
+                    || field.getAnnotation(Mapper.Ignore.class) != null) continue;
+            if (modifiers.contains(Modifier.PRIVATE)) {
+                error(field, "@Mapper fields must not be private");
+                return null;
+            }
+            Kind kind = kind(field.asType());
+            if (kind == null) {
+                error(field, "Unsupported @Mapper field type " + field.asType());
+                return null;
+            }
+            columns.add(new Column(field.getSimpleName().toString(), kind));
+        }
+        return columns;
+    }
+
+    private static Kind kind(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return Kind.INT;
+            case LONG:
+                return Kind.LONG;
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case BOOLEAN:
+                return Kind.BOOLEAN;
+            case DECLARED:
+                return type.toString().equals(String.class.getCanonicalName()) ?
+                        Kind.STRING : null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean hasDefaultConstructor(TypeElement type) {
+        for (ExecutableElement constructor :
+                ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()
+                    && !constructor.getModifiers().contains(Modifier.PRIVATE)) return true;
+        }
+        return false;
+    }
+
+    private void write(TypeElement type, List<Column> columns) throws IOException {
+        ClassName model = ClassName.get(type);
+        ClassName mapper = ClassName.get(model.packageName(), model.simpleName() + "Mapper");
+
+        CodeBlock.Builder keys = CodeBlock.builder().add("{");
+        for (int i = 0; i < columns.size(); i++) {
+            keys.add(i == 0 ? "$S" : ", $S", columns.get(i).name);
+        }
+        keys.add("}");
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(mapper)
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(ArrayTypeName.of(String.class), "KEYS",
+                        Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer(keys.build()).build())
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(MAP, CURSOR,
+                        TypeName.get(int[].class)), "sIndex", Modifier.PRIVATE, Modifier.STATIC,
+                        Modifier.FINAL)
+                        .initializer("$T.synchronizedMap(new $T<>())", COLLECTIONS,
+                                WEAK_HASH_MAP).build())
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("keys")
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                        .returns(ArrayTypeName.of(String.class))
+                        .addStatement("return KEYS.clone()")
+                        .build())
+                .addMethod(index())
+                .addMethod(MethodSpec.methodBuilder("string")
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .addParameter(String.class, "value")
+                        .returns(String.class)
+                        .addStatement("return value == null ? \"\" : value")
+                        .build())
+                .addMethod(fillFromCursor(model, columns))
+                .addMethod(fillFromBundle(model, columns))
+                .addMethod(toContentValues(model, columns))
+                .addMethod(toBundle(model, columns))
+                .addMethod(toBundleFromCursor(columns));
+        if (hasDefaultConstructor(type)) {
+            builder.addMethod(MethodSpec.methodBuilder("fromCursor")
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addParameter(CURSOR, "cursor")
+                    .returns(model)
+                    .addStatement("$T target = new $T()", model, model)
+                    .addStatement("fill(target, cursor)")
+                    .addStatement("return target")
+                    .build());
+        }
+        JavaFile.builder(model.packageName(), builder.build())
+                .addFileComment("Generated by $L. Do not edit.",
+                        MapperProcessor.class.getSimpleName())
+                .build().writeTo(processingEnv.getFiler());
+    }
+
+    private static MethodSpec index() {
+        return MethodSpec.methodBuilder("index")
+                .addJavadoc("Column indices of {@code cursor}, resolved once per cursor even when"
+                        + " several\ncursors are read in turn.\n")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addParameter(CURSOR, "cursor")
+                .returns(int[].class)
+                .addStatement("int[] index = sIndex.get(cursor)")
+                .beginControlFlow("if (index == null)")
+                .addStatement("index = new int[KEYS.length]")
+                .beginControlFlow("for (int i = 0; i < KEYS.length; i++)")
+                .addStatement("index[i] = cursor.getColumnIndex(KEYS[i])")
+                .endControlFlow()
+                .addStatement("sIndex.put(cursor, index)")
+                .endControlFlow()
+                .addStatement("return index")
+                .build();
+    }
+
+    private static CodeBlock read(Column column, int i) {
+        switch (column.kind) {
+            case BOOLEAN:
+                return CodeBlock.of("cursor.getInt(index[$L]) != 0", i);
+            case STRING:
+                return CodeBlock.of("string(cursor.getString(index[$L]))", i);
+            default:
+                return CodeBlock.of("cursor.get$L(index[$L])", column.kind.suffix, i);
+        }
+    }
+
+    private static String empty(Column column) {
+        switch (column.kind) {
+            case BOOLEAN:
+                return "false";
+            case STRING:
+                return "\"\"";
+            default:
+                return "0";
+        }
+    }
+
+    private static MethodSpec fillFromCursor(ClassName model, List<Column> columns) {
+        MethodSpec.Builder method = MethodSpec.methodBuilder("fill")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(model, "target")
+                .addParameter(CURSOR, "cursor")
+                .addStatement("int[] index = index(cursor)");
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            method.addStatement("if (index[$L] != -1) target.$L = $L", i, column.name,
+                    read(column, i));
+        }
+        return method.build();
+    }
+
+    private static MethodSpec fillFromBundle(ClassName model, List<Column> columns) {
+        MethodSpec.Builder method = MethodSpec.methodBuilder("fill")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(model, "target")
+                .addParameter(BUNDLE, "bundle");
+        for (Column column : columns) {
+            method.addStatement("target.$L = bundle.get$L($S)", column.name, column.kind.suffix,
+                    column.name);
+        }
+        return method.build();
+    }
+
+    private static MethodSpec toContentValues(ClassName model, List<Column> columns) {
+        MethodSpec.Builder method = MethodSpec.methodBuilder("toContentValues")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(model, "source")
+                .returns(CONTENT_VALUES)
+                .addStatement("$T values = new $T($L)", CONTENT_VALUES, CONTENT_VALUES,
+                        columns.size());
+        for (Column column : columns) {
+            if (column.name.equals(_ID)) continue;
+            method.addStatement(column.kind == Kind.STRING ?
+                    "values.put($S, string(source.$L))" : "values.put($S, source.$L)",
+                    column.name, column.name);
+        }
+        return method.addStatement("return values").build();
+    }
+
+    private static MethodSpec toBundle(ClassName model, List<Column> columns) {
+        MethodSpec.Builder method = MethodSpec.methodBuilder("toBundle")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(model, "source")
+                .returns(BUNDLE)
+                .addStatement("$T bundle = new $T($L)", BUNDLE, BUNDLE, columns.size());
+        for (Column column : columns) {
+            method.addStatement(column.kind == Kind.STRING ?
+                    "bundle.put$L($S, string(source.$L))" : "bundle.put$L($S, source.$L)",
+                    column.kind.suffix, column.name, column.name);
+        }
+        return method.addStatement("return bundle").build();
+    }
+
+    private static MethodSpec toBundleFromCursor(List<Column> columns) {
+        MethodSpec.Builder method = MethodSpec.methodBuilder("toBundleFromCursor")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .addParameter(CURSOR, "cursor")
+                .returns(BUNDLE)
+                .addStatement("int[] index = index(cursor)")
+                .addStatement("$T bundle = new $T($L)", BUNDLE, BUNDLE, columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            Column column = columns.get(i);
+            method.addStatement("bundle.put$L($S, index[$L] == -1 ? $L : $L)",
+                    column.kind.suffix, column.name, i, empty(column), read(column, i));
+        }
+        return method.addStatement("return bundle").build();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,28 @@
+CREATE TABLE stations (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE AUTOINCREMENT,id TEXT,name TEXT NOT NULL,latitude REAL NOT NULL,longitude REAL NOT NULL,country INTEGER NOT NULL,locality TEXT NOT NULL,address TEXT NOT NULL,source INTEGER NOT NULL)
+CREATE TABLE sensors (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE AUTOINCREMENT,_station_id INTEGER,id TEXT,station_id TEXT,parameter TEXT,unit TEXT)
+CREATE TABLE config (key TEXT PRIMARY KEY ON CONFLICT REPLACE,value TEXT)
+CREATE TABLE data (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE AUTOINCREMENT,_station_id INTEGER,_sensor_id INTEGER,timestamp INTEGER,value REAL, CONSTRAINT unique_sensor_timestamp UNIQUE ( _sensor_id, timestamp ) ON CONFLICT IGNORE)
+INSERT INTO stations (_id, id, name, latitude, longitude, country, locality, address, source) VALUES (1, '114', 'Warszawa, ul. Marszałkowska', 52.2254, 21.0048, 1, 'Warszawa', 'ul. Marszałkowska', 2)
+INSERT INTO stations (_id, id, name, latitude, longitude, country, locality, address, source) VALUES (2, '530', 'Kraków, al. Krasińskiego', 50.0577, 19.9265, 1, 'Kraków', 'al. Krasińskiego', 2)
+INSERT INTO sqlite_sequence (name, seq) VALUES ('stations', 2)
+INSERT INTO sqlite_sequence (name, seq) VALUES ('sensors', 3)
+INSERT INTO sqlite_sequence (name, seq) VALUES ('data', 16)
+INSERT INTO sensors (_id, _station_id, id, station_id, parameter, unit) VALUES (1, 1, '3576', '114', 'PM10', 'μg/m3')
+INSERT INTO sensors (_id, _station_id, id, station_id, parameter, unit) VALUES (2, 1, '3580', '114', 'NO₂', 'μg/m3')
+INSERT INTO sensors (_id, _station_id, id, station_id, parameter, unit) VALUES (3, 2, '16784', '530', 'SO₂', 'μg/m3')
+INSERT INTO config (key, value) VALUES ('update', '1546315200000')
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (1, 1, 1, 1546300800000, 10.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (2, 1, 1, 1546304400000, 11.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (3, 1, 1, 1546308000000, 12.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (4, 1, 1, 1546311600000, 13.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (5, 1, 1, 1546315200000, 14.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (6, 1, 2, 1546300800000, 20.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (7, 1, 2, 1546304400000, 21.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (8, 1, 2, 1546308000000, 22.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (9, 1, 2, 1546311600000, 23.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (10, 1, 2, 1546315200000, 24.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (11, 2, 3, 1546300800000, 30.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (12, 2, 3, 1546304400000, 31.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (13, 2, 3, 1546308000000, 32.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (14, 2, 3, 1546311600000, 33.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (15, 2, 3, 1546315200000, 34.0)
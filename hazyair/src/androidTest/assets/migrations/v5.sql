@@ -0,0 +1,63 @@
+CREATE TABLE stations (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE AUTOINCREMENT,id TEXT,name TEXT NOT NULL,latitude REAL NOT NULL,longitude REAL NOT NULL,country INTEGER NOT NULL,locality TEXT NOT NULL,address TEXT NOT NULL,source INTEGER NOT NULL)
+CREATE TABLE sensors (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE AUTOINCREMENT,_station_id INTEGER,id TEXT,station_id TEXT,parameter TEXT,unit TEXT)
+CREATE TABLE config (key TEXT PRIMARY KEY ON CONFLICT REPLACE,value TEXT)
+CREATE TABLE data (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE AUTOINCREMENT,_station_id INTEGER,_sensor_id INTEGER,timestamp INTEGER,value REAL, CONSTRAINT unique_sensor_timestamp UNIQUE ( _sensor_id, timestamp ) ON CONFLICT IGNORE)
+CREATE TABLE aggregates (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE AUTOINCREMENT,_station_id INTEGER,_sensor_id INTEGER,resolution INTEGER,timestamp INTEGER,count INTEGER,sum REAL,minimum REAL,maximum REAL, CONSTRAINT unique_sensor_resolution_timestamp UNIQUE ( _sensor_id, resolution, timestamp ) ON CONFLICT IGNORE)
+CREATE TABLE catalogue (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE AUTOINCREMENT,id TEXT,name TEXT NOT NULL,latitude REAL NOT NULL,longitude REAL NOT NULL,country INTEGER NOT NULL,locality TEXT NOT NULL,address TEXT NOT NULL,source INTEGER NOT NULL,keywords TEXT NOT NULL)
+CREATE VIRTUAL TABLE catalogue_fts USING fts4(content="catalogue", keywords)
+INSERT INTO stations (_id, id, name, latitude, longitude, country, locality, address, source) VALUES (1, '114', 'Warszawa, ul. Marszałkowska', 52.2254, 21.0048, 1, 'Warszawa', 'ul. Marszałkowska', 2)
+INSERT INTO stations (_id, id, name, latitude, longitude, country, locality, address, source) VALUES (2, '530', 'Kraków, al. Krasińskiego', 50.0577, 19.9265, 1, 'Kraków', 'al. Krasińskiego', 2)
+INSERT INTO sqlite_sequence (name, seq) VALUES ('stations', 2)
+INSERT INTO sqlite_sequence (name, seq) VALUES ('sensors', 3)
+INSERT INTO sqlite_sequence (name, seq) VALUES ('data', 16)
+INSERT INTO sqlite_sequence (name, seq) VALUES ('aggregates', 21)
+INSERT INTO sqlite_sequence (name, seq) VALUES ('catalogue', 2)
+INSERT INTO sensors (_id, _station_id, id, station_id, parameter, unit) VALUES (1, 1, '3576', '114', 'PM10', 'μg/m3')
+INSERT INTO sensors (_id, _station_id, id, station_id, parameter, unit) VALUES (2, 1, '3580', '114', 'NO₂', 'μg/m3')
+INSERT INTO sensors (_id, _station_id, id, station_id, parameter, unit) VALUES (3, 2, '16784', '530', 'SO₂', 'μg/m3')
+INSERT INTO config (key, value) VALUES ('update', '1546315200000')
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (1, 1, 1, 1546300800000, 10.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (2, 1, 1, 1546304400000, 11.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (3, 1, 1, 1546308000000, 12.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (4, 1, 1, 1546311600000, 13.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (5, 1, 1, 1546315200000, 14.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (6, 1, 2, 1546300800000, 20.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (7, 1, 2, 1546304400000, 21.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (8, 1, 2, 1546308000000, 22.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (9, 1, 2, 1546311600000, 23.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (10, 1, 2, 1546315200000, 24.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (11, 2, 3, 1546300800000, 30.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (12, 2, 3, 1546304400000, 31.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (13, 2, 3, 1546308000000, 32.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (14, 2, 3, 1546311600000, 33.0)
+INSERT INTO data (_id, _station_id, _sensor_id, timestamp, value) VALUES (15, 2, 3, 1546315200000, 34.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (1, 1, 1, 3600000, 1546300800000, 1, 10.0, 10.0, 10.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (2, 1, 1, 3600000, 1546304400000, 1, 11.0, 11.0, 11.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (3, 1, 1, 3600000, 1546308000000, 1, 12.0, 12.0, 12.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (4, 1, 1, 3600000, 1546311600000, 1, 13.0, 13.0, 13.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (5, 1, 1, 3600000, 1546315200000, 1, 14.0, 14.0, 14.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (6, 1, 1, 86400000, 1546300800000, 5, 60.0, 10.0, 14.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (7, 1, 1, 604800000, 1546214400000, 5, 60.0, 10.0, 14.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (8, 1, 2, 3600000, 1546300800000, 1, 20.0, 20.0, 20.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (9, 1, 2, 3600000, 1546304400000, 1, 21.0, 21.0, 21.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (10, 1, 2, 3600000, 1546308000000, 1, 22.0, 22.0, 22.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (11, 1, 2, 3600000, 1546311600000, 1, 23.0, 23.0, 23.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (12, 1, 2, 3600000, 1546315200000, 1, 24.0, 24.0, 24.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (13, 1, 2, 86400000, 1546300800000, 5, 110.0, 20.0, 24.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (14, 1, 2, 604800000, 1546214400000, 5, 110.0, 20.0, 24.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (15, 2, 3, 3600000, 1546300800000, 1, 30.0, 30.0, 30.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (16, 2, 3, 3600000, 1546304400000, 1, 31.0, 31.0, 31.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (17, 2, 3, 3600000, 1546308000000, 1, 32.0, 32.0, 32.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (18, 2, 3, 3600000, 1546311600000, 1, 33.0, 33.0, 33.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (19, 2, 3, 3600000, 1546315200000, 1, 34.0, 34.0, 34.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (20, 2, 3, 86400000, 1546300800000, 5, 160.0, 30.0, 34.0)
+INSERT INTO aggregates (_id, _station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) VALUES (21, 2, 3, 604800000, 1546214400000, 5, 160.0, 30.0, 34.0)
+INSERT INTO catalogue (_id, id, name, latitude, longitude, country, locality, address, source, keywords) VALUES (1, '114', 'Warszawa, ul. Marszałkowska', 52.2254, 21.0048, 1, 'Warszawa', 'ul. Marszałkowska', 2, 'warszawa ul marszalkowska polska')
+INSERT INTO catalogue (_id, id, name, latitude, longitude, country, locality, address, source, keywords) VALUES (2, '530', 'Kraków, al. Krasińskiego', 50.0577, 19.9265, 1, 'Kraków', 'al. Krasińskiego', 2, 'krakow al krasinskiego polska')
+INSERT INTO catalogue_fts (catalogue_fts) VALUES ('rebuild')
+CREATE TRIGGER data_aggregate AFTER INSERT ON data BEGIN INSERT OR IGNORE INTO aggregates (_station_id, _sensor_id, resolution, timestamp, count, sum, minimum, maximum) SELECT NEW._station_id, NEW._sensor_id, resolution, NEW.timestamp - (NEW.timestamp - 345600000) % resolution, 0, 0, NEW.value, NEW.value FROM (SELECT 3600000 AS resolution UNION ALL SELECT 86400000 UNION ALL SELECT 604800000); UPDATE aggregates SET count = count + 1, sum = sum + NEW.value, minimum = MIN(minimum, NEW.value), maximum = MAX(maximum, NEW.value) WHERE _sensor_id = NEW._sensor_id AND timestamp = NEW.timestamp - (NEW.timestamp - 345600000) % resolution; END
+CREATE TRIGGER aggregates_retention AFTER INSERT ON aggregates BEGIN DELETE FROM aggregates WHERE _sensor_id = NEW._sensor_id AND resolution = NEW.resolution AND timestamp <= NEW.timestamp - NEW.resolution * CASE NEW.resolution WHEN 3600000 THEN 336 WHEN 86400000 THEN 180 ELSE 104 END; END
+CREATE TRIGGER catalogue_insert AFTER INSERT ON catalogue BEGIN INSERT INTO catalogue_fts (docid, keywords) VALUES (NEW._id, NEW.keywords); END
+CREATE TRIGGER catalogue_delete BEFORE DELETE ON catalogue BEGIN DELETE FROM catalogue_fts WHERE docid = OLD._id; END
+CREATE TRIGGER catalogue_update_before BEFORE UPDATE ON catalogue BEGIN DELETE FROM catalogue_fts WHERE docid = OLD._id; END
+CREATE TRIGGER catalogue_update_after AFTER UPDATE ON catalogue BEGIN INSERT INTO catalogue_fts (docid, keywords) VALUES (NEW._id, NEW.keywords); END
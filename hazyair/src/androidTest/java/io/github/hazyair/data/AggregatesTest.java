@@ -0,0 +1,126 @@
+package io.github.hazyair.data;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class AggregatesTest {
+
+    private static final long HOUR = AggregatesContract.RESOLUTION_HOUR;
+    private static final long DAY = AggregatesContract.RESOLUTION_DAY;
+    private static final long WEEK = AggregatesContract.RESOLUTION_WEEK;
+    // Monday, start of an hour, a day and a week bucket.
+    private static final long MONDAY = AggregatesContract.EPOCH + 2000 * WEEK;
+
+    private SQLiteDatabase mDb;
+
+    @Before
+    public void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        io.github.hazyair.data.generated.HazyairDatabase
+                .getInstance(InstrumentationRegistry.getTargetContext()).onCreate(mDb);
+    }
+
+    @After
+    public void tearDown() {
+        mDb.close();
+    }
+
+    private void data(int _sensor_id, long timestamp, double value) {
+        ContentValues values = new ContentValues();
+        values.put(DataContract.COLUMN__STATION_ID, 1);
+        values.put(DataContract.COLUMN__SENSOR_ID, _sensor_id);
+        values.put(DataContract.COLUMN_TIMESTAMP, timestamp);
+        values.put(DataContract.COLUMN_VALUE, value);
+        mDb.insertOrThrow(HazyairDatabase.DATA, null, values);
+    }
+
+    private Cursor select(String[] selectionArgs) {
+        return mDb.query(HazyairDatabase.AGGREGATES, HazyairProvider.Aggregates.PROJECTION,
+                HazyairProvider.Aggregates.SELECTION, selectionArgs, null, null,
+                HazyairProvider.Aggregates.DEFAULT_SORT);
+    }
+
+    private void assertBucket(long resolution, long timestamp, double average, double minimum,
+                              double maximum, int count) {
+        Cursor cursor = select(new String[] { "1", String.valueOf(resolution),
+                String.valueOf(timestamp), String.valueOf(timestamp) });
+        try {
+            String message = resolution + " " + timestamp;
+            assertEquals(message, 1, cursor.getCount());
+            assertTrue(cursor.moveToFirst());
+            assertEquals(message, average, cursor.getDouble(1), 1e-9);
+            assertEquals(message, minimum, cursor.getDouble(2), 0);
+            assertEquals(message, maximum, cursor.getDouble(3), 0);
+            assertEquals(message, count, cursor.getInt(4));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void triggerSummarizesEveryResolution() {
+        // Out of order, and another sensor in the same buckets.
+        data(1, MONDAY + 30 * 60000, 20);
+        data(1, MONDAY, 10);
+        data(1, MONDAY + HOUR, 30);
+        data(1, MONDAY + DAY + 5 * HOUR, 60);
+        data(1, MONDAY + 8 * DAY, 100);
+        data(2, MONDAY, 1000);
+
+        assertBucket(HOUR, MONDAY, 15, 10, 20, 2);
+        assertBucket(HOUR, MONDAY + HOUR, 30, 30, 30, 1);
+        assertBucket(HOUR, MONDAY + DAY + 5 * HOUR, 60, 60, 60, 1);
+        assertBucket(DAY, MONDAY, 20, 10, 30, 3);
+        assertBucket(DAY, MONDAY + DAY, 60, 60, 60, 1);
+        assertBucket(DAY, MONDAY + 8 * DAY, 100, 100, 100, 1);
+        assertBucket(WEEK, MONDAY, 30, 10, 60, 4);
+        assertBucket(WEEK, MONDAY + WEEK, 100, 100, 100, 1);
+    }
+
+    @Test
+    public void historyCoversEveryPointOnce() {
+        long now = MONDAY + 400 * DAY + 30 * 60000;
+        int points = 0;
+        mDb.beginTransaction();
+        try {
+            for (long timestamp = now - 400 * DAY; timestamp <= now; timestamp += 5 * HOUR) {
+                data(1, timestamp, points++ % 7);
+            }
+            mDb.setTransactionSuccessful();
+        } finally {
+            mDb.endTransaction();
+        }
+
+        String[][] selectionArgs = HazyairProvider.Aggregates.selectionArgs(1, now);
+        int count = 0;
+        long end = 0;
+        for (int i = 0; i < selectionArgs.length; i++) {
+            long resolution = Long.parseLong(selectionArgs[i][1]);
+            Cursor cursor = select(selectionArgs[i]);
+            try {
+                assertTrue(String.valueOf(resolution), cursor.getCount() > 0);
+                while (cursor.moveToNext()) {
+                    // Buckets do not overlap, neither within nor across resolutions.
+                    assertTrue(cursor.getLong(0) >= end);
+                    end = cursor.getLong(0) + resolution;
+                    count += cursor.getInt(4);
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        assertEquals(points, count);
+    }
+}
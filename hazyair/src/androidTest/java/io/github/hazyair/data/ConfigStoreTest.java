@@ -0,0 +1,124 @@
+package io.github.hazyair.data;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+import java.util.Map;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.*;
+
+/**
+ * Works on keys of its own in the config table of the app under test and removes them after
+ * every test. Latencies depend on the device, so they are only logged.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConfigStoreTest {
+
+    private static final String TAG = ConfigStoreTest.class.getSimpleName();
+    private static final String PREFIX = "io.github.hazyair.TEST_";
+    private static final String KEY = PREFIX + "KEY";
+    private static final String OTHER = PREFIX + "OTHER";
+    private static final int CALLS = 200;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getTargetContext();
+        ConfigStore.flush(mContext);
+    }
+
+    @After
+    public void tearDown() {
+        ConfigStore.flush(mContext);
+        mContext.getContentResolver().delete(HazyairProvider.Config.CONTENT_URI,
+                ConfigContract.COLUMN_KEY + " LIKE ?", new String[] { PREFIX + "%" });
+    }
+
+    @Test
+    public void writesBehind() {
+        ConfigStore.putLong(mContext, KEY, 42);
+
+        assertEquals(42, ConfigStore.getLong(mContext, KEY, 0));
+        assertEquals("", HazyairProvider.Config.get(mContext, KEY));
+        ConfigStore.flush(mContext);
+        assertEquals("42", HazyairProvider.Config.get(mContext, KEY));
+    }
+
+    @Test
+    public void flushesOnItsOwn() {
+        ConfigStore.putString(mContext, KEY, "value");
+
+        long deadline = SystemClock.elapsedRealtime() + 10 * ConfigStore.FLUSH_DELAY;
+        while (HazyairProvider.Config.get(mContext, KEY).isEmpty() &&
+                SystemClock.elapsedRealtime() < deadline) {
+            SystemClock.sleep(50);
+        }
+        assertEquals("value", HazyairProvider.Config.get(mContext, KEY));
+    }
+
+    // Without a context nothing is scheduled, so the test alone takes the pending values.
+    @Test
+    public void failedWriteIsPendingAgain() {
+        ConfigStore.putLong(null, KEY, 1);
+        ConfigStore.putString(null, OTHER, "other");
+        Map<String, Object> pending = ConfigStore.take();
+        assertEquals(2, pending.size());
+        // Written while the first write is in flight.
+        ConfigStore.putLong(null, KEY, 2);
+
+        ConfigStore.finish(null, pending, false);
+
+        pending = ConfigStore.take();
+        assertEquals(2L, pending.get(KEY));
+        assertEquals("other", pending.get(OTHER));
+        ConfigStore.finish(null, pending, true);
+        assertTrue(ConfigStore.take().isEmpty());
+        assertEquals(2, ConfigStore.getLong(mContext, KEY, 0));
+    }
+
+    @Test
+    public void reportsLatencies() {
+        HazyairProvider.Config.set(mContext, KEY, "1");
+        ConfigStore.getString(mContext, KEY, "");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            assertEquals("1", HazyairProvider.Config.get(mContext, KEY));
+        }
+        long providerRead = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            assertEquals("1", ConfigStore.getString(mContext, KEY, ""));
+        }
+        long storeRead = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            HazyairProvider.Config.set(mContext, OTHER + i, String.valueOf(i));
+        }
+        long providerWrite = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            ConfigStore.putString(mContext, KEY + i, String.valueOf(i));
+        }
+        ConfigStore.flush(mContext);
+        long storeWrite = System.nanoTime() - start;
+        assertEquals(String.valueOf(CALLS - 1),
+                HazyairProvider.Config.get(mContext, KEY + (CALLS - 1)));
+
+        Log.i(TAG, String.format(Locale.ROOT, "per call over %d calls: provider read"
+                + " %.1f us, store read %.1f us, provider write %.1f us, store write and flush"
+                + " %.1f us", CALLS, providerRead / 1e3 / CALLS, storeRead / 1e3 / CALLS,
+                providerWrite / 1e3 / CALLS, storeWrite / 1e3 / CALLS));
+    }
+}
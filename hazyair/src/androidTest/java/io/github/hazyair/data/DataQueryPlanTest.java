@@ -0,0 +1,89 @@
+package io.github.hazyair.data;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class DataQueryPlanTest {
+
+    private static final String INDEX = "sqlite_autoindex_" + HazyairDatabase.DATA + "_1";
+    private static final String SENSOR = HazyairDatabase.DATA + " WHERE "
+            + DataContract.COLUMN__STATION_ID + " = ? AND " + DataContract.COLUMN__SENSOR_ID
+            + " = ?";
+
+    private SQLiteDatabase mDb;
+
+    @Before
+    public void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        mDb.execSQL(io.github.hazyair.data.generated.HazyairDatabase.DATA);
+    }
+
+    @After
+    public void tearDown() {
+        mDb.close();
+    }
+
+    private String plan(String sql, String... args) {
+        StringBuilder plan = new StringBuilder();
+        try (Cursor cursor = mDb.rawQuery("EXPLAIN QUERY PLAN " + sql, args)) {
+            int detail = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) plan.append(cursor.getString(detail)).append('\n');
+        }
+        return plan.toString();
+    }
+
+    private void assertIndexed(String plan) {
+        assertTrue(plan, plan.contains("INDEX " + INDEX));
+        assertFalse(plan, plan.contains("TEMP B-TREE"));
+    }
+
+    @Test
+    public void sensorHistoryUsesIndex() {
+        assertIndexed(plan("SELECT * FROM " + SENSOR + " ORDER BY "
+                + HazyairProvider.Data.DEFAULT_SORT, "1", "2"));
+        assertIndexed(plan("SELECT * FROM " + SENSOR + " ORDER BY "
+                + DataContract.COLUMN_TIMESTAMP + " ASC", "1", "2"));
+    }
+
+    @Test
+    public void retentionDeleteUsesIndex() {
+        String plan = plan("DELETE FROM " + SENSOR + " AND " + DataContract.COLUMN_TIMESTAMP
+                + " < ?", "1", "2", "3");
+        assertIndexed(plan);
+        assertTrue(plan, plan.contains(DataContract.COLUMN_TIMESTAMP + "<?"));
+    }
+
+    @Test
+    public void latestTimestampsUseIndex() {
+        assertIndexed(plan("SELECT " + DataContract.COLUMN__SENSOR_ID + ", MAX("
+                + DataContract.COLUMN_TIMESTAMP + ") FROM " + HazyairDatabase.DATA
+                + " GROUP BY " + DataContract.COLUMN__SENSOR_ID));
+    }
+
+    @Test
+    public void resyncedPointsAreIgnored() {
+        ContentValues values = new ContentValues();
+        values.put(DataContract.COLUMN__STATION_ID, 1);
+        values.put(DataContract.COLUMN__SENSOR_ID, 2);
+        values.put(DataContract.COLUMN_TIMESTAMP, 3600000L);
+        values.put(DataContract.COLUMN_VALUE, 10.0);
+        mDb.insert(HazyairDatabase.DATA, null, values);
+        values.put(DataContract.COLUMN_VALUE, 20.0);
+        mDb.insert(HazyairDatabase.DATA, null, values);
+        assertEquals(1, DatabaseUtils.queryNumEntries(mDb, HazyairDatabase.DATA));
+        assertEquals(10.0, Double.parseDouble(DatabaseUtils.stringForQuery(mDb, "SELECT "
+                + DataContract.COLUMN_VALUE + " FROM " + HazyairDatabase.DATA, null)), 0);
+    }
+}
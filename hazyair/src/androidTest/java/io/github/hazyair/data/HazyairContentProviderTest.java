@@ -0,0 +1,253 @@
+package io.github.hazyair.data;
+
+import android.content.ContentProviderOperation;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.*;
+
+/**
+ * Writes through the provider of the app under test, under a station id no source hands out,
+ * and removes that station's rows before and after every test. Timings and allocations depend
+ * on the device, so they are only logged.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HazyairContentProviderTest {
+
+    private static final String TAG = HazyairContentProviderTest.class.getSimpleName();
+    private static final int STATION = Integer.MAX_VALUE - 1;
+    private static final int SENSOR = Integer.MAX_VALUE - 1;
+    // Notified after the batch, so once it arrives every notification of the batch has, too.
+    private static final int SENTINEL = Integer.MAX_VALUE;
+    private static final int BATCH = 20000;
+
+    private Context mContext;
+    private HandlerThread mThread;
+
+    /**
+     * Collects the URIs notified under the data URI until the sentinel arrives.
+     */
+    private class Observer extends ContentObserver {
+        private final List<Uri> mUris = new ArrayList<>();
+        private final CountDownLatch mSentinel = new CountDownLatch(1);
+
+        private Observer() {
+            super(new Handler(mThread.getLooper()));
+            mContext.getContentResolver().registerContentObserver(
+                    HazyairProvider.Data.CONTENT_URI, true, this);
+        }
+
+        @Override
+        public void onChange(boolean selfChange, Uri uri) {
+            if (HazyairProvider.Data.fromSensor(STATION, SENTINEL).equals(uri)) {
+                mSentinel.countDown();
+            } else {
+                synchronized (mUris) {
+                    mUris.add(uri);
+                }
+            }
+        }
+
+        private List<Uri> await() throws InterruptedException {
+            mContext.getContentResolver().notifyChange(
+                    HazyairProvider.Data.fromSensor(STATION, SENTINEL), null);
+            assertTrue(mSentinel.await(10, TimeUnit.SECONDS));
+            mContext.getContentResolver().unregisterContentObserver(this);
+            synchronized (mUris) {
+                return new ArrayList<>(mUris);
+            }
+        }
+    }
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getTargetContext();
+        mThread = new HandlerThread(TAG);
+        mThread.start();
+        HazyairProvider.delete(mContext, STATION);
+    }
+
+    @After
+    public void tearDown() {
+        HazyairProvider.delete(mContext, STATION);
+        mThread.quit();
+    }
+
+    private static ContentProviderOperation insert(int sensor, long timestamp, double value) {
+        return ContentProviderOperation.newInsert(HazyairProvider.Data.CONTENT_URI)
+                .withValue(DataContract.COLUMN__STATION_ID, STATION)
+                .withValue(DataContract.COLUMN__SENSOR_ID, sensor)
+                .withValue(DataContract.COLUMN_TIMESTAMP, timestamp)
+                .withValue(DataContract.COLUMN_VALUE, value)
+                .withYieldAllowed(true).build();
+    }
+
+    private static ArrayList<ContentProviderOperation> batch(int size) {
+        ArrayList<ContentProviderOperation> cpo = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cpo.add(insert(SENSOR, i * AggregatesContract.RESOLUTION_HOUR, i));
+        }
+        return cpo;
+    }
+
+    private int count() {
+        Cursor cursor = mContext.getContentResolver().query(
+                HazyairProvider.Data.fromSensor(STATION, SENSOR),
+                new String[] { DataContract.COLUMN_TIMESTAMP }, null, null, null);
+        assertNotNull(cursor);
+        try {
+            return cursor.getCount();
+        } finally {
+            cursor.close();
+        }
+    }
+
+    // Reads through the provider while another thread writes one large batch, and returns the
+    // number of reads and the longest read in milliseconds.
+    private long[] readDuringWrite(int chunk) throws InterruptedException {
+        HazyairProvider.delete(mContext, STATION);
+        long[] result = new long[2];
+        boolean[] applied = new boolean[1];
+        Thread thread = new Thread(() -> applied[0] =
+                HazyairProvider.bulkExecute(mContext, batch(BATCH), chunk) != null);
+        thread.start();
+        while (thread.isAlive()) {
+            long start = System.nanoTime();
+            count();
+            result[0]++;
+            result[1] = Math.max(result[1], (System.nanoTime() - start) / 1000000);
+        }
+        thread.join();
+        assertTrue(applied[0]);
+        assertEquals(BATCH, count());
+        return result;
+    }
+
+    @Test
+    public void reportsReadsDuringChunkedWrite() throws InterruptedException {
+        long[] atomic = readDuringWrite(HazyairContentProvider.ATOMIC);
+        long[] chunked = readDuringWrite(HazyairProvider.CHUNK);
+        Log.i(TAG, "reads during a batch of " + BATCH + " points: one transaction "
+                + atomic[0] + " reads, longest " + atomic[1] + " ms; chunks of "
+                + HazyairProvider.CHUNK + " " + chunked[0] + " reads, longest " + chunked[1]
+                + " ms");
+        assertTrue(chunked[0] > 0);
+    }
+
+    @Test
+    public void ingestSkipsDuplicates() {
+        HazyairProvider.Data.Ingest ingest = new HazyairProvider.Data.Ingest();
+        for (int i = 0; i < 100; i++) {
+            ingest.add(STATION, SENSOR, i * AggregatesContract.RESOLUTION_HOUR, i);
+        }
+        assertEquals(100, ingest.execute(mContext));
+        assertEquals(0, ingest.execute(mContext));
+
+        // Half of the points are stored already.
+        ingest = new HazyairProvider.Data.Ingest();
+        for (int i = 50; i < 150; i++) {
+            ingest.add(STATION, SENSOR, i * AggregatesContract.RESOLUTION_HOUR, -i);
+        }
+        assertEquals(50, ingest.execute(mContext));
+        assertEquals(150, count());
+    }
+
+    private static long allocated() {
+        return Long.parseLong(Debug.getRuntimeStat("art.gc.bytes-allocated"));
+    }
+
+    @Test
+    public void reportsIngestTimes() {
+        StringBuilder report = new StringBuilder("points inserted");
+        for (int size : new int[] { 1000, 10000, 100000 }) {
+            HazyairProvider.delete(mContext, STATION);
+            long bytes = allocated();
+            long start = System.nanoTime();
+            assertNotNull(HazyairProvider.bulkExecute(mContext, batch(size)));
+            long batch = (System.nanoTime() - start) / 1000000;
+            long batchBytes = allocated() - bytes;
+            assertEquals(size, count());
+
+            HazyairProvider.delete(mContext, STATION);
+            bytes = allocated();
+            start = System.nanoTime();
+            HazyairProvider.Data.Ingest ingest = new HazyairProvider.Data.Ingest();
+            for (int i = 0; i < size; i++) {
+                ingest.add(STATION, SENSOR, i * AggregatesContract.RESOLUTION_HOUR, i);
+            }
+            assertEquals(size, ingest.execute(mContext));
+            long compiled = (System.nanoTime() - start) / 1000000;
+            long compiledBytes = allocated() - bytes;
+            assertEquals(size, count());
+
+            report.append(", ").append(size).append(": operations ").append(batch)
+                    .append(" ms ").append(batchBytes / 1024).append(" KiB, compiled statement ")
+                    .append(compiled).append(" ms ").append(compiledBytes / 1024).append(" KiB");
+        }
+        Log.i(TAG, report.toString());
+    }
+
+    @Test
+    public void batchNotifiesEverySensorOnce() throws InterruptedException {
+        Observer observer = new Observer();
+        ArrayList<ContentProviderOperation> cpo = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            cpo.add(insert(SENSOR - i % 3, i * AggregatesContract.RESOLUTION_HOUR, i));
+        }
+
+        assertNotNull(HazyairProvider.bulkExecute(mContext, cpo));
+
+        List<Uri> uris = observer.await();
+        assertEquals(uris.toString(), 3, uris.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HazyairProvider.Data.fromSensor(STATION, SENSOR - i), uris.get(i));
+        }
+    }
+
+    @Test
+    public void failedBatchNotifiesNothing() throws InterruptedException {
+        Observer observer = new Observer();
+        ArrayList<ContentProviderOperation> cpo = batch(10);
+        // A station without its required columns fails the batch at its last operation.
+        cpo.add(ContentProviderOperation.newInsert(HazyairProvider.Stations.CONTENT_URI)
+                .withValue(StationsContract.COLUMN__ID, STATION).build());
+
+        assertNull(HazyairProvider.bulkExecute(mContext, cpo));
+
+        assertEquals(0, count());
+        assertEquals(new ArrayList<Uri>(), observer.await());
+    }
+
+    @Test
+    public void committedChunksAreNotified() throws InterruptedException {
+        Observer observer = new Observer();
+        ArrayList<ContentProviderOperation> cpo = batch(10);
+        cpo.add(ContentProviderOperation.newInsert(HazyairProvider.Stations.CONTENT_URI)
+                .withValue(StationsContract.COLUMN__ID, STATION).build());
+
+        // The first five points are committed before the second chunk fails.
+        assertNull(HazyairProvider.bulkExecute(mContext, cpo, 5));
+
+        assertEquals(5, count());
+        assertTrue(observer.await().contains(HazyairProvider.Data.fromSensor(STATION, SENSOR)));
+    }
+}
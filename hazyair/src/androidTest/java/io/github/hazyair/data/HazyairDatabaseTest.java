@@ -0,0 +1,173 @@
+package io.github.hazyair.data;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDatabaseLockedException;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the connection settings applied by onConfigure and reports, in the log, how long small
+ * commits take with and without them and how long a reader waits while a large batch is written
+ * with a rollback journal and with write-ahead logging. Timings depend on the device, so only
+ * the behaviour is asserted.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HazyairDatabaseTest {
+
+    private static final String TAG = HazyairDatabaseTest.class.getSimpleName();
+    private static final int COMMITS = 200;
+    private static final int POINTS = 10;
+    private static final int BATCH = 20000;
+
+    private File mFile;
+
+    @Before
+    public void setUp() {
+        mFile = new File(InstrumentationRegistry.getTargetContext().getCacheDir(),
+                "hazyair-test.db");
+        SQLiteDatabase.deleteDatabase(mFile);
+    }
+
+    @After
+    public void tearDown() {
+        SQLiteDatabase.deleteDatabase(mFile);
+    }
+
+    private SQLiteDatabase open(boolean configure) {
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(mFile, null);
+        if (configure) HazyairDatabase.onConfigure(db);
+        else db.enableWriteAheadLogging();
+        create(db);
+        return db;
+    }
+
+    private static void create(SQLiteDatabase db) {
+        io.github.hazyair.data.generated.HazyairDatabase
+                .getInstance(InstrumentationRegistry.getTargetContext()).onCreate(db);
+    }
+
+    private static void insert(SQLiteDatabase db, ContentValues values, int sensor, int hour,
+                               double value) {
+        values.put(DataContract.COLUMN__STATION_ID, 1);
+        values.put(DataContract.COLUMN__SENSOR_ID, sensor);
+        values.put(DataContract.COLUMN_TIMESTAMP, hour * AggregatesContract.RESOLUTION_HOUR);
+        values.put(DataContract.COLUMN_VALUE, value);
+        db.insertOrThrow(HazyairDatabase.DATA, null, values);
+    }
+
+    private long write(SQLiteDatabase db) {
+        ContentValues values = new ContentValues();
+        long start = System.nanoTime();
+        for (int i = 0; i < COMMITS; i++) {
+            db.beginTransaction();
+            try {
+                for (int j = 0; j < POINTS; j++) insert(db, values, j, i, i + j);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    @Test
+    public void writerIsConfigured() {
+        SQLiteDatabase db = open(true);
+        try {
+            assertEquals("wal", DatabaseUtils.stringForQuery(db, "PRAGMA journal_mode", null));
+            assertEquals(1, DatabaseUtils.longForQuery(db, "PRAGMA synchronous", null));
+            assertEquals(HazyairDatabase.CACHE_SIZE,
+                    DatabaseUtils.longForQuery(db, "PRAGMA cache_size", null));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void reportsCommitTimes() {
+        long[] times = new long[2];
+        for (int i = 0; i < times.length; i++) {
+            SQLiteDatabase.deleteDatabase(mFile);
+            SQLiteDatabase db = open(i == 1);
+            try {
+                times[i] = write(db);
+                assertEquals(COMMITS * POINTS,
+                        DatabaseUtils.queryNumEntries(db, HazyairDatabase.DATA));
+            } finally {
+                db.close();
+            }
+        }
+        Log.i(TAG, COMMITS + " commits of " + POINTS + " points: defaults " + times[0]
+                + " ms, configured " + times[1] + " ms");
+    }
+
+    // Reads from a second connection while another thread writes one large batch, and returns
+    // the number of reads, the reads refused with a lock and the longest read in milliseconds.
+    private long[] readDuringWrite(boolean wal) throws InterruptedException {
+        SQLiteDatabase.deleteDatabase(mFile);
+        SQLiteDatabase writer = SQLiteDatabase.openOrCreateDatabase(mFile, null);
+        if (wal) writer.enableWriteAheadLogging();
+        else writer.disableWriteAheadLogging();
+        create(writer);
+        // A small page cache spills early, so the rollback journal takes its exclusive lock
+        // long before the commit.
+        writer.execSQL("PRAGMA cache_size = 16");
+        SQLiteDatabase reader = SQLiteDatabase.openDatabase(mFile.getPath(), null,
+                SQLiteDatabase.OPEN_READONLY);
+        long[] result = new long[3];
+        try {
+            Thread thread = new Thread(() -> {
+                ContentValues values = new ContentValues();
+                writer.beginTransaction();
+                try {
+                    for (int i = 0; i < BATCH; i++) insert(writer, values, i % 10, i / 10, i);
+                    writer.setTransactionSuccessful();
+                } finally {
+                    writer.endTransaction();
+                }
+            });
+            thread.start();
+            while (thread.isAlive()) {
+                long start = System.nanoTime();
+                try {
+                    DatabaseUtils.queryNumEntries(reader, HazyairDatabase.DATA);
+                } catch (SQLiteDatabaseLockedException e) {
+                    result[1]++;
+                }
+                result[0]++;
+                result[2] = Math.max(result[2], (System.nanoTime() - start) / 1000000);
+            }
+            thread.join();
+            assertEquals(BATCH, DatabaseUtils.queryNumEntries(reader, HazyairDatabase.DATA));
+        } finally {
+            reader.close();
+            writer.close();
+        }
+        return result;
+    }
+
+    @Test
+    public void readersAreNotBlockedByWriter() throws InterruptedException {
+        long[] rollback = readDuringWrite(false);
+        long[] wal = readDuringWrite(true);
+        Log.i(TAG, "reads during a batch of " + BATCH + " points: rollback journal "
+                + rollback[0] + " reads, " + rollback[1] + " locked, longest " + rollback[2]
+                + " ms; write-ahead log " + wal[0] + " reads, " + wal[1] + " locked, longest "
+                + wal[2] + " ms");
+        assertTrue(wal[0] > 0);
+        assertEquals(0, wal[1]);
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.hazyair.data;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Bundle;
+import android.os.OperationCanceledException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class MaintenanceTest {
+
+    private static final long NOW = AggregatesContract.EPOCH
+            + 2500 * AggregatesContract.RESOLUTION_DAY;
+    private static final int POINTS = 5000;
+
+    private SQLiteDatabase mDb;
+
+    @Before
+    public void setUp() {
+        mDb = SQLiteDatabase.create(null);
+        io.github.hazyair.data.generated.HazyairDatabase
+                .getInstance(InstrumentationRegistry.getTargetContext()).onCreate(mDb);
+        ContentValues values = new ContentValues();
+        values.put(StationsContract.COLUMN__ID, 1);
+        values.put(StationsContract.COLUMN_NAME, "");
+        values.put(StationsContract.COLUMN_LATITUDE, 0);
+        values.put(StationsContract.COLUMN_LONGITUDE, 0);
+        values.put(StationsContract.COLUMN_COUNTRY, 0);
+        values.put(StationsContract.COLUMN_LOCALITY, "");
+        values.put(StationsContract.COLUMN_ADDRESS, "");
+        values.put(StationsContract.COLUMN_SOURCE, 0);
+        mDb.insertOrThrow(HazyairDatabase.STATIONS, null, values);
+        // Sensor 2 belongs to a removed station.
+        sensor(1, 1);
+        sensor(2, 2);
+    }
+
+    @After
+    public void tearDown() {
+        mDb.close();
+    }
+
+    private void sensor(int _id, int _station_id) {
+        ContentValues values = new ContentValues();
+        values.put(SensorsContract.COLUMN__ID, _id);
+        values.put(SensorsContract.COLUMN__STATION_ID, _station_id);
+        values.put(SensorsContract.COLUMN_PARAMETER, "PM10");
+        mDb.insertOrThrow(HazyairDatabase.SENSORS, null, values);
+    }
+
+    private void data(int _station_id, int _sensor_id, long timestamp, double value) {
+        ContentValues values = new ContentValues();
+        values.put(DataContract.COLUMN__STATION_ID, _station_id);
+        values.put(DataContract.COLUMN__SENSOR_ID, _sensor_id);
+        values.put(DataContract.COLUMN_TIMESTAMP, timestamp);
+        values.put(DataContract.COLUMN_VALUE, value);
+        mDb.insertOrThrow(HazyairDatabase.DATA, null, values);
+    }
+
+    private void hourly(int _station_id, int _sensor_id) {
+        mDb.beginTransaction();
+        try {
+            for (int i = 0; i < POINTS; i++) {
+                data(_station_id, _sensor_id, NOW - i * AggregatesContract.RESOLUTION_HOUR, i);
+            }
+            mDb.setTransactionSuccessful();
+        } finally {
+            mDb.endTransaction();
+        }
+    }
+
+    private long count(String table, String selection) {
+        return DatabaseUtils.queryNumEntries(mDb, table, selection);
+    }
+
+    @Test
+    public void removesExpiredAndOrphanedRows() {
+        data(1, 1, NOW - AggregatesContract.RESOLUTION_HOUR, 10);
+        data(1, 1, NOW - 20 * AggregatesContract.RESOLUTION_DAY, 20);
+        data(2, 2, NOW - AggregatesContract.RESOLUTION_HOUR, 30);
+        // Sensor 3 was never stored.
+        data(1, 3, NOW - AggregatesContract.RESOLUTION_HOUR, 40);
+        assertEquals(12, count(HazyairDatabase.AGGREGATES, null));
+        assertEquals(3, count(HazyairDatabase.LATEST, null));
+
+        Bundle report = Maintenance.run(mDb, NOW);
+
+        // 1 sensor, 2 orphaned and 1 expired points, 6 orphaned and 1 expired hourly aggregate;
+        // the latest rows of removed points go with them through the delete trigger.
+        assertEquals(11, report.getInt(Maintenance.EXTRA_ROWS));
+        assertTrue(report.getLong(Maintenance.EXTRA_BYTES) >= 0);
+        assertTrue(report.getLong(Maintenance.EXTRA_DURATION) >= 0);
+        assertEquals(1, count(HazyairDatabase.STATIONS, null));
+        assertEquals(1, count(HazyairDatabase.SENSORS, null));
+        assertEquals(1, count(HazyairDatabase.DATA, null));
+        assertEquals(1, count(HazyairDatabase.DATA, DataContract.COLUMN_TIMESTAMP + " = "
+                + (NOW - AggregatesContract.RESOLUTION_HOUR)));
+        assertEquals(0, count(HazyairDatabase.AGGREGATES,
+                AggregatesContract.COLUMN__SENSOR_ID + " != 1"));
+        // The expired point stays summarized at day and week resolution.
+        assertEquals(5, count(HazyairDatabase.AGGREGATES, null));
+        assertEquals(1, count(HazyairDatabase.AGGREGATES, AggregatesContract.COLUMN_RESOLUTION
+                + " = " + AggregatesContract.RESOLUTION_HOUR));
+        assertEquals(1, count(HazyairDatabase.LATEST, null));
+        assertEquals("10.0", DatabaseUtils.stringForQuery(mDb, "SELECT "
+                + LatestContract.COLUMN_VALUE + " FROM " + HazyairDatabase.LATEST, null));
+
+        assertEquals(0, Maintenance.run(mDb, NOW).getInt(Maintenance.EXTRA_ROWS));
+    }
+
+    @Test
+    public void interruptedRunRemovesNothing() {
+        data(2, 2, NOW - AggregatesContract.RESOLUTION_HOUR, 30);
+        Thread.currentThread().interrupt();
+        try {
+            Maintenance.run(mDb, NOW);
+            fail();
+        } catch (OperationCanceledException e) {
+            assertTrue(Thread.interrupted());
+        }
+        assertEquals(2, count(HazyairDatabase.SENSORS, null));
+        assertEquals(1, count(HazyairDatabase.DATA, null));
+    }
+
+    @Test
+    public void reclaimsSpace() {
+        hourly(2, 2);
+
+        Bundle report = Maintenance.run(mDb, NOW);
+
+        assertTrue(report.getInt(Maintenance.EXTRA_ROWS) >= POINTS);
+        assertTrue(report.getLong(Maintenance.EXTRA_BYTES) > 0);
+        assertEquals(0, count(HazyairDatabase.DATA, null));
+        assertEquals(2, DatabaseUtils.longForQuery(mDb, "PRAGMA auto_vacuum", null));
+
+        // Once auto_vacuum is set, later runs compact incrementally.
+        hourly(1, 1);
+        report = Maintenance.run(mDb, NOW);
+        assertTrue(report.getInt(Maintenance.EXTRA_ROWS) > 0);
+        assertTrue(report.getLong(Maintenance.EXTRA_BYTES) > 0);
+        assertEquals(2, DatabaseUtils.longForQuery(mDb, "PRAGMA auto_vacuum", null));
+    }
+}
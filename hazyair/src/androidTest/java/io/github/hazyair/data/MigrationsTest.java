@@ -0,0 +1,213 @@
+package io.github.hazyair.data;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.*;
+
+/**
+ * Upgrades fixture databases, one per shipped schema version, and compares them with a
+ * database created at the current version. Fixtures live in assets/migrations, one statement
+ * per line.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationsTest {
+
+    private static final int OLDEST = 2;
+    private static final String AGGREGATES = "SELECT " + AggregatesContract.COLUMN__STATION_ID
+            + ", " + AggregatesContract.COLUMN__SENSOR_ID + ", "
+            + AggregatesContract.COLUMN_RESOLUTION + ", " + AggregatesContract.COLUMN_TIMESTAMP
+            + ", " + AggregatesContract.COLUMN_COUNT + ", " + AggregatesContract.COLUMN_SUM + ", "
+            + AggregatesContract.COLUMN_MINIMUM + ", " + AggregatesContract.COLUMN_MAXIMUM
+            + " FROM " + HazyairDatabase.AGGREGATES + " ORDER BY "
+            + AggregatesContract.COLUMN__SENSOR_ID + ", " + AggregatesContract.COLUMN_RESOLUTION
+            + ", " + AggregatesContract.COLUMN_TIMESTAMP;
+    private static final String LATEST = "SELECT * FROM " + HazyairDatabase.LATEST
+            + " ORDER BY " + LatestContract.COLUMN__SENSOR_ID;
+
+    private static SQLiteDatabase fixture(int version) throws IOException {
+        SQLiteDatabase db = SQLiteDatabase.create(null);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                InstrumentationRegistry.getContext().getAssets()
+                        .open("migrations/v" + version + ".sql"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) db.execSQL(line);
+            }
+        }
+        return db;
+    }
+
+    private static SQLiteDatabase fresh() {
+        SQLiteDatabase db = SQLiteDatabase.create(null);
+        io.github.hazyair.data.generated.HazyairDatabase
+                .getInstance(InstrumentationRegistry.getTargetContext()).onCreate(db);
+        return db;
+    }
+
+    private static List<String> rows(SQLiteDatabase db, String sql) {
+        List<String> rows = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery(sql, null)) {
+            while (cursor.moveToNext()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 0; i < cursor.getColumnCount(); i++) {
+                    row.append(cursor.getString(i)).append('|');
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+    // Tables with their columns and unique keys, and triggers with their tables.
+    private static Map<String, String> schema(SQLiteDatabase db) {
+        Map<String, String> schema = new TreeMap<>();
+        try (Cursor cursor = db.rawQuery("SELECT type, name, tbl_name FROM sqlite_master"
+                + " WHERE name NOT LIKE 'sqlite_%' AND name NOT LIKE '"
+                + HazyairDatabase.CATALOGUE_FTS + "_%'", null)) {
+            while (cursor.moveToNext()) {
+                String type = cursor.getString(0);
+                String name = cursor.getString(1);
+                if ("table".equals(type)) {
+                    schema.put(name, rows(db, "PRAGMA table_info(" + name + ")").toString()
+                            + unique(db, name));
+                } else {
+                    schema.put(name, type + " " + cursor.getString(2));
+                }
+            }
+        }
+        return schema;
+    }
+
+    private static List<List<String>> unique(SQLiteDatabase db, String table) {
+        List<List<String>> keys = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("PRAGMA index_list(" + table + ")", null)) {
+            int name = cursor.getColumnIndexOrThrow("name");
+            int unique = cursor.getColumnIndexOrThrow("unique");
+            while (cursor.moveToNext()) {
+                if (cursor.getInt(unique) == 0) continue;
+                keys.add(rows(db, "PRAGMA index_info(" + cursor.getString(name) + ")"));
+            }
+        }
+        return keys;
+    }
+
+    // Replays the migrated stations, sensors and data through the triggers of a fresh database.
+    private static SQLiteDatabase replay(SQLiteDatabase db) {
+        SQLiteDatabase expected = fresh();
+        for (String table : new String[] { HazyairDatabase.STATIONS, HazyairDatabase.SENSORS,
+                HazyairDatabase.DATA }) {
+            try (Cursor cursor = db.rawQuery("SELECT * FROM " + table + " ORDER BY rowid",
+                    null)) {
+                while (cursor.moveToNext()) {
+                    ContentValues values = new ContentValues();
+                    DatabaseUtils.cursorRowToContentValues(cursor, values);
+                    expected.insertOrThrow(table, null, values);
+                }
+            }
+        }
+        return expected;
+    }
+
+    private static void insert(SQLiteDatabase db, long timestamp, double value) {
+        ContentValues values = new ContentValues();
+        values.put(DataContract.COLUMN__STATION_ID, 1);
+        values.put(DataContract.COLUMN__SENSOR_ID, 1);
+        values.put(DataContract.COLUMN_TIMESTAMP, timestamp);
+        values.put(DataContract.COLUMN_VALUE, value);
+        db.insert(HazyairDatabase.DATA, null, values);
+    }
+
+    @Test
+    public void everyVersionUpgradesToCurrent() throws IOException {
+        SQLiteDatabase current = fresh();
+        Map<String, String> schema = schema(current);
+        current.close();
+        for (int version = OLDEST; version < HazyairDatabase.VERSION; version++) {
+            String message = "v" + version;
+            SQLiteDatabase db = fixture(version);
+            try {
+                assertTrue(message, Migrations.migrate(db, version, HazyairDatabase.VERSION));
+                assertEquals(message, schema, schema(db));
+                assertEquals(message, 2,
+                        DatabaseUtils.queryNumEntries(db, HazyairDatabase.STATIONS));
+                assertEquals(message, 3,
+                        DatabaseUtils.queryNumEntries(db, HazyairDatabase.SENSORS));
+                assertEquals(message, 15,
+                        DatabaseUtils.queryNumEntries(db, HazyairDatabase.DATA));
+                assertEquals(message, 1,
+                        DatabaseUtils.queryNumEntries(db, HazyairDatabase.CONFIG));
+                SQLiteDatabase expected = replay(db);
+                try {
+                    assertEquals(message, rows(expected, AGGREGATES), rows(db, AGGREGATES));
+                    assertEquals(message, rows(expected, LATEST), rows(db, LATEST));
+                    long next = DatabaseUtils.longForQuery(db, "SELECT MAX("
+                            + DataContract.COLUMN_TIMESTAMP + ") FROM " + HazyairDatabase.DATA,
+                            null) + AggregatesContract.RESOLUTION_HOUR;
+                    insert(db, next, 50.0);
+                    insert(expected, next, 50.0);
+                    assertEquals(message, rows(expected, AGGREGATES), rows(db, AGGREGATES));
+                    assertEquals(message, rows(expected, LATEST), rows(db, LATEST));
+                } finally {
+                    expected.close();
+                }
+            } finally {
+                db.close();
+            }
+        }
+    }
+
+    @Test
+    public void duplicatedPointsKeepTheOldestCopy() throws IOException {
+        SQLiteDatabase db = fixture(OLDEST);
+        try {
+            assertEquals(16, DatabaseUtils.queryNumEntries(db, HazyairDatabase.DATA));
+            assertTrue(Migrations.migrate(db, OLDEST, HazyairDatabase.VERSION));
+            assertEquals("14.0", DatabaseUtils.stringForQuery(db, "SELECT "
+                    + LatestContract.COLUMN_VALUE + " FROM " + HazyairDatabase.LATEST + " WHERE "
+                    + LatestContract.COLUMN__SENSOR_ID + " = 1", null));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void catalogueStaysSearchable() throws IOException {
+        SQLiteDatabase db = fixture(5);
+        try {
+            assertTrue(Migrations.migrate(db, 5, HazyairDatabase.VERSION));
+            assertEquals(1, DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM "
+                    + HazyairDatabase.CATALOGUE_FTS + " WHERE "
+                    + CatalogueContract.COLUMN_KEYWORDS + " MATCH 'krakow*'", null));
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void missingStepFallsBackToRecreate() {
+        SQLiteDatabase db = SQLiteDatabase.create(null);
+        try {
+            assertFalse(Migrations.migrate(db, OLDEST - 1, HazyairDatabase.VERSION));
+        } finally {
+            db.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.hazyair.gui;
+
+import android.content.Context;
+import android.util.DisplayMetrics;
+
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.interfaces.datasets.ILineDataSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+import io.github.hazyair.data.HazyairProvider;
+
+import static org.junit.Assert.*;
+
+/**
+ * Loads charts through the provider of the app under test, under a station id no source hands
+ * out, and removes that station's rows before and after every test.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChartLoaderTest {
+
+    private static final int STATION = Integer.MAX_VALUE - 1;
+    private static final int SENSOR = Integer.MAX_VALUE - 1;
+    private static final String LABEL = "PM10";
+    private static final int DAYS = 400;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getTargetContext();
+        HazyairProvider.delete(mContext, STATION);
+    }
+
+    @After
+    public void tearDown() {
+        HazyairProvider.delete(mContext, STATION);
+    }
+
+    // Loaders observe their data through a handler, so they are created on the main thread.
+    private LineData load(int _id) {
+        ChartLoader[] loader = new ChartLoader[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> loader[0] =
+                ChartLoader.newInstanceForSensor(mContext, STATION, _id, LABEL));
+        return loader[0].loadInBackground();
+    }
+
+    @Test
+    public void sensorWithoutDataHasNoChart() {
+        assertNull(load(SENSOR));
+    }
+
+    @Test
+    public void historyIsDownsampledToTheScreen() {
+        long now = System.currentTimeMillis();
+        long hour = TimeUnit.HOURS.toMillis(1);
+        long from = now - TimeUnit.DAYS.toMillis(DAYS);
+        HazyairProvider.Data.Ingest ingest = new HazyairProvider.Data.Ingest();
+        int points = 0;
+        for (long timestamp = from; timestamp <= now; timestamp += hour) {
+            ingest.add(STATION, SENSOR, timestamp, points++ % 50);
+        }
+        assertEquals(points, ingest.execute(mContext));
+
+        LineData data = load(SENSOR);
+
+        assertNotNull(data);
+        assertEquals(1, data.getDataSetCount());
+        ILineDataSet set = data.getDataSetByIndex(0);
+        assertEquals(LABEL, set.getLabel());
+        DisplayMetrics metrics = mContext.getResources().getDisplayMetrics();
+        assertTrue(set.getEntryCount() > 2);
+        assertTrue(set.getEntryCount() <= (int) (metrics.widthPixels / metrics.density));
+        float last = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < set.getEntryCount(); i++) {
+            Entry entry = set.getEntryForIndex(i);
+            assertTrue(entry.getX() > last);
+            assertTrue(entry.getY() >= 0 && entry.getY() < 50);
+            last = entry.getX();
+        }
+        // The whole kept history is covered, from its oldest bucket to the latest hour.
+        assertTrue(set.getEntryForIndex(0).getX() <= from);
+        assertTrue(last >= now - 2 * hour);
+    }
+}
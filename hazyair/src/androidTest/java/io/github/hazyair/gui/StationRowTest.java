@@ -0,0 +1,108 @@
+package io.github.hazyair.gui;
+
+import android.content.Context;
+import android.location.Location;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+import io.github.hazyair.R;
+import io.github.hazyair.source.Station;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class StationRowTest {
+
+    private static final int TYPE = 2;
+    private static final int OTHER_TYPE = 0;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getTargetContext();
+    }
+
+    private static Station station(String id) {
+        return new Station(id, "Warszawa-Marszałkowska", 52.225073, 21.006886,
+                R.string.data_poland, "Warszawa", "ul. Marszałkowska",
+                R.string.data_source_gios);
+    }
+
+    private static Location location(double latitude, double longitude) {
+        Location location = new Location("test");
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        return location;
+    }
+
+    private StationRow row(Station station, int state, boolean distance, Location location) {
+        return StationRow.of(mContext, TYPE, state, station, null, distance, location);
+    }
+
+    @Test
+    public void equalStationsGiveEqualRows() {
+        StationRow one = row(station("114"), StationRow.STATE_NONE, false, null);
+        StationRow two = row(station("114"), StationRow.STATE_NONE, false, null);
+
+        assertEquals(one, two);
+        assertEquals(one.hashCode(), two.hashCode());
+        assertTrue(StationRow.DIFF.areItemsTheSame(one, two));
+        assertTrue(StationRow.DIFF.areContentsTheSame(one, two));
+    }
+
+    @Test
+    public void stateChangesContentsOnly() {
+        Station station = station("114");
+        StationRow none = row(station, StationRow.STATE_NONE, false, null);
+        StationRow pending = row(station, StationRow.STATE_PENDING, false, null);
+
+        assertNotEquals(none, pending);
+        assertTrue(StationRow.DIFF.areItemsTheSame(none, pending));
+        assertFalse(StationRow.DIFF.areContentsTheSame(none, pending));
+    }
+
+    @Test
+    public void distanceLabelFollowsLocation() {
+        Station station = station("114");
+        assertNull(row(station, StationRow.STATE_NONE, false, null).distance);
+        assertEquals("", row(station, StationRow.STATE_NONE, true, null).distance);
+
+        StationRow near = row(station, StationRow.STATE_NONE, true, location(52.23, 21.01));
+        StationRow far = row(station, StationRow.STATE_NONE, true, location(50.06, 19.94));
+
+        assertEquals("0 " + mContext.getString(R.string.text_km), near.distance);
+        assertTrue(far.distance.endsWith(mContext.getString(R.string.text_km)));
+        assertTrue(StationRow.DIFF.areItemsTheSame(near, far));
+        assertFalse(StationRow.DIFF.areContentsTheSame(near, far));
+    }
+
+    @Test
+    public void idsTellStationsAndTypesApart() {
+        StationRow one = row(station("114"), StationRow.STATE_NONE, false, null);
+        StationRow two = row(station("115"), StationRow.STATE_NONE, false, null);
+        StationRow selected = StationRow.of(mContext, OTHER_TYPE, StationRow.STATE_SELECTED,
+                station("114"), null, false, null);
+        StationRow divider = StationRow.divider(TYPE, true);
+
+        assertNotEquals(one.id, two.id);
+        assertNotEquals(one.id, selected.id);
+        assertNotEquals(one.id, divider.id);
+        assertFalse(StationRow.DIFF.areItemsTheSame(one, two));
+        assertFalse(StationRow.DIFF.areItemsTheSame(one, selected));
+    }
+
+    @Test
+    public void dividerVisibilityIsItsContent() {
+        StationRow visible = StationRow.divider(TYPE, true);
+        StationRow hidden = StationRow.divider(TYPE, false);
+
+        assertEquals(visible, StationRow.divider(TYPE, true));
+        assertTrue(StationRow.DIFF.areItemsTheSame(visible, hidden));
+        assertFalse(StationRow.DIFF.areContentsTheSame(visible, hidden));
+    }
+}
@@ -0,0 +1,192 @@
+package io.github.hazyair.source;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.os.Bundle;
+import android.util.Log;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Locale;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trips the models through their generated mappers and reports, in the log, how long
+ * reading rows takes with the mappers and with the reflection Base used before them. Timings
+ * depend on the device, so they are only logged.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MapperTest {
+
+    private static final String TAG = MapperTest.class.getSimpleName();
+    private static final int ROWS = 10000;
+
+    // Rows in the order of the given columns, as the provider returns them.
+    private static MatrixCursor cursor(String[] columns, Object[]... rows) {
+        MatrixCursor cursor = new MatrixCursor(columns, rows.length);
+        for (Object[] row : rows) cursor.addRow(row);
+        return cursor;
+    }
+
+    private static Object[] row(String[] columns, int _id, ContentValues values) {
+        Object[] row = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            row[i] = columns[i].equals("_id") ? _id : values.get(columns[i]);
+        }
+        return row;
+    }
+
+    private static String[] reversed(String[] keys) {
+        String[] result = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) result[i] = keys[keys.length - 1 - i];
+        return result;
+    }
+
+    @Test
+    public void stationRoundTrips() {
+        Station station = new Station("114", "Warszawa-Marszałkowska", 52.225073, 21.006886, 1,
+                "Warszawa", null, 2);
+        ContentValues values = station.toContentValues();
+        assertFalse(values.containsKey("_id"));
+        assertFalse(values.containsKey("_status"));
+        assertEquals("", values.getAsString("address"));
+
+        Cursor cursor = cursor(Station.keys(), row(Station.keys(), 7, values));
+        assertTrue(cursor.moveToFirst());
+        Station read = new Station(cursor);
+        assertEquals(7, read._id);
+        assertEquals(station.id, read.id);
+        assertEquals(station.name, read.name);
+        assertEquals(station.latitude, read.latitude, 0);
+        assertEquals(station.longitude, read.longitude, 0);
+        assertEquals(station.country, read.country);
+        assertEquals(station.locality, read.locality);
+        assertEquals("", read.address);
+        assertEquals(station.source, read.source);
+
+        Bundle bundle = read.toBundle();
+        assertTrue(Base.equals(bundle, Station.toBundleFromCursor(cursor)));
+        assertTrue(Base.equals(bundle, new Station(bundle).toBundle()));
+        cursor.close();
+    }
+
+    @Test
+    public void sensorRoundTrips() {
+        Sensor sensor = new Sensor("92", "14", "PM10", "µg/m³");
+        ContentValues values = sensor.toContentValues();
+        values.put("_station_id", 3);
+
+        Cursor cursor = cursor(Sensor.keys(), row(Sensor.keys(), 8, values));
+        assertTrue(cursor.moveToFirst());
+        Sensor read = new Sensor(cursor);
+        assertEquals(8, read._id);
+        assertEquals(3, read._station_id);
+        assertEquals("92", read.id);
+        assertEquals("14", read.station_id);
+        assertEquals("PM10", read.parameter);
+        assertEquals("µg/m³", read.unit);
+
+        Bundle bundle = read.toBundle();
+        assertTrue(Base.equals(bundle, Sensor.toBundleFromCursor(cursor)));
+        assertTrue(Base.equals(bundle, new Sensor(bundle).toBundle()));
+        cursor.close();
+    }
+
+    @Test
+    public void dataRoundTrips() {
+        Data data = new Data(1572044400000L, 30.45);
+        data._station_id = 3;
+        data._sensor_id = 4;
+        ContentValues values = data.toContentValues();
+        assertFalse(values.containsKey("_id"));
+
+        Cursor cursor = cursor(Data.keys(), row(Data.keys(), 9, values));
+        assertTrue(cursor.moveToFirst());
+        Data read = new Data(cursor);
+        assertEquals(9, read._id);
+        assertEquals(3, read._station_id);
+        assertEquals(4, read._sensor_id);
+        assertEquals(1572044400000L, read.timestamp);
+        assertEquals(30.45, read.value, 0);
+
+        Bundle bundle = read.toBundle();
+        assertTrue(Base.equals(bundle, Data.toBundleFromCursor(cursor)));
+        assertTrue(Base.equals(bundle, new Data(bundle).toBundle()));
+        cursor.close();
+    }
+
+    @Test
+    public void interleavedCursorsKeepTheirColumns() {
+        String[] columns = Data.keys();
+        String[] other = reversed(columns);
+        Data data = new Data(1, 2.0);
+        data._station_id = 3;
+        data._sensor_id = 4;
+        ContentValues values = data.toContentValues();
+        Cursor one = cursor(columns, row(columns, 5, values));
+        Cursor two = cursor(other, row(other, 5, values));
+        assertTrue(one.moveToFirst());
+        assertTrue(two.moveToFirst());
+
+        for (int i = 0; i < 3; i++) {
+            for (Cursor cursor : new Cursor[] { one, two }) {
+                Data read = new Data(cursor);
+                assertEquals(5, read._id);
+                assertEquals(3, read._station_id);
+                assertEquals(4, read._sensor_id);
+                assertEquals(1, read.timestamp);
+                assertEquals(2.0, read.value, 0);
+            }
+        }
+        one.close();
+        two.close();
+    }
+
+    // Reads a row the way Base did before the mappers were generated: every field of every row
+    // is found through reflection, and its column is looked up again for every row.
+    private static void reflect(Object target, Cursor cursor) throws IllegalAccessException {
+        for (Field field : target.getClass().getDeclaredFields()) {
+            if (field.isSynthetic() || Modifier.isStatic(field.getModifiers())
+                    || field.getName().equals("_status")) continue;
+            field.setAccessible(true);
+            int index = cursor.getColumnIndex(field.getName());
+            Class<?> type = field.getType();
+            if (type == int.class) field.setInt(target, cursor.getInt(index));
+            else if (type == long.class) field.setLong(target, cursor.getLong(index));
+            else if (type == double.class) field.setDouble(target, cursor.getDouble(index));
+            else field.set(target, cursor.getString(index));
+        }
+    }
+
+    @Test
+    public void reportsReadTimes() throws IllegalAccessException {
+        String[] columns = Station.keys();
+        Object[][] rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = row(columns, i, new Station(String.valueOf(i), "name " + i, i, -i, 1,
+                    "locality", "address", 2).toContentValues());
+        }
+        Cursor cursor = cursor(columns, rows);
+
+        long start = System.nanoTime();
+        while (cursor.moveToNext()) reflect(new Station(), cursor);
+        long reflection = System.nanoTime() - start;
+        cursor.moveToPosition(-1);
+        start = System.nanoTime();
+        while (cursor.moveToNext()) assertNotNull(new Station(cursor));
+        long generated = System.nanoTime() - start;
+        assertTrue(cursor.moveToLast());
+        assertEquals(ROWS - 1, new Station(cursor)._id);
+        cursor.close();
+
+        Log.i(TAG, String.format(Locale.ROOT, "%d station rows: reflection %.1f ms,"
+                + " generated %.1f ms", ROWS, reflection / 1e6, generated / 1e6));
+    }
+}
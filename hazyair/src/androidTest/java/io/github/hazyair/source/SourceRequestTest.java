@@ -0,0 +1,133 @@
+package io.github.hazyair.source;
+
+import com.android.volley.NetworkResponse;
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.test.runner.AndroidJUnit4;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives requests by hand, without a queue, and runs what they hand to their executor only when
+ * the test says so.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SourceRequestTest {
+
+    private static final String URL = "http://localhost/hazyair";
+
+    private final List<Runnable> mPending = new ArrayList<>();
+    private final List<String> mDelivered = new ArrayList<>();
+    private final List<Object> mErrors = new ArrayList<>();
+    private boolean mAlive = true;
+
+    @Before
+    public void setUp() {
+        CancellationStatistics.reset();
+    }
+
+    private SourceRequest<String> request() {
+        return new SourceRequest<>(URL, 0, mPending::add, () -> mAlive,
+                (reader) -> new BufferedReader(reader).readLine(), mDelivered::add,
+                mErrors::add);
+    }
+
+    private static NetworkResponse response(String body) {
+        return new NetworkResponse(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void runPending() {
+        List<Runnable> pending = new ArrayList<>(mPending);
+        mPending.clear();
+        for (Runnable runnable : pending) runnable.run();
+    }
+
+    @Test
+    public void parsesTheBufferedBody() {
+        Response<String> response = request().parseNetworkResponse(response("body"));
+        assertTrue(response.isSuccess());
+        assertEquals("body", response.result);
+    }
+
+    @Test
+    public void deliversOnTheGivenExecutor() {
+        SourceRequest<String> request = request();
+
+        request.deliverResponse("result");
+        assertTrue(mDelivered.isEmpty());
+        runPending();
+        assertEquals("result", mDelivered.get(0));
+
+        request.deliverError(new VolleyError());
+        assertTrue(mErrors.isEmpty());
+        runPending();
+        assertEquals(1, mErrors.size());
+    }
+
+    @Test
+    public void deadWorkerGetsNothing() {
+        SourceRequest<String> request = request();
+        request.deliverResponse("result");
+        request.deliverError(new VolleyError());
+        mAlive = false;
+
+        runPending();
+        assertTrue(mDelivered.isEmpty());
+        assertTrue(mErrors.isEmpty());
+        assertTrue(request.isCanceled());
+        assertFalse(request.parseNetworkResponse(response("body")).isSuccess());
+    }
+
+    @Test
+    public void cancelBeforeResponseCountsUnsent() {
+        SourceRequest<String> request = request();
+
+        request.cancel();
+        request.cancel();
+
+        assertEquals(1, CancellationStatistics.unsentRequests());
+        assertFalse(request.parseNetworkResponse(response("body")).isSuccess());
+        assertEquals(1, CancellationStatistics.unparsedResponses());
+        assertEquals(4, CancellationStatistics.bytesUnparsed());
+    }
+
+    @Test
+    public void cancelAfterParsingCountsUndelivered() {
+        SourceRequest<String> request = request();
+        Response<String> response = request.parseNetworkResponse(response("body"));
+        request.deliverResponse(response.result);
+
+        request.cancel();
+        runPending();
+
+        assertTrue(mDelivered.isEmpty());
+        assertEquals(0, CancellationStatistics.unsentRequests());
+        assertEquals(1, CancellationStatistics.undeliveredResults());
+    }
+
+    @Test
+    public void groupCancelsItsPendingRequests() {
+        RequestGroup group = new RequestGroup();
+        SourceRequest<String> pending = request();
+        SourceRequest<String> finished = request();
+        pending.setGroup(group);
+        finished.setGroup(group);
+        finished.finished();
+
+        group.cancel();
+
+        assertTrue(pending.isCanceled());
+        assertFalse(finished.isCanceled());
+        assertEquals(1, CancellationStatistics.unsentRequests());
+    }
+}
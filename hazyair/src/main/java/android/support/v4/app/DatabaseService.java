@@ -1,41 +1,55 @@
 package android.support.v4.app;
 
+import android.content.BroadcastReceiver;
 import android.content.ContentProviderOperation;
 import android.content.Context;
 import android.content.Intent;
+import android.content.IntentFilter;
 import android.database.Cursor;
 import android.os.Bundle;
+import android.util.Base64;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseLongArray;
 
 import com.crashlytics.android.Crashlytics;
 
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
-
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.core.app.JobIntentService;
 import io.github.hazyair.R;
+import io.github.hazyair.data.ConfigStore;
 import io.github.hazyair.data.HazyairProvider;
 import io.github.hazyair.data.SensorsContract;
 import io.github.hazyair.data.StationsContract;
+import io.github.hazyair.source.CacheStatistics;
+import io.github.hazyair.source.CancellationStatistics;
 import io.github.hazyair.source.Data;
 import io.github.hazyair.source.Info;
 import io.github.hazyair.source.Sensor;
+import io.github.hazyair.source.RequestGroup;
 import io.github.hazyair.source.Source;
 import io.github.hazyair.source.Station;
 import io.github.hazyair.source.iface.DataCallback;
 import io.github.hazyair.source.iface.SensorsCallback;
-import io.github.hazyair.source.iface.Worker;
+import io.github.hazyair.source.iface.StationsCallback;
 import io.github.hazyair.util.Config;
+import io.github.hazyair.util.FanOut;
 import io.github.hazyair.util.Preference;
+import io.github.hazyair.util.Text;
 import io.github.hazyair.widget.AppWidget;
 
 public class DatabaseService extends JobIntentService {
 
+    private static final String TAG = DatabaseService.class.getSimpleName();
     private static final int JOB_ID = 0xABADCAFE;
 
     private final static String ACTION_UPDATE = "io.github.hazyair.ACTION_UPDATE";
@@ -43,27 +57,64 @@ public class DatabaseService extends JobIntentService {
     private final static String ACTION_INSERT_OR_DELETE =
             "io.github.hazyair.ACTION_INSERT_OR_DELETE";
     private final static String ACTION_SELECT = "io.github.hazyair.ACTION_SELECT";
+    private final static String ACTION_CATALOGUE = "io.github.hazyair.ACTION_CATALOGUE";
+    private final static String ACTION_CANCEL = "io.github.hazyair.ACTION_CANCEL";
+    // Signature permission, so only this app can cancel and hear the cancel broadcast.
+    private final static String PERMISSION_CANCEL = "io.github.hazyair.permission.CANCEL";
     public final static String ACTION_UPDATING =
             "io.github.hazyair.ACTION_UPDATING";
     public final static String ACTION_UPDATED =
             "io.github.hazyair.ACTION_UPDATED";
+    public final static String ACTION_CATALOGUED =
+            "io.github.hazyair.ACTION_CATALOGUED";
 
     private final static String PARAM__ID = "io.github.hazyair.PARAM__ID";
     private final static String PARAM_STATION = "io.github.hazyair.PARAM_STATION";
-    public final static String PARAM_POSITION = "io.github.hazyair.PARAM_POSITION";
+    public final static String PARAM_KEY = "io.github.hazyair.PARAM_KEY";
     public final static String PARAM_RESCHEDULE = "io.github.hazyair.PARAM_RESCHEDULE";
     public final static String PARAM_MESSAGE = "io.github.hazyair.PARAM_MESSAGE";
+    private final static String PARAM_FORCE = "io.github.hazyair.PARAM_FORCE";
 
     private final static int LIMIT = 25;
-
-    private static boolean mError;
+    private final static int PARALLELISM = 4;
+    private final static int TIMEOUT = 15000;
+    private final static long CATALOGUE_TTL = TimeUnit.DAYS.toMillis(1);
+
+    // Catalogue refresh requested by the stations screen, cancelled when the screen is left.
+    private volatile RequestGroup mCatalogue;
+
+    private final BroadcastReceiver mCancelReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            RequestGroup group = mCatalogue;
+            if (group != null) group.cancel();
+        }
+    };
 
     private static void enqueueWork(Context context, Intent work) {
         enqueueWork(context, DatabaseService.class, JOB_ID, work);
     }
 
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        registerReceiver(mCancelReceiver, new IntentFilter(ACTION_CANCEL), PERMISSION_CANCEL,
+                null);
+    }
+
+    @Override
+    public void onDestroy() {
+        unregisterReceiver(mCancelReceiver);
+        super.onDestroy();
+    }
+
     @Override
     protected void onHandleWork(@Nullable Intent intent) {
+        handleWork(intent);
+        ConfigStore.flush(this);
+    }
+
+    private void handleWork(Intent intent) {
         if (intent == null || intent.getAction() == null) return;
         switch (intent.getAction()) {
             case ACTION_DELETE: {
@@ -71,13 +122,13 @@ public class DatabaseService extends JobIntentService {
                 int _id = intent.getIntExtra(PARAM__ID, 0);
                 if (_id == 0) return;
                 HazyairProvider.delete(this, _id);
-                sendConfirmation(-1);
+                sendConfirmation(null);
                 break;
             }
             case ACTION_INSERT_OR_DELETE: {
                 sendConfirmation();
                 Station station = intent.getParcelableExtra(PARAM_STATION);
-                int position = intent.getIntExtra(PARAM_POSITION, -1);
+                String[] key = intent.getStringArrayExtra(PARAM_KEY);
                 if (HazyairProvider.Stations.selected(this, station)) {
                     HazyairProvider.delete(this, station._id);
                     Info info = Config.getInfo(this);
@@ -85,125 +136,41 @@ public class DatabaseService extends JobIntentService {
                         Config.setInfo(this, null);
                         AppWidget.update(this);
                     }
-                    sendConfirmation(position);
+                    sendConfirmation(key);
                 } else {
                     Cursor cursor = HazyairProvider.Stations.select(this);
                     if (cursor == null) break;
                     int stations = cursor.getCount();
                     cursor.close();
                     if (stations >= 8) {
-                        sendConfirmation(position, getString(R.string.message_maximum));
+                        sendConfirmation(key, getString(R.string.message_maximum));
+                        break;
+                    }
+                    List<Sensor> sensors = fetch(station);
+                    if (sensors == null) {
+                        sendConfirmation(key);
+                        break;
+                    }
+                    List<List<Data>> data = fetch(sensors);
+                    // A station is added with the history of all its sensors or not at all.
+                    if (data.contains(null)) {
+                        sendConfirmation(key, getString(R.string.message_network));
                         break;
                     }
-                    ArrayList<Worker> workers = new ArrayList<>();
-                    mError = false;
                     ArrayList<ContentProviderOperation> cpo = new ArrayList<>();
-                    SensorsCallback sensorsCallback = new SensorsCallback() {
-                        boolean mIsAlive = true;
-
-                        @Override
-                        public boolean isAlive() {
-                            return mIsAlive;
-                        }
-
-                        @Override
-                        public void onSuccess(List<Sensor> sensors) {
-                            HazyairProvider.Sensors.bulkInsertAdd(0, sensors,
-                                    cpo);
-                            int index = 1;
-                            for (Sensor sensor : sensors) {
-                                sensor._id = index;
-                                index++;
-                                DataCallback dataCallback = new DataCallback() {
-                                    boolean mIsAlive = true;
-                                    @Override
-                                    public boolean isAlive() {
-                                        return mIsAlive;
-                                    }
-
-                                    @Override
-                                    public void onSuccess(List<Data> data) {
-                                        int size = data.size();
-                                        data = data.subList(0, (size > LIMIT ? LIMIT : size));
-                                        HazyairProvider.Data.bulkInsertAdd(0,
-                                                sensor._id, data, cpo);
-                                        synchronized (this) {
-                                            mIsAlive = false;
-                                            this.notifyAll();
-                                        }
-                                    }
-
-                                    @Override
-                                    public void onError() {
-                                        mError = true;
-                                        synchronized (this) {
-                                            mIsAlive = false;
-                                            this.notifyAll();
-                                        }
-                                    }
-                                };
-                                workers.add(dataCallback);
-                                Source.with(DatabaseService.this).load(Source.Type.GIOS)
-                                        .from(sensor).into(dataCallback);
-                            }
-                            synchronized (this) {
-                                mIsAlive = false;
-                                this.notifyAll();
-                            }
-                        }
-
-                        @Override
-                        public void onError() {
-                            mError = true;
-                            synchronized (this) {
-                                mIsAlive = false;
-                                this.notifyAll();
-                            }
-                        }
-                    };
                     HazyairProvider.Stations.bulkInsertAdd(station, cpo);
-                    workers.add(sensorsCallback);
-                    Source.with(DatabaseService.this).load(Source.Type.GIOS).from(station)
-                            .into(sensorsCallback);
-                    {
-                        Worker worker = workers.get(0);
-                        //noinspection SynchronizationOnLocalVariableOrMethodParameter
-                        synchronized (worker) {
-                            while (worker.isAlive()) {
-                                try {
-                                    worker.wait();
-                                } catch (InterruptedException e) {
-                                    if (Preference.isCrashlyticsEnabled(this)) {
-                                        Crashlytics.logException(e);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                    if (workers.size() > 1) {
-                        for (Worker worker : workers.subList(1, workers.size())) {
-                            //noinspection SynchronizationOnLocalVariableOrMethodParameter
-                            synchronized (worker) {
-                                while (worker.isAlive()) {
-                                    try {
-                                        worker.wait();
-                                    } catch (InterruptedException e) {
-                                        if (Preference.isCrashlyticsEnabled(this)) {
-                                            Crashlytics.logException(e);
-                                        }
-                                    }
-                                }
-                            }
-                        }
+                    HazyairProvider.Sensors.bulkInsertAdd(0, sensors, cpo);
+                    for (int i = 0; i < sensors.size(); i++) {
+                        HazyairProvider.Data.bulkInsertAdd(0, i + 1, limit(data.get(i)), cpo);
                     }
-                    if (!mError) HazyairProvider.bulkExecute(
-                            DatabaseService.this, cpo);
-                    sendConfirmation(position);
+                    HazyairProvider.bulkExecute(DatabaseService.this, cpo);
+                    sendConfirmation(key);
                 }
                 break;
             }
             case ACTION_UPDATE: {
                 sendConfirmation();
+                if (Config.isCatalogueStale(this, CATALOGUE_TTL)) catalogue(new RequestGroup());
                 Cursor cursor = HazyairProvider.Sensors.select(this);
                 if (cursor == null) break;
                 int count = cursor.getCount();
@@ -218,87 +185,76 @@ public class DatabaseService extends JobIntentService {
                     sensors.add(Sensor.toBundleFromCursor(cursor));
                 }
                 cursor.close();
-                ArrayList<Worker> workers = new ArrayList<>();
-                mError = false;
+                long timestamp = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(LIMIT);
+                List<Sensor> list = new ArrayList<>();
+                for (Bundle sensor : sensors) {
+                    list.add(new Sensor(sensor.getString(SensorsContract.COLUMN_ID),
+                            sensor.getString(SensorsContract.COLUMN_STATION_ID),
+                            sensor.getString(SensorsContract.COLUMN_PARAMETER),
+                            sensor.getString(SensorsContract.COLUMN_UNIT)));
+                }
+                List<List<Data>> data = fetch(list);
+                SparseLongArray latest = HazyairProvider.Latest.selectTimestamps(this);
+                boolean error = false;
+                int points = 0;
                 ArrayList<ContentProviderOperation> cpo = new ArrayList<>();
-                long timestamp = new DateTime(DateTime.now().getMillis() -
-                        TimeUnit.HOURS.toMillis(LIMIT),
-                        DateTimeZone.getDefault()).withZone(DateTimeZone.forID("UTC"))
-                        .getMillis();
+                HazyairProvider.Data.Ingest ingest = new HazyairProvider.Data.Ingest();
                 for (int i = 0; i < count; i++) {
+                    List<Data> entries = limit(data.get(i));
+                    if (entries == null) {
+                        error = true;
+                        continue;
+                    }
                     Bundle sensor = sensors.get(i);
                     int _sensor_id = sensor.getInt(SensorsContract.COLUMN__ID);
-                    int _station_id = sensor.getInt(
-                            SensorsContract.COLUMN__STATION_ID);
-                    HazyairProvider.Data.bulkDeleteAdd(
-                            sensor.getInt(SensorsContract.COLUMN__ID),
-                            timestamp, cpo);
-                    DataCallback dataCallback = new DataCallback() {
-                        boolean mIsAlive = true;
-
-                        @Override
-                        public boolean isAlive() {
-                            return mIsAlive;
-                        }
-
-                        @Override
-                        public void onSuccess(List<Data> data) {
-                            int size = data.size();
-                            data = data.subList(0, (size > LIMIT ? LIMIT : size));
-                            for (Data entry : data) {
-                                entry._sensor_id = _sensor_id;
-                                entry._station_id = _station_id;
-                            }
-                            HazyairProvider.Data.bulkInsertAdd(data, timestamp, cpo);
-                            synchronized (this) {
-                                mIsAlive = false;
-                                this.notifyAll();
-                            }
-                        }
-
-                        @Override
-                        public void onError() {
-                            mError = true;
-                            synchronized (this) {
-                                mIsAlive = false;
-                                this.notifyAll();
-                            }
-                        }
-                    };
-                    workers.add(dataCallback);
-                    Source.with(DatabaseService.this).load(Source.Type.GIOS).from(
-                            new Sensor(sensor.getString(SensorsContract.COLUMN_ID),
-                                    sensor.getString(
-                                            SensorsContract.COLUMN_STATION_ID),
-                                    sensor.getString(
-                                            SensorsContract.COLUMN_PARAMETER),
-                                    sensor.getString(
-                                            SensorsContract.COLUMN_UNIT)
-                            )).into(dataCallback);
-                }
-                for (Worker worker: workers) {
-                    //noinspection SynchronizationOnLocalVariableOrMethodParameter
-                    synchronized (worker) {
-                        while (worker.isAlive()) {
-                            try {
-                                worker.wait();
-                            } catch (InterruptedException e) {
-                                if (Preference.isCrashlyticsEnabled(this)) {
-                                    Crashlytics.logException(e);
-                                }
-                            }
-                        }
+                    int _station_id = sensor.getInt(SensorsContract.COLUMN__STATION_ID);
+                    for (Data entry : entries) {
+                        entry._sensor_id = _sensor_id;
+                        entry._station_id = _station_id;
                     }
+                    HazyairProvider.Data.bulkDeleteAdd(_station_id, _sensor_id, timestamp, cpo);
+                    points += ingest.add(entries,
+                            Math.max(timestamp, latest.get(_sensor_id, timestamp - 1) + 1));
                 }
-                if (!mError) {
-                    if (cpo.size() > count) {
-                        HazyairProvider.bulkExecute(DatabaseService.this, cpo);
+                if (points > 0) {
+                    // Retention deletes are repeated on the next update when a chunk fails.
+                    if (HazyairProvider.bulkExecute(DatabaseService.this, cpo,
+                            HazyairProvider.CHUNK) == null) error = true;
+                    if (ingest.execute(DatabaseService.this) < 0) {
+                        error = true;
+                    } else {
                         Info info = Config.getInfo(DatabaseService.this);
                         if (info != null && info.station != null) select(info.station._id);
                     }
-                    Config.setUpdate(DatabaseService.this);
                 }
-                sendConfirmation(mError);
+                if (!error) Config.setUpdate(DatabaseService.this);
+                Log.i(TAG, CacheStatistics.summary());
+                sendConfirmation(error);
+                break;
+            }
+            case ACTION_CATALOGUE: {
+                if (!intent.getBooleanExtra(PARAM_FORCE, true) &&
+                        !Config.isCatalogueStale(this, CATALOGUE_TTL)) {
+                    sendBroadcast(new Intent(ACTION_CATALOGUED).putExtra(PARAM_RESCHEDULE,
+                            false));
+                    break;
+                }
+                sendConfirmation();
+                RequestGroup group = new RequestGroup();
+                mCatalogue = group;
+                boolean catalogued;
+                try {
+                    catalogued = catalogue(group);
+                } finally {
+                    mCatalogue = null;
+                }
+                Log.i(TAG, CacheStatistics.summary());
+                if (group.isCancelled()) {
+                    Log.i(TAG, CancellationStatistics.summary());
+                    break;
+                }
+                sendBroadcast(new Intent(ACTION_CATALOGUED).putExtra(PARAM_RESCHEDULE,
+                        !catalogued));
                 break;
             }
             case ACTION_SELECT: {
@@ -310,6 +266,142 @@ public class DatabaseService extends JobIntentService {
         }
     }
 
+    /**
+     * Refreshes the local station catalogue, rewriting it only when the fetched stations differ
+     * from the stored ones.
+     *
+     * @param group group cancelling the download, which also fails the pending fetch
+     * @return false if the stations could not be fetched
+     */
+    private boolean catalogue(RequestGroup group) {
+        FanOut<List<Station>> fanOut = new FanOut<>(1, TIMEOUT, TimeUnit.MILLISECONDS);
+        fanOut.submit((sink) -> {
+            group.add(sink::error);
+            return Source.with(this).load(Source.Type.GIOS).timeout(TIMEOUT).on(Runnable::run)
+                    .in(group).into(new StationsCallback() {
+                        @Override
+                        public boolean isAlive() {
+                            return !group.isCancelled();
+                        }
+
+                        @Override
+                        public void onSuccess(List<Station> stations) {
+                            sink.success(stations);
+                        }
+
+                        @Override
+                        public void onError() {
+                            sink.error();
+                        }
+                    });
+        });
+        List<List<Station>> result = join(fanOut);
+        List<Station> stations = result.isEmpty() ? null : result.get(0);
+        if (stations == null) return false;
+        List<String> keywords = new ArrayList<>();
+        for (Station station : stations) {
+            keywords.add(Text.normalize(station.locality + " " + station.address + " " +
+                    getString(station.country)));
+        }
+        String hash = hash(stations, keywords);
+        if (hash.equals(Config.getCatalogue(this))) {
+            Config.setCatalogue(this, hash);
+            return true;
+        }
+        ArrayList<ContentProviderOperation> cpo = new ArrayList<>();
+        HazyairProvider.Catalogue.bulkReplaceAdd(stations, keywords, cpo);
+        if (HazyairProvider.bulkExecute(this, cpo) == null) return false;
+        Config.setCatalogue(this, hash);
+        return true;
+    }
+
+    private String hash(List<Station> stations, List<String> keywords) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            if (Preference.isCrashlyticsEnabled(this)) {
+                Crashlytics.logException(e);
+            }
+            return "";
+        }
+        for (int i = 0; i < stations.size(); i++) {
+            Station station = stations.get(i);
+            digest.update(String.format(Locale.ROOT, "%s\t%s\t%f\t%f\t%d\t%s\t%s\t%d\t%s\n",
+                    station.id, station.name, station.latitude, station.longitude,
+                    station.country, station.locality, station.address, station.source,
+                    keywords.get(i)).getBytes(StandardCharsets.UTF_8));
+        }
+        return Base64.encodeToString(digest.digest(), Base64.NO_WRAP);
+    }
+
+    private List<Sensor> fetch(Station station) {
+        FanOut<List<Sensor>> fanOut = new FanOut<>(1, TIMEOUT, TimeUnit.MILLISECONDS);
+        fanOut.submit((sink) -> Source.with(this).load(Source.Type.GIOS).timeout(TIMEOUT)
+                .on(Runnable::run).from(station).into(new SensorsCallback() {
+                    @Override
+                    public boolean isAlive() {
+                        return true;
+                    }
+
+                    @Override
+                    public void onSuccess(List<Sensor> sensors) {
+                        sink.success(sensors);
+                    }
+
+                    @Override
+                    public void onError() {
+                        sink.error();
+                    }
+                }));
+        List<List<Sensor>> result = join(fanOut);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    private List<List<Data>> fetch(List<Sensor> sensors) {
+        FanOut<List<Data>> fanOut = new FanOut<>(PARALLELISM, TIMEOUT, TimeUnit.MILLISECONDS);
+        for (Sensor sensor : sensors) {
+            fanOut.submit((sink) -> Source.with(this).load(Source.Type.GIOS).timeout(TIMEOUT)
+                    .on(Runnable::run).from(sensor).into(new DataCallback() {
+                        @Override
+                        public boolean isAlive() {
+                            return true;
+                        }
+
+                        @Override
+                        public void onSuccess(List<Data> data) {
+                            sink.success(data);
+                        }
+
+                        @Override
+                        public void onError() {
+                            sink.error();
+                        }
+                    }));
+        }
+        List<List<Data>> result = join(fanOut);
+        while (result.size() < sensors.size()) result.add(null);
+        return result;
+    }
+
+    private <T> List<T> join(FanOut<T> fanOut) {
+        try {
+            return fanOut.join();
+        } catch (InterruptedException e) {
+            if (Preference.isCrashlyticsEnabled(this)) {
+                Crashlytics.logException(e);
+            }
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        }
+    }
+
+    private static List<Data> limit(List<Data> data) {
+        if (data == null) return null;
+        int size = data.size();
+        return data.subList(0, (size > LIMIT ? LIMIT : size));
+    }
+
     private void select(int _id) {
         Cursor stationCursor = HazyairProvider.Stations.select(this, _id);
         if (stationCursor == null) return;
@@ -330,14 +422,22 @@ public class DatabaseService extends JobIntentService {
             sensors.add(new Sensor(cursor));
         }
         cursor.close();
+        SparseArray<Data> latest = new SparseArray<>();
+        cursor = HazyairProvider.Latest.select(this, _id);
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                Data entry = new Data(cursor);
+                latest.put(entry._sensor_id, entry);
+            }
+            cursor.close();
+        }
         List<Data> data = new ArrayList<>();
         List<Sensor> sensorList = new ArrayList<>();
         for (Sensor sensor: sensors) {
-            cursor = HazyairProvider.Data.selectLast(this, sensor._id);
-            if (cursor == null || cursor.getCount() <= 0 || !cursor.moveToFirst()) continue;
+            Data entry = latest.get(sensor._id);
+            if (entry == null) continue;
             sensorList.add(sensor);
-            data.add(new Data(cursor));
-            cursor.close();
+            data.add(entry);
         }
         Info info = new Info(new Station(stationCursor), sensorList, data);
         stationCursor.close();
@@ -345,8 +445,11 @@ public class DatabaseService extends JobIntentService {
         AppWidget.update(this);
     }
 
-    private void sendConfirmation(int position) {
-        sendBroadcast(new Intent(ACTION_UPDATED).putExtra(PARAM_POSITION, position));
+    /**
+     * @param key selection arguments of the station added or removed, null if none
+     */
+    private void sendConfirmation(String[] key) {
+        sendBroadcast(new Intent(ACTION_UPDATED).putExtra(PARAM_KEY, key));
     }
 
     private void sendConfirmation() {
@@ -357,8 +460,8 @@ public class DatabaseService extends JobIntentService {
         sendBroadcast(new Intent(ACTION_UPDATED).putExtra(PARAM_RESCHEDULE, reschedule));
     }
 
-    private void sendConfirmation(int position, String message) {
-        sendBroadcast(new Intent(ACTION_UPDATED).putExtra(PARAM_POSITION, position)
+    private void sendConfirmation(String[] key, String message) {
+        sendBroadcast(new Intent(ACTION_UPDATED).putExtra(PARAM_KEY, key)
                 .putExtra(PARAM_MESSAGE, message));
     }
 
@@ -390,6 +493,24 @@ public class DatabaseService extends JobIntentService {
         return null;
     }
 
+    /**
+     * @param force refresh the catalogue even if it is not stale yet
+     */
+    public static void catalogue(Context context, boolean force) {
+        DatabaseService.enqueueWork(context,
+                new Intent(context, DatabaseService.class)
+                        .setAction(DatabaseService.ACTION_CATALOGUE)
+                        .putExtra(DatabaseService.PARAM_FORCE, force));
+    }
+
+    /**
+     * Cancels the catalogue refresh in flight, if any.
+     */
+    public static void cancel(Context context) {
+        context.sendBroadcast(new Intent(ACTION_CANCEL).setPackage(context.getPackageName()),
+                PERMISSION_CANCEL);
+    }
+
     public static void delete(Context context, int _id) {
         DatabaseService.enqueueWork(context,
                 new Intent(context, DatabaseService.class)
@@ -397,19 +518,20 @@ public class DatabaseService extends JobIntentService {
                         .putExtra(DatabaseService.PARAM__ID, _id));
     }
 
-    public static void insertOrDelete(Context context, int position, Station station) {
+    /**
+     * @param key selection arguments of the station, sent back with the confirmation
+     */
+    public static void insertOrDelete(Context context, String[] key, Station station) {
         DatabaseService.enqueueWork(context,
                 new Intent(context, DatabaseService.class)
                         .setAction(DatabaseService.ACTION_INSERT_OR_DELETE)
-                        .putExtra(DatabaseService.PARAM_POSITION, position)
+                        .putExtra(DatabaseService.PARAM_KEY, key)
                         .putExtra(DatabaseService.PARAM_STATION, station));
     }
 
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     public static boolean update(Context context, long interval) {
-        if (new DateTime(System.currentTimeMillis(),
-                DateTimeZone.getDefault()).withZone(DateTimeZone.UTC).getMillis() -
-                Config.getUpdate(context) > interval) {
+        if (System.currentTimeMillis() - Config.getUpdate(context) > interval) {
             DatabaseService.enqueueWork(context,
                     new Intent(context, DatabaseService.class)
                             .setAction(DatabaseService.ACTION_UPDATE));
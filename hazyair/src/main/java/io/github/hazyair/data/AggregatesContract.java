@@ -0,0 +1,74 @@
+package io.github.hazyair.data;
+
+import net.simonvt.schematic.annotation.AutoIncrement;
+import net.simonvt.schematic.annotation.ConflictResolutionType;
+import net.simonvt.schematic.annotation.Constraints;
+import net.simonvt.schematic.annotation.DataType;
+import net.simonvt.schematic.annotation.PrimaryKey;
+import net.simonvt.schematic.annotation.UniqueConstraint;
+
+@SuppressWarnings("WeakerAccess")
+@Constraints(unique = @UniqueConstraint(
+        name = AggregatesContract.UNIQUE_SENSOR_RESOLUTION_TIMESTAMP,
+        columns = { AggregatesContract.COLUMN__SENSOR_ID, AggregatesContract.COLUMN_RESOLUTION,
+                AggregatesContract.COLUMN_TIMESTAMP },
+        onConflict = ConflictResolutionType.IGNORE))
+public class AggregatesContract {
+    static final String UNIQUE_SENSOR_RESOLUTION_TIMESTAMP = "unique_sensor_resolution_timestamp";
+
+    public static final long RESOLUTION_HOUR = 3600000L;
+    public static final long RESOLUTION_DAY = 86400000L;
+    public static final long RESOLUTION_WEEK = 604800000L;
+
+    // Number of buckets kept per sensor for every resolution.
+    static final int BUCKETS_HOUR = 14 * 24;
+    static final int BUCKETS_DAY = 180;
+    static final int BUCKETS_WEEK = 104;
+
+    // Buckets are aligned to Monday, 5 January 1970 00:00 UTC so that weeks start on Monday.
+    static final long EPOCH = 345600000L;
+
+    @DataType(DataType.Type.INTEGER)
+    @PrimaryKey(onConflict = ConflictResolutionType.REPLACE)
+    @AutoIncrement
+    public static final String COLUMN__ID = "_id";
+
+    @DataType(DataType.Type.INTEGER)
+    public static final String COLUMN__STATION_ID = "_station_id";
+
+    @DataType(DataType.Type.INTEGER)
+    public static final String COLUMN__SENSOR_ID = "_sensor_id";
+
+    @DataType(DataType.Type.INTEGER)
+    public static final String COLUMN_RESOLUTION = "resolution";
+
+    @DataType(DataType.Type.INTEGER)
+    public static final String COLUMN_TIMESTAMP = "timestamp";
+
+    @DataType(DataType.Type.INTEGER)
+    public static final String COLUMN_COUNT = "count";
+
+    @DataType(DataType.Type.REAL)
+    public static final String COLUMN_SUM = "sum";
+
+    @DataType(DataType.Type.REAL)
+    public static final String COLUMN_MINIMUM = "minimum";
+
+    @DataType(DataType.Type.REAL)
+    public static final String COLUMN_MAXIMUM = "maximum";
+
+    public static final String COLUMN_AVERAGE = COLUMN_SUM + "/" + COLUMN_COUNT;
+
+    static int buckets(long resolution) {
+        if (resolution == RESOLUTION_HOUR) return BUCKETS_HOUR;
+        if (resolution == RESOLUTION_DAY) return BUCKETS_DAY;
+        return BUCKETS_WEEK;
+    }
+
+    /**
+     * Start of the bucket of the given resolution which {@code timestamp} falls in.
+     */
+    static long start(long timestamp, long resolution) {
+        return timestamp - (timestamp - EPOCH) % resolution;
+    }
+}
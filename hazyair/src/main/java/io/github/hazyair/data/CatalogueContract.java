@@ -0,0 +1,52 @@
+package io.github.hazyair.data;
+
+import net.simonvt.schematic.annotation.AutoIncrement;
+import net.simonvt.schematic.annotation.ConflictResolutionType;
+import net.simonvt.schematic.annotation.DataType;
+import net.simonvt.schematic.annotation.NotNull;
+import net.simonvt.schematic.annotation.PrimaryKey;
+
+@SuppressWarnings("WeakerAccess")
+public class CatalogueContract {
+
+    @DataType(DataType.Type.INTEGER)
+    @PrimaryKey(onConflict = ConflictResolutionType.REPLACE)
+    @AutoIncrement
+    public static final String COLUMN__ID = "_id";
+
+    @DataType(DataType.Type.TEXT)
+    public static final String COLUMN_ID = "id";
+
+    @DataType(DataType.Type.TEXT)
+    @NotNull
+    public static final String COLUMN_NAME = "name";
+
+    @DataType(DataType.Type.REAL)
+    @NotNull
+    public static final String COLUMN_LATITUDE = "latitude";
+
+    @DataType(DataType.Type.REAL)
+    @NotNull
+    public static final String COLUMN_LONGITUDE = "longitude";
+
+    @DataType(DataType.Type.INTEGER)
+    @NotNull
+    public static final String COLUMN_COUNTRY = "country";
+
+    @DataType(DataType.Type.TEXT)
+    @NotNull
+    public static final String COLUMN_LOCALITY = "locality";
+
+    @DataType(DataType.Type.TEXT)
+    @NotNull
+    public static final String COLUMN_ADDRESS = "address";
+
+    @DataType(DataType.Type.INTEGER)
+    @NotNull
+    public static final String COLUMN_SOURCE = "source";
+
+    // Locality, address and country name folded to lower case ASCII for the search index.
+    @DataType(DataType.Type.TEXT)
+    @NotNull
+    public static final String COLUMN_KEYWORDS = "keywords";
+}
@@ -0,0 +1,26 @@
+package io.github.hazyair.data;
+
+import android.content.Context;
+
+import androidx.loader.content.CursorLoader;
+import io.github.hazyair.util.Text;
+
+public class CatalogueLoader extends CursorLoader {
+
+    private CatalogueLoader(Context context, String match) {
+        super(context, HazyairProvider.Catalogue.CONTENT_URI,
+                HazyairProvider.Catalogue.PROJECTION,
+                match == null ? null : HazyairProvider.Catalogue.SELECTION,
+                match == null ? null : new String[] { match },
+                HazyairProvider.Catalogue.DEFAULT_SORT);
+    }
+
+    public static CatalogueLoader newInstanceForAllStations(Context context) {
+        return new CatalogueLoader(context, null);
+    }
+
+    public static CatalogueLoader newInstanceForQuery(Context context, String query) {
+        return new CatalogueLoader(context, Text.match(query));
+    }
+
+}
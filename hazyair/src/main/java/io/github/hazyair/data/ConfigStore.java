@@ -0,0 +1,187 @@
+package io.github.hazyair.data;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.ContentObserver;
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide copy of the config table. The table is read once and again only after it changed
+ * in another process; writes are kept in memory and written in a single batch by
+ * {@link #flush(Context)}, which also runs on its own {@link #FLUSH_DELAY} milliseconds after
+ * the first write not yet flushed. Values not flushed before the process dies are lost.
+ */
+public final class ConfigStore {
+
+    static final long FLUSH_DELAY = 1000;
+
+    private static final Map<String, Object> sValues = new HashMap<>();
+    private static final Map<String, Object> sPending = new LinkedHashMap<>();
+    private static final Map<String, Object> sFlushing = new HashMap<>();
+    private static ContentObserver sObserver;
+    private static boolean sLoaded;
+    private static ScheduledExecutorService sExecutor;
+    private static ScheduledFuture<?> sFlush;
+
+    private ConfigStore() {}
+
+    public synchronized static long getLong(Context context, String key, long value) {
+        Object result = get(context, key);
+        if (result instanceof Long) return (Long) result;
+        if (result instanceof String) {
+            try {
+                return Long.parseLong((String) result);
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    public synchronized static String getString(Context context, String key, String value) {
+        Object result = get(context, key);
+        if (result == null || result instanceof byte[]) return value;
+        return result.toString();
+    }
+
+    public synchronized static byte[] getBlob(Context context, String key) {
+        Object result = get(context, key);
+        return result instanceof byte[] ? (byte[]) result : null;
+    }
+
+    public synchronized static void putLong(Context context, String key, long value) {
+        put(context, key, value);
+    }
+
+    public synchronized static void putString(Context context, String key, String value) {
+        put(context, key, value);
+    }
+
+    public synchronized static void putBlob(Context context, String key, byte[] value) {
+        put(context, key, value);
+    }
+
+    /**
+     * Writes every pending value in one transaction.
+     */
+    public static void flush(Context context) {
+        if (context == null) return;
+        Map<String, Object> pending = take();
+        if (pending.isEmpty()) return;
+        ArrayList<ContentProviderOperation> cpo = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : pending.entrySet()) {
+            ContentValues contentValues = new ContentValues();
+            contentValues.put(ConfigContract.COLUMN_KEY, entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof byte[]) {
+                contentValues.put(ConfigContract.COLUMN_VALUE, (byte[]) value);
+            } else if (value instanceof Long) {
+                contentValues.put(ConfigContract.COLUMN_VALUE, (Long) value);
+            } else {
+                contentValues.put(ConfigContract.COLUMN_VALUE, (String) value);
+            }
+            cpo.add(ContentProviderOperation.newInsert(HazyairProvider.Config.CONTENT_URI)
+                    .withValues(contentValues).build());
+        }
+        finish(context, pending, HazyairProvider.bulkExecute(context, cpo) != null);
+    }
+
+    /**
+     * @return values to write, kept readable until {@link #finish} is called
+     */
+    synchronized static Map<String, Object> take() {
+        // Whatever is scheduled would find nothing left to write.
+        if (sFlush != null) {
+            sFlush.cancel(false);
+            sFlush = null;
+        }
+        Map<String, Object> pending = new LinkedHashMap<>(sPending);
+        sPending.clear();
+        sFlushing.putAll(pending);
+        return pending;
+    }
+
+    /**
+     * Values of a failed write are pending again unless they were overwritten meanwhile.
+     */
+    synchronized static void finish(Context context, Map<String, Object> pending,
+                                     boolean success) {
+        sFlushing.clear();
+        if (success) return;
+        for (Map.Entry<String, Object> entry : pending.entrySet()) {
+            if (!sPending.containsKey(entry.getKey()))
+                sPending.put(entry.getKey(), entry.getValue());
+        }
+        schedule(context);
+    }
+
+    private static void put(Context context, String key, Object value) {
+        if (key == null || value == null) return;
+        sValues.put(key, value);
+        sPending.put(key, value);
+        schedule(context);
+    }
+
+    private static void schedule(Context context) {
+        if (context == null || sFlush != null || sPending.isEmpty()) return;
+        Context application = context.getApplicationContext();
+        if (sExecutor == null) sExecutor = Executors.newSingleThreadScheduledExecutor();
+        sFlush = sExecutor.schedule(() -> flush(application), FLUSH_DELAY,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static Object get(Context context, String key) {
+        if (key == null) return null;
+        if (!sLoaded && context != null) load(context);
+        return sValues.get(key);
+    }
+
+    private static void load(Context context) {
+        if (sObserver == null) {
+            sObserver = new ContentObserver(null) {
+                @Override
+                public void onChange(boolean selfChange) {
+                    synchronized (ConfigStore.class) {
+                        sLoaded = false;
+                    }
+                }
+            };
+            context.getApplicationContext().getContentResolver()
+                    .registerContentObserver(HazyairProvider.Config.CONTENT_URI, true,
+                            sObserver);
+        }
+        Cursor cursor = context.getContentResolver().query(HazyairProvider.Config.CONTENT_URI,
+                new String[] { ConfigContract.COLUMN_KEY, ConfigContract.COLUMN_VALUE },
+                null, null, null);
+        if (cursor == null) return;
+        sValues.clear();
+        while (cursor.moveToNext()) {
+            switch (cursor.getType(1)) {
+                case Cursor.FIELD_TYPE_BLOB:
+                    sValues.put(cursor.getString(0), cursor.getBlob(1));
+                    break;
+                case Cursor.FIELD_TYPE_INTEGER:
+                    sValues.put(cursor.getString(0), cursor.getLong(1));
+                    break;
+                case Cursor.FIELD_TYPE_NULL:
+                    break;
+                default:
+                    sValues.put(cursor.getString(0), cursor.getString(1));
+            }
+        }
+        cursor.close();
+        sValues.putAll(sFlushing);
+        sValues.putAll(sPending);
+        sLoaded = true;
+    }
+}
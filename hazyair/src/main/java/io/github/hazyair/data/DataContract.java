@@ -2,10 +2,18 @@ package io.github.hazyair.data;
 
 import net.simonvt.schematic.annotation.AutoIncrement;
 import net.simonvt.schematic.annotation.ConflictResolutionType;
+import net.simonvt.schematic.annotation.Constraints;
 import net.simonvt.schematic.annotation.DataType;
 import net.simonvt.schematic.annotation.PrimaryKey;
+import net.simonvt.schematic.annotation.UniqueConstraint;
 
+@Constraints(unique = @UniqueConstraint(
+        name = DataContract.UNIQUE_SENSOR_TIMESTAMP,
+        columns = { DataContract.COLUMN__SENSOR_ID, DataContract.COLUMN_TIMESTAMP },
+        onConflict = ConflictResolutionType.IGNORE))
 public class DataContract {
+    static final String UNIQUE_SENSOR_TIMESTAMP = "unique_sensor_timestamp";
+
     @DataType(DataType.Type.INTEGER)
     @PrimaryKey(onConflict = ConflictResolutionType.REPLACE)
     @AutoIncrement
@@ -0,0 +1,233 @@
+package io.github.hazyair.data;
+
+import android.content.ContentProviderOperation;
+import android.content.ContentProviderResult;
+import android.content.OperationApplicationException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.net.Uri;
+import android.os.Bundle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Applies batches in one transaction unless a chunk size is given: then, once a chunk of
+ * operations has been applied, the transaction is committed at the next operation marked with
+ * {@link ContentProviderOperation#isYieldAllowed()}, letting readers in before the batch
+ * continues. A chunked batch is not atomic: chunks committed before a failing operation stay
+ * applied, so only operations that are safe to repeat should allow a yield.
+ * <p>
+ * Batches touching the same tables are serialized by per-table locks, so one batch never
+ * interleaves with another on the same table at those commit points. A table also locks the
+ * tables its triggers write to.
+ */
+public class HazyairContentProvider extends io.github.hazyair.data.generated.HazyairProvider {
+
+    static final String METHOD_APPLY_BATCH = "io.github.hazyair.METHOD_APPLY_BATCH";
+    static final String METHOD_INGEST = "io.github.hazyair.METHOD_INGEST";
+    static final String METHOD_MAINTAIN = "io.github.hazyair.METHOD_MAINTAIN";
+    static final String EXTRA_OPERATIONS = "io.github.hazyair.EXTRA_OPERATIONS";
+    static final String EXTRA_RESULTS = "io.github.hazyair.EXTRA_RESULTS";
+    static final String EXTRA_ERROR = "io.github.hazyair.EXTRA_ERROR";
+    static final String EXTRA_STATION_IDS = "io.github.hazyair.EXTRA_STATION_IDS";
+    static final String EXTRA_SENSOR_IDS = "io.github.hazyair.EXTRA_SENSOR_IDS";
+    static final String EXTRA_TIMESTAMPS = "io.github.hazyair.EXTRA_TIMESTAMPS";
+    static final String EXTRA_VALUES = "io.github.hazyair.EXTRA_VALUES";
+    static final String EXTRA_COUNT = "io.github.hazyair.EXTRA_COUNT";
+    static final int ATOMIC = Integer.MAX_VALUE;
+
+    private static final String INGEST = "INSERT INTO " + HazyairDatabase.DATA + " (" +
+            DataContract.COLUMN__STATION_ID + ", " + DataContract.COLUMN__SENSOR_ID + ", " +
+            DataContract.COLUMN_TIMESTAMP + ", " + DataContract.COLUMN_VALUE +
+            ") VALUES (?, ?, ?, ?)";
+
+    private static final Map<String, ReentrantLock> LOCKS = new TreeMap<>();
+    private static final Map<String, List<String>> TRIGGERS = new TreeMap<>();
+
+    static {
+        TRIGGERS.put(HazyairDatabase.DATA, Arrays.asList(HazyairDatabase.AGGREGATES,
+                HazyairDatabase.LATEST));
+        TRIGGERS.put(HazyairDatabase.CATALOGUE,
+                Collections.singletonList(HazyairDatabase.CATALOGUE_FTS));
+    }
+
+    @Override
+    public ContentProviderResult[] applyBatch(ArrayList<ContentProviderOperation> ops)
+            throws OperationApplicationException {
+        return apply(ops, ATOMIC);
+    }
+
+    @Override
+    public Bundle call(String method, String arg, Bundle extras) {
+        if (METHOD_INGEST.equals(method) && extras != null) return ingest(extras);
+        if (METHOD_MAINTAIN.equals(method)) return maintain();
+        if (!METHOD_APPLY_BATCH.equals(method) || extras == null)
+            return super.call(method, arg, extras);
+        ArrayList<ContentProviderOperation> ops = extras.getParcelableArrayList(EXTRA_OPERATIONS);
+        int chunk = ATOMIC;
+        try {
+            if (arg != null) chunk = Integer.parseInt(arg);
+        } catch (NumberFormatException ignored) { }
+        Bundle result = new Bundle();
+        try {
+            result.putParcelableArray(EXTRA_RESULTS,
+                    apply(ops == null ? new ArrayList<>() : ops, chunk));
+        } catch (OperationApplicationException | RuntimeException e) {
+            result.putSerializable(EXTRA_ERROR, e);
+        }
+        return result;
+    }
+
+    private ContentProviderResult[] apply(ArrayList<ContentProviderOperation> ops, int chunk)
+            throws OperationApplicationException {
+        List<ReentrantLock> locks = locks(ops);
+        for (ReentrantLock lock : locks) lock.lock();
+        Notifications.begin();
+        try {
+            SQLiteDatabase db = io.github.hazyair.data.generated.HazyairDatabase
+                    .getInstance(getContext()).getWritableDatabase();
+            ContentProviderResult[] results = new ContentProviderResult[ops.size()];
+            int applied = 0;
+            db.beginTransaction();
+            try {
+                for (int i = 0; i < ops.size(); i++) {
+                    ContentProviderOperation op = ops.get(i);
+                    if (applied >= chunk && op.isYieldAllowed()) {
+                        db.setTransactionSuccessful();
+                        db.endTransaction();
+                        Notifications.commit();
+                        db.beginTransaction();
+                        applied = 0;
+                    }
+                    results[i] = op.apply(this, results, i);
+                    applied++;
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+            Notifications.commit();
+            return results;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) locks.get(i).unlock();
+            Notifications.end(getContext());
+        }
+    }
+
+    /**
+     * Inserts data points given as parallel arrays through one compiled statement in a single
+     * transaction; points already stored for a sensor and timestamp are skipped.
+     */
+    private Bundle ingest(Bundle extras) {
+        int[] stations = extras.getIntArray(EXTRA_STATION_IDS);
+        int[] sensors = extras.getIntArray(EXTRA_SENSOR_IDS);
+        long[] timestamps = extras.getLongArray(EXTRA_TIMESTAMPS);
+        double[] values = extras.getDoubleArray(EXTRA_VALUES);
+        Bundle result = new Bundle();
+        if (stations == null || sensors == null || timestamps == null || values == null ||
+                sensors.length != stations.length || timestamps.length != stations.length ||
+                values.length != stations.length) {
+            result.putSerializable(EXTRA_ERROR, new IllegalArgumentException("ingest"));
+            return result;
+        }
+        int count = 0;
+        Set<Uri> uris = new LinkedHashSet<>();
+        List<ReentrantLock> locks = locks(Collections.singletonList(HazyairDatabase.DATA));
+        for (ReentrantLock lock : locks) lock.lock();
+        try {
+            SQLiteDatabase db = io.github.hazyair.data.generated.HazyairDatabase
+                    .getInstance(getContext()).getWritableDatabase();
+            db.beginTransaction();
+            try (SQLiteStatement statement = db.compileStatement(INGEST)) {
+                for (int i = 0; i < stations.length; i++) {
+                    statement.bindLong(1, stations[i]);
+                    statement.bindLong(2, sensors[i]);
+                    statement.bindLong(3, timestamps[i]);
+                    statement.bindDouble(4, values[i]);
+                    if (statement.executeInsert() == -1) continue;
+                    Collections.addAll(uris,
+                            HazyairProvider.Data.onInsert(stations[i], sensors[i]));
+                    count++;
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } catch (RuntimeException e) {
+            result.putSerializable(EXTRA_ERROR, e);
+            return result;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) locks.get(i).unlock();
+        }
+        Notifications.notify(getContext(), uris);
+        result.putInt(EXTRA_COUNT, count);
+        return result;
+    }
+
+    private Bundle maintain() {
+        List<ReentrantLock> locks = locks(Arrays.asList(HazyairDatabase.STATIONS,
+                HazyairDatabase.SENSORS, HazyairDatabase.DATA, HazyairDatabase.CONFIG,
+                HazyairDatabase.AGGREGATES, HazyairDatabase.CATALOGUE, HazyairDatabase.LATEST));
+        for (ReentrantLock lock : locks) lock.lock();
+        Bundle result;
+        try {
+            result = Maintenance.run(io.github.hazyair.data.generated.HazyairDatabase
+                    .getInstance(getContext()).getWritableDatabase(), System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            result = new Bundle();
+            result.putSerializable(EXTRA_ERROR, e);
+            return result;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) locks.get(i).unlock();
+        }
+        if (result.getInt(Maintenance.EXTRA_ROWS) > 0) {
+            Notifications.notify(getContext(), new LinkedHashSet<>(Arrays.asList(
+                    HazyairProvider.Sensors.CONTENT_URI, HazyairProvider.Data.CONTENT_URI,
+                    HazyairProvider.Aggregates.CONTENT_URI, HazyairProvider.Latest.CONTENT_URI)));
+        }
+        return result;
+    }
+
+    private static ReentrantLock lock(String table) {
+        synchronized (LOCKS) {
+            ReentrantLock lock = LOCKS.get(table);
+            if (lock == null) {
+                lock = new ReentrantLock();
+                LOCKS.put(table, lock);
+            }
+            return lock;
+        }
+    }
+
+    private static List<ReentrantLock> locks(ArrayList<ContentProviderOperation> ops) {
+        Set<String> tables = new LinkedHashSet<>();
+        for (ContentProviderOperation op : ops) {
+            List<String> segments = op.getUri().getPathSegments();
+            if (!segments.isEmpty()) tables.add(segments.get(0));
+        }
+        return locks(tables);
+    }
+
+    // Locks are taken in table name order, so batches over overlapping tables cannot deadlock.
+    private static List<ReentrantLock> locks(Collection<String> tables) {
+        TreeSet<String> names = new TreeSet<>();
+        for (String table : tables) {
+            names.add(table);
+            List<String> triggered = TRIGGERS.get(table);
+            if (triggered != null) names.addAll(triggered);
+        }
+        List<ReentrantLock> locks = new ArrayList<>();
+        for (String name : names) locks.add(lock(name));
+        return locks;
+    }
+}
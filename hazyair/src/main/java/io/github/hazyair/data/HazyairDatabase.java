@@ -1,18 +1,23 @@
 package io.github.hazyair.data;
 
 
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 
 import net.simonvt.schematic.annotation.Database;
+import net.simonvt.schematic.annotation.ExecOnCreate;
+import net.simonvt.schematic.annotation.OnConfigure;
 import net.simonvt.schematic.annotation.OnUpgrade;
 import net.simonvt.schematic.annotation.Table;
 
+import io.github.hazyair.util.Quality;
+
 @SuppressWarnings("WeakerAccess")
 @Database(version = HazyairDatabase.VERSION)
 public class HazyairDatabase {
 
     @SuppressWarnings("WeakerAccess")
-    static final int VERSION = 2;
+    static final int VERSION = 6;
 
     @Table(StationsContract.class)
     public static final String STATIONS = "stations";
@@ -26,9 +31,187 @@ public class HazyairDatabase {
     @Table(ConfigContract.class)
     public static final String CONFIG = "config";
 
+    @Table(AggregatesContract.class)
+    public static final String AGGREGATES = "aggregates";
+
+    @Table(CatalogueContract.class)
+    public static final String CATALOGUE = "catalogue";
+
+    @Table(LatestContract.class)
+    public static final String LATEST = "latest";
+
+    static final String CATALOGUE_FTS = "catalogue_fts";
+
+    // Connection settings applied by onConfigure. Write-ahead logging lets the loaders read
+    // while the sync service writes. With NORMAL a power loss may drop the last commits but
+    // never corrupts the database, and the dropped data is fetched again by the next update.
+    // Negative cache size is in KiB.
+    // SQLiteOpenHelper configures only the primary connection, which is the one every write
+    // goes through; the pooled read-only connections used by the loaders keep the platform
+    // defaults, so only settings that matter to the writer are changed here.
+    static final boolean WRITE_AHEAD_LOGGING = true;
+    static final String SYNCHRONOUS = "NORMAL";
+    static final int CACHE_SIZE = -4096;
+
+    private static final String RESOLUTIONS = "(SELECT " + AggregatesContract.RESOLUTION_HOUR
+            + " AS " + AggregatesContract.COLUMN_RESOLUTION + " UNION ALL SELECT "
+            + AggregatesContract.RESOLUTION_DAY + " UNION ALL SELECT "
+            + AggregatesContract.RESOLUTION_WEEK + ")";
+
+    private static final String BUCKET = "NEW." + DataContract.COLUMN_TIMESTAMP + " - (NEW."
+            + DataContract.COLUMN_TIMESTAMP + " - " + AggregatesContract.EPOCH + ") % "
+            + AggregatesContract.COLUMN_RESOLUTION;
+
+    @ExecOnCreate
+    public static final String TRIGGER_AGGREGATE = "CREATE TRIGGER data_aggregate AFTER INSERT ON "
+            + DATA + " BEGIN"
+            + " INSERT OR IGNORE INTO " + AGGREGATES + " ("
+            + AggregatesContract.COLUMN__STATION_ID + ", "
+            + AggregatesContract.COLUMN__SENSOR_ID + ", "
+            + AggregatesContract.COLUMN_RESOLUTION + ", "
+            + AggregatesContract.COLUMN_TIMESTAMP + ", "
+            + AggregatesContract.COLUMN_COUNT + ", "
+            + AggregatesContract.COLUMN_SUM + ", "
+            + AggregatesContract.COLUMN_MINIMUM + ", "
+            + AggregatesContract.COLUMN_MAXIMUM + ")"
+            + " SELECT NEW." + DataContract.COLUMN__STATION_ID + ", NEW."
+            + DataContract.COLUMN__SENSOR_ID + ", " + AggregatesContract.COLUMN_RESOLUTION + ", "
+            + BUCKET + ", 0, 0, NEW." + DataContract.COLUMN_VALUE + ", NEW."
+            + DataContract.COLUMN_VALUE + " FROM " + RESOLUTIONS + ";"
+            + " UPDATE " + AGGREGATES + " SET "
+            + AggregatesContract.COLUMN_COUNT + " = " + AggregatesContract.COLUMN_COUNT + " + 1, "
+            + AggregatesContract.COLUMN_SUM + " = " + AggregatesContract.COLUMN_SUM + " + NEW."
+            + DataContract.COLUMN_VALUE + ", "
+            + AggregatesContract.COLUMN_MINIMUM + " = MIN(" + AggregatesContract.COLUMN_MINIMUM
+            + ", NEW." + DataContract.COLUMN_VALUE + "), "
+            + AggregatesContract.COLUMN_MAXIMUM + " = MAX(" + AggregatesContract.COLUMN_MAXIMUM
+            + ", NEW." + DataContract.COLUMN_VALUE + ")"
+            + " WHERE " + AggregatesContract.COLUMN__SENSOR_ID + " = NEW."
+            + DataContract.COLUMN__SENSOR_ID + " AND " + AggregatesContract.COLUMN_TIMESTAMP
+            + " = " + BUCKET + ";"
+            + " END";
+
+    @ExecOnCreate
+    public static final String TRIGGER_RETENTION = "CREATE TRIGGER aggregates_retention"
+            + " AFTER INSERT ON " + AGGREGATES + " BEGIN"
+            + " DELETE FROM " + AGGREGATES
+            + " WHERE " + AggregatesContract.COLUMN__SENSOR_ID + " = NEW."
+            + AggregatesContract.COLUMN__SENSOR_ID
+            + " AND " + AggregatesContract.COLUMN_RESOLUTION + " = NEW."
+            + AggregatesContract.COLUMN_RESOLUTION
+            + " AND " + AggregatesContract.COLUMN_TIMESTAMP + " <= NEW."
+            + AggregatesContract.COLUMN_TIMESTAMP + " - NEW."
+            + AggregatesContract.COLUMN_RESOLUTION + " * CASE NEW."
+            + AggregatesContract.COLUMN_RESOLUTION
+            + " WHEN " + AggregatesContract.RESOLUTION_HOUR + " THEN "
+            + AggregatesContract.BUCKETS_HOUR
+            + " WHEN " + AggregatesContract.RESOLUTION_DAY + " THEN "
+            + AggregatesContract.BUCKETS_DAY
+            + " ELSE " + AggregatesContract.BUCKETS_WEEK + " END;"
+            + " END";
+
+    // FTS4 rather than FTS5, which is missing from the SQLite shipped with older Android releases.
+    @ExecOnCreate
+    public static final String TABLE_CATALOGUE_FTS = "CREATE VIRTUAL TABLE " + CATALOGUE_FTS
+            + " USING fts4(content=\"" + CATALOGUE + "\", "
+            + CatalogueContract.COLUMN_KEYWORDS + ")";
+
+    @ExecOnCreate
+    public static final String TRIGGER_CATALOGUE_INSERT = "CREATE TRIGGER catalogue_insert"
+            + " AFTER INSERT ON " + CATALOGUE + " BEGIN"
+            + " INSERT INTO " + CATALOGUE_FTS + " (docid, " + CatalogueContract.COLUMN_KEYWORDS
+            + ") VALUES (NEW." + CatalogueContract.COLUMN__ID + ", NEW."
+            + CatalogueContract.COLUMN_KEYWORDS + ");"
+            + " END";
+
+    @ExecOnCreate
+    public static final String TRIGGER_CATALOGUE_DELETE = "CREATE TRIGGER catalogue_delete"
+            + " BEFORE DELETE ON " + CATALOGUE + " BEGIN"
+            + " DELETE FROM " + CATALOGUE_FTS + " WHERE docid = OLD."
+            + CatalogueContract.COLUMN__ID + ";"
+            + " END";
+
+    // The index entry has to go while the content row still holds the old keywords.
+    @ExecOnCreate
+    public static final String TRIGGER_CATALOGUE_UPDATE_BEFORE = "CREATE TRIGGER"
+            + " catalogue_update_before BEFORE UPDATE ON " + CATALOGUE + " BEGIN"
+            + " DELETE FROM " + CATALOGUE_FTS + " WHERE docid = OLD."
+            + CatalogueContract.COLUMN__ID + ";"
+            + " END";
+
+    @ExecOnCreate
+    public static final String TRIGGER_CATALOGUE_UPDATE_AFTER = "CREATE TRIGGER"
+            + " catalogue_update_after AFTER UPDATE ON " + CATALOGUE + " BEGIN"
+            + " INSERT INTO " + CATALOGUE_FTS + " (docid, " + CatalogueContract.COLUMN_KEYWORDS
+            + ") VALUES (NEW." + CatalogueContract.COLUMN__ID + ", NEW."
+            + CatalogueContract.COLUMN_KEYWORDS + ");"
+            + " END";
+
+    private static final String SCORE = Quality.normalize("(SELECT "
+            + SensorsContract.COLUMN_PARAMETER + " FROM " + SENSORS + " WHERE "
+            + SensorsContract.COLUMN__ID + " = " + DataContract.COLUMN__SENSOR_ID + ")",
+            DataContract.COLUMN_VALUE);
+
+    private static final String LATEST_COLUMNS = " (" + LatestContract.COLUMN__SENSOR_ID + ", "
+            + LatestContract.COLUMN__STATION_ID + ", " + LatestContract.COLUMN_TIMESTAMP + ", "
+            + LatestContract.COLUMN_VALUE + ", " + LatestContract.COLUMN_SCORE + ")";
+
+    // Only a newer point replaces the latest one; points backfilled for an older timestamp
+    // leave it alone.
+    @ExecOnCreate
+    public static final String TRIGGER_LATEST_INSERT = "CREATE TRIGGER data_latest_insert"
+            + " AFTER INSERT ON " + DATA + " WHEN NEW." + DataContract.COLUMN_TIMESTAMP
+            + " >= IFNULL((SELECT " + LatestContract.COLUMN_TIMESTAMP + " FROM " + LATEST
+            + " WHERE " + LatestContract.COLUMN__SENSOR_ID + " = NEW."
+            + DataContract.COLUMN__SENSOR_ID + "), NEW." + DataContract.COLUMN_TIMESTAMP
+            + ") BEGIN"
+            + " INSERT INTO " + LATEST + LATEST_COLUMNS
+            + " SELECT " + DataContract.COLUMN__SENSOR_ID + ", "
+            + DataContract.COLUMN__STATION_ID + ", " + DataContract.COLUMN_TIMESTAMP + ", "
+            + DataContract.COLUMN_VALUE + ", " + SCORE + " FROM " + DATA + " WHERE "
+            + DataContract.COLUMN__ID + " = NEW." + DataContract.COLUMN__ID + ";"
+            + " END";
+
+    @ExecOnCreate
+    public static final String TRIGGER_LATEST_DELETE = "CREATE TRIGGER data_latest_delete"
+            + " AFTER DELETE ON " + DATA + " WHEN OLD." + DataContract.COLUMN_TIMESTAMP
+            + " = (SELECT " + LatestContract.COLUMN_TIMESTAMP + " FROM " + LATEST
+            + " WHERE " + LatestContract.COLUMN__SENSOR_ID + " = OLD."
+            + DataContract.COLUMN__SENSOR_ID + ") BEGIN"
+            + " DELETE FROM " + LATEST + " WHERE " + LatestContract.COLUMN__SENSOR_ID
+            + " = OLD." + DataContract.COLUMN__SENSOR_ID + ";"
+            + " INSERT INTO " + LATEST + LATEST_COLUMNS
+            + " SELECT " + DataContract.COLUMN__SENSOR_ID + ", "
+            + DataContract.COLUMN__STATION_ID + ", " + DataContract.COLUMN_TIMESTAMP + ", "
+            + DataContract.COLUMN_VALUE + ", " + SCORE + " FROM " + DATA + " WHERE "
+            + DataContract.COLUMN__SENSOR_ID + " = OLD." + DataContract.COLUMN__SENSOR_ID
+            + " ORDER BY " + DataContract.COLUMN_TIMESTAMP + " DESC LIMIT 1;"
+            + " END";
+
+    @SuppressWarnings("unused")
+    @OnConfigure
+    public static void onConfigure(SQLiteDatabase db) {
+        if (WRITE_AHEAD_LOGGING) db.enableWriteAheadLogging();
+        else db.disableWriteAheadLogging();
+        // Enabling WAL reconfigures the connection, so the pragmas have to follow it.
+        pragma(db, "synchronous = " + SYNCHRONOUS);
+        pragma(db, "cache_size = " + CACHE_SIZE);
+    }
+
+    // Some pragmas return the new value, which execSQL refuses.
+    private static void pragma(SQLiteDatabase db, String pragma) {
+        Cursor cursor = db.rawQuery("PRAGMA " + pragma, null);
+        cursor.moveToFirst();
+        cursor.close();
+    }
+
     @SuppressWarnings("unused")
     @OnUpgrade
     public static void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (!Migrations.migrate(db, oldVersion, newVersion)) recreate(db);
+    }
+
+    private static void recreate(SQLiteDatabase db) {
         db.execSQL("DROP TABLE IF EXISTS " + STATIONS);
         db.execSQL("DELETE FROM SQLITE_SEQUENCE WHERE NAME = '" + STATIONS + "'");
         db.execSQL(io.github.hazyair.data.generated.HazyairDatabase.STATIONS);
@@ -41,6 +224,23 @@ public class HazyairDatabase {
         db.execSQL("DROP TABLE IF EXISTS " + CONFIG);
         db.execSQL("DELETE FROM SQLITE_SEQUENCE WHERE NAME = '" + CONFIG + "'");
         db.execSQL(io.github.hazyair.data.generated.HazyairDatabase.CONFIG);
+        db.execSQL("DROP TABLE IF EXISTS " + AGGREGATES);
+        db.execSQL("DELETE FROM SQLITE_SEQUENCE WHERE NAME = '" + AGGREGATES + "'");
+        db.execSQL(io.github.hazyair.data.generated.HazyairDatabase.AGGREGATES);
+        db.execSQL(TRIGGER_AGGREGATE);
+        db.execSQL(TRIGGER_RETENTION);
+        db.execSQL("DROP TABLE IF EXISTS " + CATALOGUE_FTS);
+        db.execSQL("DROP TABLE IF EXISTS " + CATALOGUE);
+        db.execSQL("DELETE FROM SQLITE_SEQUENCE WHERE NAME = '" + CATALOGUE + "'");
+        db.execSQL(io.github.hazyair.data.generated.HazyairDatabase.CATALOGUE);
+        db.execSQL(TABLE_CATALOGUE_FTS);
+        db.execSQL(TRIGGER_CATALOGUE_INSERT);
+        db.execSQL(TRIGGER_CATALOGUE_DELETE);
+        db.execSQL(TRIGGER_CATALOGUE_UPDATE_BEFORE);
+        db.execSQL(TRIGGER_CATALOGUE_UPDATE_AFTER);
+        db.execSQL("DROP TABLE IF EXISTS " + LATEST);
+        db.execSQL(io.github.hazyair.data.generated.HazyairDatabase.LATEST);
+        db.execSQL(TRIGGER_LATEST_INSERT);
+        db.execSQL(TRIGGER_LATEST_DELETE);
     }
 }
-
@@ -4,30 +4,41 @@ import android.content.ContentProviderOperation;
 import android.content.ContentProviderResult;
 import android.content.ContentValues;
 import android.content.Context;
-import android.content.OperationApplicationException;
 import android.database.Cursor;
+import android.database.MergeCursor;
 import android.net.Uri;
-import android.os.RemoteException;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.os.Parcelable;
+import android.util.SparseLongArray;
 
 import com.crashlytics.android.Crashlytics;
 
 import net.simonvt.schematic.annotation.ContentUri;
 import net.simonvt.schematic.annotation.InexactContentUri;
+import net.simonvt.schematic.annotation.NotifyDelete;
+import net.simonvt.schematic.annotation.NotifyInsert;
 import net.simonvt.schematic.annotation.TableEndpoint;
 import net.simonvt.schematic.annotation.ContentProvider;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import io.github.hazyair.source.Sensor;
 import io.github.hazyair.source.Station;
 import io.github.hazyair.util.Preference;
+import io.github.hazyair.util.SpatialIndex;
 
 @ContentProvider(
         authority = HazyairProvider.AUTHORITY,
         database = HazyairDatabase.class)
 public final class HazyairProvider {
 
+    public static final int CHUNK = 100;
+
     @SuppressWarnings("WeakerAccess")
     static final String AUTHORITY = "io.github.hazyair.provider";
 
@@ -40,6 +51,11 @@ public final class HazyairProvider {
 
         static final Uri CONTENT_URI = Uri.parse("content://" + AUTHORITY + "/config");
 
+        @NotifyInsert(paths = "config")
+        public static Uri[] onInsert(Uri uri) {
+            return Notifications.of(uri);
+        }
+
         public static void set(Context context, String key, String value) {
             if (context == null || key == null || value == null) return;
             ContentValues contentValues = new ContentValues();
@@ -86,6 +102,16 @@ public final class HazyairProvider {
             return CONTENT_URI.buildUpon().appendPath(String.valueOf(id)).build();
         }
 
+        @NotifyInsert(paths = "stations")
+        public static Uri[] onInsert(Uri uri) {
+            return Notifications.of(uri);
+        }
+
+        @NotifyDelete(paths = "stations")
+        public static Uri[] onDelete(Uri uri) {
+            return Notifications.of(uri);
+        }
+
         public static boolean selected(Context context, Station station) {
             if (context == null || station == null) return false;
             Cursor cursor = context.getContentResolver().query(CONTENT_URI,
@@ -103,7 +129,7 @@ public final class HazyairProvider {
             return result;
         }
 
-        public synchronized static void bulkInsertAdd(io.github.hazyair.source.Station station,
+        public static void bulkInsertAdd(io.github.hazyair.source.Station station,
                                          ArrayList<ContentProviderOperation> cpo) {
             if (station == null || cpo == null) return;
             cpo.add(ContentProviderOperation.newInsert(Stations.CONTENT_URI)
@@ -145,9 +171,33 @@ public final class HazyairProvider {
             return CONTENT_URI.buildUpon().appendPath(String.valueOf(id)).build();
         }
 
-        public synchronized static void bulkInsertAdd(int _station_id,
-                                                      List<Sensor> sensors,
-                                                      ArrayList<ContentProviderOperation> cpo) {
+        @InexactContentUri(
+                path = "sensors/station/#",
+                name = "STATION",
+                type = "vnd.android.cursor.dir/sensors",
+                whereColumn = SensorsContract.COLUMN__STATION_ID,
+                pathSegment = 2,
+                defaultSort = DEFAULT_SORT)
+
+        public static Uri fromStation(long _station_id) {
+            return CONTENT_URI.buildUpon().appendPath("station")
+                    .appendPath(String.valueOf(_station_id)).build();
+        }
+
+        @NotifyInsert(paths = "sensors")
+        public static Uri[] onInsert(Uri uri, ContentValues values) {
+            Integer _station_id = values.getAsInteger(SensorsContract.COLUMN__STATION_ID);
+            return Notifications.of(_station_id == null ? uri : fromStation(_station_id));
+        }
+
+        @NotifyDelete(paths = "sensors")
+        public static Uri[] onDelete(Uri uri) {
+            return Notifications.of(uri);
+        }
+
+        public static void bulkInsertAdd(int _station_id,
+                                         List<Sensor> sensors,
+                                         ArrayList<ContentProviderOperation> cpo) {
             if (sensors == null || cpo == null) return;
             for (io.github.hazyair.source.Sensor sensor : sensors) {
                 cpo.add(ContentProviderOperation.newInsert(Sensors.CONTENT_URI)
@@ -164,8 +214,8 @@ public final class HazyairProvider {
 
         public static Cursor select(Context context, int _id) {
             if (context == null) return null;
-            return context.getContentResolver().query(CONTENT_URI,
-                    Sensor.keys(), "_station_id="+_id, null, null);
+            return context.getContentResolver().query(fromStation(_id),
+                    Sensor.keys(), null, null, null);
         }
     }
 
@@ -191,7 +241,43 @@ public final class HazyairProvider {
             return CONTENT_URI.buildUpon().appendPath(String.valueOf(id)).build();
         }
 
-        public synchronized static void bulkInsertAdd(int _station_id, int _sensor_id,
+        @InexactContentUri(
+                path = "data/station/#/sensor/#",
+                name = "STATION_SENSOR",
+                type = "vnd.android.cursor.dir/data",
+                whereColumn = { DataContract.COLUMN__STATION_ID, DataContract.COLUMN__SENSOR_ID },
+                pathSegment = { 2, 4 },
+                defaultSort = DEFAULT_SORT)
+
+        public static Uri fromSensor(long _station_id, long _sensor_id) {
+            return CONTENT_URI.buildUpon().appendPath("station")
+                    .appendPath(String.valueOf(_station_id)).appendPath("sensor")
+                    .appendPath(String.valueOf(_sensor_id)).build();
+        }
+
+        static Uri[] onInsert(int _station_id, int _sensor_id) {
+            return new Uri[] { fromSensor(_station_id, _sensor_id),
+                    Aggregates.fromSensor(_station_id, _sensor_id),
+                    Latest.fromStation(_station_id) };
+        }
+
+        @NotifyInsert(paths = "data")
+        public static Uri[] onInsert(Uri uri, ContentValues values) {
+            Integer _station_id = values.getAsInteger(DataContract.COLUMN__STATION_ID);
+            Integer _sensor_id = values.getAsInteger(DataContract.COLUMN__SENSOR_ID);
+            if (_station_id == null || _sensor_id == null)
+                return Notifications.of(uri, Aggregates.CONTENT_URI, Latest.CONTENT_URI);
+            return Notifications.of(onInsert(_station_id, _sensor_id));
+        }
+
+        @NotifyDelete(paths = { "data", "data/station/#/sensor/#" })
+        public static Uri[] onDelete(Uri uri) {
+            List<String> segments = uri.getPathSegments();
+            if (segments.size() < 3) return Notifications.of(uri, Latest.CONTENT_URI);
+            return Notifications.of(uri, Latest.fromStation(Long.parseLong(segments.get(2))));
+        }
+
+        public static void bulkInsertAdd(int _station_id, int _sensor_id,
                                          List<io.github.hazyair.source.Data> data,
                                          ArrayList<ContentProviderOperation> cpo) {
             if (data == null || cpo == null) return;
@@ -202,51 +288,386 @@ public final class HazyairProvider {
                         .withValues(entry.toContentValues()).build());
             }
         }
-        public synchronized static void bulkInsertAdd(List<io.github.hazyair.source.Data> data,
-                                                      long timestamp,
-                                                      ArrayList<ContentProviderOperation> cpo) {
-            if (data == null || cpo == null) return;
-            for (io.github.hazyair.source.Data entry : data) {
-                if (entry.timestamp >= timestamp) {
-                    cpo.add(ContentProviderOperation.newInsert(Data.CONTENT_URI)
-                            .withValues(entry.toContentValues()).build());
+
+        /**
+         * Data points collected into primitive arrays and inserted by the provider through a
+         * single compiled statement, without an operation or values map per point.
+         */
+        public static class Ingest {
+            private int[] mStationIds = new int[64];
+            private int[] mSensorIds = new int[64];
+            private long[] mTimestamps = new long[64];
+            private double[] mValues = new double[64];
+            private int mSize;
+
+            public void add(int _station_id, int _sensor_id, long timestamp, double value) {
+                if (mSize == mTimestamps.length) {
+                    int capacity = mSize * 2;
+                    mStationIds = Arrays.copyOf(mStationIds, capacity);
+                    mSensorIds = Arrays.copyOf(mSensorIds, capacity);
+                    mTimestamps = Arrays.copyOf(mTimestamps, capacity);
+                    mValues = Arrays.copyOf(mValues, capacity);
+                }
+                mStationIds[mSize] = _station_id;
+                mSensorIds[mSize] = _sensor_id;
+                mTimestamps[mSize] = timestamp;
+                mValues[mSize] = value;
+                mSize++;
+            }
+
+            /**
+             * @return number of points not older than {@code timestamp} added
+             */
+            public int add(List<io.github.hazyair.source.Data> data, long timestamp) {
+                if (data == null) return 0;
+                int count = 0;
+                for (io.github.hazyair.source.Data entry : data) {
+                    if (entry.timestamp >= timestamp) {
+                        add(entry._station_id, entry._sensor_id, entry.timestamp, entry.value);
+                        count++;
+                    }
+                }
+                return count;
+            }
+
+            public int size() {
+                return mSize;
+            }
+
+            /**
+             * @return number of points inserted or -1 on failure
+             */
+            public int execute(Context context) {
+                if (context == null) return -1;
+                Bundle extras = new Bundle();
+                extras.putIntArray(HazyairContentProvider.EXTRA_STATION_IDS,
+                        Arrays.copyOf(mStationIds, mSize));
+                extras.putIntArray(HazyairContentProvider.EXTRA_SENSOR_IDS,
+                        Arrays.copyOf(mSensorIds, mSize));
+                extras.putLongArray(HazyairContentProvider.EXTRA_TIMESTAMPS,
+                        Arrays.copyOf(mTimestamps, mSize));
+                extras.putDoubleArray(HazyairContentProvider.EXTRA_VALUES,
+                        Arrays.copyOf(mValues, mSize));
+                Bundle result = context.getContentResolver().call(
+                        Uri.parse("content://" + AUTHORITY), HazyairContentProvider.METHOD_INGEST,
+                        null, extras);
+                if (result == null) return -1;
+                Serializable error = result.getSerializable(HazyairContentProvider.EXTRA_ERROR);
+                if (error instanceof Throwable) {
+                    if (Preference.isCrashlyticsEnabled(context)) {
+                        Crashlytics.logException((Throwable) error);
+                    }
+                    return -1;
                 }
+                return result.getInt(HazyairContentProvider.EXTRA_COUNT);
             }
         }
 
-        public synchronized static void bulkDeleteAdd(int _id, long timestamp,
-                                                      ArrayList<ContentProviderOperation> cpo) {
+        public static void bulkDeleteAdd(int _station_id, int _sensor_id, long timestamp,
+                                         ArrayList<ContentProviderOperation> cpo) {
             if (cpo == null) return;
-            cpo.add(ContentProviderOperation.newDelete(Data.CONTENT_URI).withSelection(
-                    DataContract.COLUMN__SENSOR_ID + "=? AND " +
-                            DataContract.COLUMN_TIMESTAMP + "<?",
-                    new String[]{String.valueOf(_id), String.valueOf(timestamp)}).build());
+            cpo.add(ContentProviderOperation.newDelete(fromSensor(_station_id, _sensor_id))
+                    .withSelection(DataContract.COLUMN_TIMESTAMP + "<?",
+                            new String[]{String.valueOf(timestamp)})
+                    .withYieldAllowed(true).build());
+        }
+
+    }
+
+    /**
+     * Most recent point of every sensor with its normalized score, kept by triggers on the data
+     * table.
+     */
+    @SuppressWarnings("unused")
+    @TableEndpoint(table = HazyairDatabase.LATEST)
+    public static class Latest {
+        static final String DEFAULT_SORT = LatestContract.COLUMN__SENSOR_ID + " ASC";
+
+        @ContentUri(
+                path = "latest",
+                type = "vnd.android.cursor.dir/latest",
+                defaultSort = DEFAULT_SORT)
+        static final Uri CONTENT_URI = Uri.parse("content://" + AUTHORITY + "/latest");
+
+        @InexactContentUri(
+                path = "latest/station/#",
+                name = "STATION",
+                type = "vnd.android.cursor.dir/latest",
+                whereColumn = LatestContract.COLUMN__STATION_ID,
+                pathSegment = 2,
+                defaultSort = DEFAULT_SORT)
+
+        public static Uri fromStation(long _station_id) {
+            return CONTENT_URI.buildUpon().appendPath("station")
+                    .appendPath(String.valueOf(_station_id)).build();
         }
 
-        public static Cursor selectLast(Context context, int _id) {
+        static final String[] PROJECTION = new String[] {
+                LatestContract.COLUMN__STATION_ID,
+                LatestContract.COLUMN__SENSOR_ID,
+                LatestContract.COLUMN_TIMESTAMP,
+                LatestContract.COLUMN_VALUE,
+                LatestContract.COLUMN_SCORE };
+
+        public static Cursor select(Context context, int _station_id) {
             if (context == null) return null;
-            return context.getContentResolver().query(CONTENT_URI,
-                    io.github.hazyair.source.Data.keys(), "_sensor_id="+_id,
-                    null, HazyairProvider.Data.DEFAULT_SORT + " LIMIT 1");
+            return context.getContentResolver().query(fromStation(_station_id), PROJECTION,
+                    null, null, null);
+        }
+
+        /**
+         * @return timestamp of the most recent point of every sensor
+         */
+        public static SparseLongArray selectTimestamps(Context context) {
+            SparseLongArray result = new SparseLongArray();
+            if (context == null) return result;
+            Cursor cursor = context.getContentResolver().query(CONTENT_URI,
+                    new String[] { LatestContract.COLUMN__SENSOR_ID,
+                            LatestContract.COLUMN_TIMESTAMP }, null, null, null);
+            if (cursor != null) {
+                while (cursor.moveToNext()) result.put(cursor.getInt(0), cursor.getLong(1));
+                cursor.close();
+            }
+            return result;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    @TableEndpoint(table = HazyairDatabase.AGGREGATES)
+    public static class Aggregates {
+        static final String DEFAULT_SORT = AggregatesContract.COLUMN_TIMESTAMP + " ASC";
+
+        static final String[] PROJECTION = new String[] {
+                AggregatesContract.COLUMN_TIMESTAMP,
+                AggregatesContract.COLUMN_AVERAGE + " AS " + DataContract.COLUMN_VALUE,
+                AggregatesContract.COLUMN_MINIMUM,
+                AggregatesContract.COLUMN_MAXIMUM,
+                AggregatesContract.COLUMN_COUNT };
+
+        static final String SELECTION = AggregatesContract.COLUMN__SENSOR_ID + "=? AND " +
+                AggregatesContract.COLUMN_RESOLUTION + "=? AND " +
+                AggregatesContract.COLUMN_TIMESTAMP + ">=? AND " +
+                AggregatesContract.COLUMN_TIMESTAMP + "<=?";
+
+        @ContentUri(
+                path = "aggregates",
+                type = "vnd.android.cursor.dir/aggregates",
+                defaultSort = DEFAULT_SORT)
+        static final Uri CONTENT_URI = Uri.parse("content://" + AUTHORITY + "/aggregates");
+
+        // Aggregates are written by a trigger only, this URI is notified but never queried.
+        static Uri fromSensor(long _station_id, long _sensor_id) {
+            return CONTENT_URI.buildUpon().appendPath("station")
+                    .appendPath(String.valueOf(_station_id)).appendPath("sensor")
+                    .appendPath(String.valueOf(_sensor_id)).build();
+        }
 
+        // Coarsest first, every resolution takes over where the next finer one is not kept.
+        private static final long[] RESOLUTIONS = { AggregatesContract.RESOLUTION_WEEK,
+                AggregatesContract.RESOLUTION_DAY, AggregatesContract.RESOLUTION_HOUR };
+
+        static String[][] selectionArgs(int _id, long now) {
+            String[][] selectionArgs = new String[RESOLUTIONS.length][];
+            long from = AggregatesContract.start(now - RESOLUTIONS[0]
+                    * AggregatesContract.buckets(RESOLUTIONS[0]), RESOLUTIONS[0]);
+            for (int i = 0; i < RESOLUTIONS.length; i++) {
+                long resolution = RESOLUTIONS[i];
+                long to = now;
+                long next = now;
+                if (i + 1 < RESOLUTIONS.length) {
+                    // The finer buckets take over after the oldest one kept, the last bucket
+                    // of this resolution ends where they begin.
+                    next = AggregatesContract.start(now - RESOLUTIONS[i + 1]
+                            * AggregatesContract.buckets(RESOLUTIONS[i + 1]) + resolution,
+                            resolution);
+                    to = next - resolution;
+                }
+                selectionArgs[i] = new String[] { String.valueOf(_id),
+                        String.valueOf(resolution), String.valueOf(from), String.valueOf(to) };
+                from = next;
+            }
+            return selectionArgs;
         }
 
+        /**
+         * @return whole kept history of a sensor in ascending order, weekly buckets for the
+         * oldest part followed by daily and hourly ones for the recent weeks
+         */
+        public static Cursor select(Context context, int _id, long now,
+                                    CancellationSignal signal) {
+            if (context == null) return null;
+            String[][] selectionArgs = selectionArgs(_id, now);
+            Cursor[] cursors = new Cursor[selectionArgs.length];
+            for (int i = 0; i < cursors.length; i++) {
+                try {
+                    cursors[i] = context.getContentResolver().query(CONTENT_URI, PROJECTION,
+                            SELECTION, selectionArgs[i], DEFAULT_SORT, signal);
+                } catch (RuntimeException e) {
+                    for (int j = 0; j < i; j++) if (cursors[j] != null) cursors[j].close();
+                    throw e;
+                }
+            }
+            return new MergeCursor(cursors);
+        }
     }
 
-    public synchronized static ContentProviderResult[] bulkExecute(Context context,
+    @SuppressWarnings("unused")
+    @TableEndpoint(table = HazyairDatabase.CATALOGUE)
+    public static class Catalogue {
+        static final String DEFAULT_SORT = CatalogueContract.COLUMN__ID + " ASC";
+
+        static final String[] PROJECTION = new String[] {
+                CatalogueContract.COLUMN_ID,
+                CatalogueContract.COLUMN_NAME,
+                CatalogueContract.COLUMN_LATITUDE,
+                CatalogueContract.COLUMN_LONGITUDE,
+                CatalogueContract.COLUMN_COUNTRY,
+                CatalogueContract.COLUMN_LOCALITY,
+                CatalogueContract.COLUMN_ADDRESS,
+                CatalogueContract.COLUMN_SOURCE };
+
+        static final String SELECTION = CatalogueContract.COLUMN__ID + " IN (SELECT docid FROM " +
+                HazyairDatabase.CATALOGUE_FTS + " WHERE " + CatalogueContract.COLUMN_KEYWORDS +
+                " MATCH ?)";
+
+        @ContentUri(
+                path = "catalogue",
+                type = "vnd.android.cursor.dir/catalogue",
+                defaultSort = DEFAULT_SORT)
+        static final Uri CONTENT_URI = Uri.parse("content://" + AUTHORITY + "/catalogue");
+
+        @NotifyInsert(paths = "catalogue")
+        public static Uri[] onInsert(Uri uri) {
+            return Notifications.of(uri);
+        }
+
+        @NotifyDelete(paths = "catalogue")
+        public static Uri[] onDelete(Uri uri) {
+            return Notifications.of(uri);
+        }
+
+        private static final double CELL = 0.5;
+
+        private static SpatialIndex<Station> sIndex;
+        private static long sGeneration;
+
+        public static void bulkReplaceAdd(List<Station> stations, List<String> keywords,
+                                          ArrayList<ContentProviderOperation> cpo) {
+            if (stations == null || keywords == null || cpo == null) return;
+            cpo.add(ContentProviderOperation.newDelete(CONTENT_URI).build());
+            for (int i = 0; i < stations.size(); i++) {
+                ContentValues contentValues = stations.get(i).toContentValues();
+                contentValues.put(CatalogueContract.COLUMN_KEYWORDS, keywords.get(i));
+                cpo.add(ContentProviderOperation.newInsert(CONTENT_URI)
+                        .withValues(contentValues).build());
+            }
+        }
+
+        /**
+         * @return up to {@code count} catalogue stations closest to the position, nearest first
+         */
+        public static List<Station> nearest(Context context, double latitude, double longitude,
+                                            int count) {
+            SpatialIndex<Station> index = index(context);
+            if (index == null) return new ArrayList<>();
+            return index.nearest(latitude, longitude, count);
+        }
+
+        /**
+         * @return catalogue stations within {@code radius} meters of the position, nearest first
+         */
+        public static List<Station> within(Context context, double latitude, double longitude,
+                                           double radius) {
+            SpatialIndex<Station> index = index(context);
+            if (index == null) return new ArrayList<>();
+            return index.within(latitude, longitude, radius);
+        }
+
+        // Every catalogue rewrite allocates fresh row ids, so the highest one identifies its
+        // content and the in-memory index is rebuilt only after the catalogue changed.
+        private synchronized static SpatialIndex<Station> index(Context context) {
+            if (context == null) return null;
+            Cursor cursor = context.getContentResolver().query(CONTENT_URI,
+                    new String[] { "MAX(" + CatalogueContract.COLUMN__ID + ")" },
+                    null, null, null);
+            if (cursor == null) return sIndex;
+            long generation = cursor.moveToFirst() ? cursor.getLong(0) : 0;
+            cursor.close();
+            if (sIndex != null && generation == sGeneration) return sIndex;
+            cursor = context.getContentResolver().query(CONTENT_URI, PROJECTION, null, null,
+                    null);
+            if (cursor == null) return sIndex;
+            SpatialIndex<Station> index = new SpatialIndex<>(CELL);
+            while (cursor.moveToNext()) {
+                Station station = new Station(cursor);
+                index.add(station.latitude, station.longitude, station);
+            }
+            cursor.close();
+            sIndex = index;
+            sGeneration = generation;
+            return index;
+        }
+    }
+
+    /**
+     * Applies the retention policies, removes orphaned rows and compacts the database file.
+     *
+     * @return report of the run or null on failure
+     */
+    public static Maintenance.Report maintain(Context context) {
+        if (context == null) return null;
+        Bundle result = context.getContentResolver().call(Uri.parse("content://" + AUTHORITY),
+                HazyairContentProvider.METHOD_MAINTAIN, null, null);
+        if (result == null) return null;
+        Serializable error = result.getSerializable(HazyairContentProvider.EXTRA_ERROR);
+        if (error instanceof OperationCanceledException) return null;
+        if (error instanceof Throwable) {
+            if (Preference.isCrashlyticsEnabled(context)) {
+                Crashlytics.logException((Throwable) error);
+            }
+            return null;
+        }
+        return new Maintenance.Report(result);
+    }
+
+    /**
+     * Applies all operations in one transaction: either all of them are applied or none.
+     */
+    public static ContentProviderResult[] bulkExecute(Context context,
                                                       ArrayList<ContentProviderOperation> cpo) {
+        return bulkExecute(context, cpo, HazyairContentProvider.ATOMIC);
+    }
+
+    /**
+     * Applies operations in chunks committed at operations allowing a yield. When an operation
+     * fails, null is returned but the chunks committed before it stay applied and only their
+     * changes are notified.
+     *
+     * @param chunk number of operations after which the provider may commit at the next
+     *              operation allowing a yield
+     */
+    public static ContentProviderResult[] bulkExecute(Context context,
+                                                      ArrayList<ContentProviderOperation> cpo,
+                                                      int chunk) {
         if (context == null || cpo == null) return null;
-        try {
-            return context.getContentResolver().applyBatch(AUTHORITY, cpo);
-        } catch (RemoteException | OperationApplicationException e) {
+        Bundle extras = new Bundle();
+        extras.putParcelableArrayList(HazyairContentProvider.EXTRA_OPERATIONS, cpo);
+        Bundle result = context.getContentResolver().call(Uri.parse("content://" + AUTHORITY),
+                HazyairContentProvider.METHOD_APPLY_BATCH, String.valueOf(chunk), extras);
+        if (result == null) return null;
+        Serializable error = result.getSerializable(HazyairContentProvider.EXTRA_ERROR);
+        if (error instanceof Throwable) {
             if (Preference.isCrashlyticsEnabled(context)) {
-                Crashlytics.logException(e);
+                Crashlytics.logException((Throwable) error);
             }
             return null;
         }
+        Parcelable[] results = result.getParcelableArray(HazyairContentProvider.EXTRA_RESULTS);
+        if (results == null) return null;
+        return Arrays.copyOf(results, results.length, ContentProviderResult[].class);
     }
 
-    private synchronized static void bulkDeleteAdd(int _id,
+    private static void bulkDeleteAdd(int _id,
                                       ArrayList<ContentProviderOperation> cpo) {
         if (cpo == null) return;
         cpo.add(ContentProviderOperation.newDelete(Stations.CONTENT_URI).withSelection(
@@ -258,10 +679,13 @@ public final class HazyairProvider {
         cpo.add(ContentProviderOperation.newDelete(Data.CONTENT_URI).withSelection(
                 DataContract.COLUMN__STATION_ID + "=?",
                 new String[] { String.valueOf(_id) }).build());
+        cpo.add(ContentProviderOperation.newDelete(Aggregates.CONTENT_URI).withSelection(
+                AggregatesContract.COLUMN__STATION_ID + "=?",
+                new String[] { String.valueOf(_id) }).build());
     }
 
     @SuppressWarnings("UnusedReturnValue")
-    public synchronized static ContentProviderResult[] delete(Context context, int _id) {
+    public static ContentProviderResult[] delete(Context context, int _id) {
         if (context == null) return null;
         ArrayList<ContentProviderOperation> cpo = new ArrayList<>();
         bulkDeleteAdd(_id, cpo);
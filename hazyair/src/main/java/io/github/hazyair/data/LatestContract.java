@@ -0,0 +1,25 @@
+package io.github.hazyair.data;
+
+import net.simonvt.schematic.annotation.ConflictResolutionType;
+import net.simonvt.schematic.annotation.DataType;
+import net.simonvt.schematic.annotation.PrimaryKey;
+
+@SuppressWarnings("WeakerAccess")
+public class LatestContract {
+
+    @DataType(DataType.Type.INTEGER)
+    @PrimaryKey(onConflict = ConflictResolutionType.REPLACE)
+    public static final String COLUMN__SENSOR_ID = "_sensor_id";
+
+    @DataType(DataType.Type.INTEGER)
+    public static final String COLUMN__STATION_ID = "_station_id";
+
+    @DataType(DataType.Type.INTEGER)
+    public static final String COLUMN_TIMESTAMP = "timestamp";
+
+    @DataType(DataType.Type.REAL)
+    public static final String COLUMN_VALUE = "value";
+
+    @DataType(DataType.Type.INTEGER)
+    public static final String COLUMN_SCORE = "score";
+}
@@ -0,0 +1,18 @@
+package io.github.hazyair.data;
+
+import android.content.Context;
+
+import androidx.loader.content.CursorLoader;
+
+public class LatestLoader extends CursorLoader {
+
+    private LatestLoader(Context context, int _id) {
+        super(context, HazyairProvider.Latest.fromStation(_id), HazyairProvider.Latest.PROJECTION,
+                null, null, HazyairProvider.Latest.DEFAULT_SORT);
+    }
+
+    public static LatestLoader newInstanceForAllSensorsFromStation(Context context, int _id) {
+        return new LatestLoader(context, _id);
+    }
+
+}
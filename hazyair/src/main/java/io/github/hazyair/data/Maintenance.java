@@ -0,0 +1,135 @@
+package io.github.hazyair.data;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Bundle;
+import android.os.OperationCanceledException;
+import android.os.SystemClock;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retention, orphan cleanup and compaction of the database. Rows of sensors which are no longer
+ * updated and rows left behind by removed stations are not reached by the deletes of the update
+ * path or by the aggregate triggers.
+ */
+public final class Maintenance {
+
+    // Twice the window kept by the update path, so only rows it can no longer reach are removed.
+    private final static long DATA_RETENTION = TimeUnit.HOURS.toMillis(50);
+
+    private final static String[] ORPHANS = new String[] {
+            "DELETE FROM " + HazyairDatabase.SENSORS + " WHERE "
+                    + SensorsContract.COLUMN__STATION_ID + " NOT IN (SELECT "
+                    + StationsContract.COLUMN__ID + " FROM " + HazyairDatabase.STATIONS + ")",
+            "DELETE FROM " + HazyairDatabase.DATA + " WHERE " + DataContract.COLUMN__SENSOR_ID
+                    + " NOT IN (SELECT " + SensorsContract.COLUMN__ID + " FROM "
+                    + HazyairDatabase.SENSORS + ")",
+            "DELETE FROM " + HazyairDatabase.AGGREGATES + " WHERE "
+                    + AggregatesContract.COLUMN__SENSOR_ID + " NOT IN (SELECT "
+                    + SensorsContract.COLUMN__ID + " FROM " + HazyairDatabase.SENSORS + ")",
+            "DELETE FROM " + HazyairDatabase.LATEST + " WHERE "
+                    + LatestContract.COLUMN__SENSOR_ID + " NOT IN (SELECT "
+                    + SensorsContract.COLUMN__ID + " FROM " + HazyairDatabase.SENSORS + ")"
+    };
+
+    private final static String DATA = "DELETE FROM " + HazyairDatabase.DATA + " WHERE "
+            + DataContract.COLUMN_TIMESTAMP + " < ?";
+
+    private final static String AGGREGATES = "DELETE FROM " + HazyairDatabase.AGGREGATES
+            + " WHERE " + AggregatesContract.COLUMN_TIMESTAMP + " <= ? - "
+            + AggregatesContract.COLUMN_RESOLUTION + " * CASE "
+            + AggregatesContract.COLUMN_RESOLUTION
+            + " WHEN " + AggregatesContract.RESOLUTION_HOUR + " THEN "
+            + AggregatesContract.BUCKETS_HOUR
+            + " WHEN " + AggregatesContract.RESOLUTION_DAY + " THEN "
+            + AggregatesContract.BUCKETS_DAY
+            + " ELSE " + AggregatesContract.BUCKETS_WEEK + " END";
+
+    static final String EXTRA_ROWS = "io.github.hazyair.EXTRA_ROWS";
+    static final String EXTRA_BYTES = "io.github.hazyair.EXTRA_BYTES";
+    static final String EXTRA_DURATION = "io.github.hazyair.EXTRA_DURATION";
+
+    public static class Report {
+        public final int rows;
+        public final long bytes;
+        public final long duration;
+
+        Report(Bundle bundle) {
+            rows = bundle.getInt(EXTRA_ROWS);
+            bytes = bundle.getLong(EXTRA_BYTES);
+            duration = bundle.getLong(EXTRA_DURATION);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d rows, %d bytes reclaimed in %d ms", rows, bytes,
+                    duration);
+        }
+    }
+
+    private Maintenance() {}
+
+    /**
+     * Runs every policy, then returns free pages to the file system. Must not be called inside
+     * a transaction. An interrupt of the calling thread stops the run before its next step with
+     * OperationCanceledException; deletes not yet committed are rolled back.
+     */
+    static Bundle run(SQLiteDatabase db, long now) {
+        long start = SystemClock.elapsedRealtime();
+        long size = size(db);
+        int rows = 0;
+        db.beginTransaction();
+        try {
+            for (String sql : ORPHANS) {
+                checkInterrupted();
+                rows += delete(db, sql);
+            }
+            checkInterrupted();
+            rows += delete(db, DATA, String.valueOf(now - DATA_RETENTION));
+            checkInterrupted();
+            rows += delete(db, AGGREGATES, String.valueOf(now));
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        checkInterrupted();
+        // Incremental vacuum only works once auto_vacuum is set, which on an existing file
+        // takes one full vacuum.
+        if (pragma(db, "auto_vacuum") != 2) {
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            db.execSQL("VACUUM");
+        } else {
+            pragma(db, "incremental_vacuum");
+        }
+        Bundle result = new Bundle();
+        result.putInt(EXTRA_ROWS, rows);
+        result.putLong(EXTRA_BYTES, size - size(db));
+        result.putLong(EXTRA_DURATION, SystemClock.elapsedRealtime() - start);
+        return result;
+    }
+
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) throw new OperationCanceledException();
+    }
+
+    private static int delete(SQLiteDatabase db, String sql, String... args) {
+        try (SQLiteStatement statement = db.compileStatement(sql)) {
+            statement.bindAllArgsAsStrings(args);
+            return statement.executeUpdateDelete();
+        }
+    }
+
+    private static long size(SQLiteDatabase db) {
+        return pragma(db, "page_count") * pragma(db, "page_size");
+    }
+
+    private static long pragma(SQLiteDatabase db, String pragma) {
+        Cursor cursor = db.rawQuery("PRAGMA " + pragma, null);
+        long result = cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        cursor.close();
+        return result;
+    }
+}
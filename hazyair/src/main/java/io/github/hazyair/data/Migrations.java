@@ -0,0 +1,141 @@
+package io.github.hazyair.data;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.util.SparseArray;
+
+/**
+ * Stepwise schema migrations keyed by the version they upgrade to. Every step holds the SQL as
+ * it was when that version shipped, so later schema changes never alter historical steps.
+ */
+class Migrations {
+
+    private static final SparseArray<String[]> STEPS = new SparseArray<>();
+
+    static {
+        STEPS.put(3, new String[] {
+                "ALTER TABLE data RENAME TO data_v2",
+                "CREATE TABLE data ("
+                        + "_id INTEGER PRIMARY KEY ON CONFLICT REPLACE AUTOINCREMENT,"
+                        + "_station_id INTEGER,"
+                        + "_sensor_id INTEGER,"
+                        + "timestamp INTEGER,"
+                        + "value REAL,"
+                        + " CONSTRAINT unique_sensor_timestamp UNIQUE ( _sensor_id, timestamp )"
+                        + " ON CONFLICT IGNORE)",
+                "INSERT OR IGNORE INTO data SELECT * FROM data_v2 ORDER BY _id",
+                "DROP TABLE data_v2"
+        });
+        STEPS.put(4, new String[] {
+                "CREATE TABLE aggregates (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE"
+                        + " AUTOINCREMENT,_station_id INTEGER,_sensor_id INTEGER,resolution"
+                        + " INTEGER,timestamp INTEGER,count INTEGER,sum REAL,minimum"
+                        + " REAL,maximum REAL, CONSTRAINT unique_sensor_resolution_timestamp"
+                        + " UNIQUE ( _sensor_id, resolution, timestamp ) ON CONFLICT IGNORE)",
+                "INSERT INTO aggregates (_station_id, _sensor_id, resolution,"
+                        + " timestamp, count, sum, minimum, maximum) SELECT _station_id,"
+                        + " _sensor_id, resolution, timestamp - (timestamp - 345600000) %"
+                        + " resolution AS bucket, COUNT(*), SUM(value), MIN(value), MAX(value)"
+                        + " FROM data, (SELECT 3600000 AS resolution UNION ALL SELECT 86400000"
+                        + " UNION ALL SELECT 604800000) GROUP BY _sensor_id, resolution, bucket",
+                "CREATE TRIGGER data_aggregate AFTER INSERT ON data BEGIN INSERT OR"
+                        + " IGNORE INTO aggregates (_station_id, _sensor_id, resolution,"
+                        + " timestamp, count, sum, minimum, maximum) SELECT NEW._station_id,"
+                        + " NEW._sensor_id, resolution, NEW.timestamp - (NEW.timestamp -"
+                        + " 345600000) % resolution, 0, 0, NEW.value, NEW.value FROM (SELECT"
+                        + " 3600000 AS resolution UNION ALL SELECT 86400000 UNION ALL SELECT"
+                        + " 604800000); UPDATE aggregates SET count = count + 1, sum = sum +"
+                        + " NEW.value, minimum = MIN(minimum, NEW.value), maximum ="
+                        + " MAX(maximum, NEW.value) WHERE _sensor_id = NEW._sensor_id AND"
+                        + " timestamp = NEW.timestamp - (NEW.timestamp - 345600000) %"
+                        + " resolution; END",
+                "CREATE TRIGGER aggregates_retention AFTER INSERT ON aggregates BEGIN"
+                        + " DELETE FROM aggregates WHERE _sensor_id = NEW._sensor_id AND"
+                        + " resolution = NEW.resolution AND timestamp <= NEW.timestamp -"
+                        + " NEW.resolution * CASE NEW.resolution WHEN 3600000 THEN 336 WHEN"
+                        + " 86400000 THEN 180 ELSE 104 END; END"
+        });
+        STEPS.put(5, new String[] {
+                "CREATE TABLE catalogue (_id INTEGER PRIMARY KEY ON CONFLICT REPLACE"
+                        + " AUTOINCREMENT,id TEXT,name TEXT NOT NULL,latitude REAL NOT NULL,"
+                        + "longitude REAL NOT NULL,country INTEGER NOT NULL,locality TEXT NOT"
+                        + " NULL,address TEXT NOT NULL,source INTEGER NOT NULL,keywords TEXT NOT"
+                        + " NULL)",
+                "CREATE VIRTUAL TABLE catalogue_fts USING fts4(content=\"catalogue\", keywords)",
+                "CREATE TRIGGER catalogue_insert AFTER INSERT ON catalogue BEGIN INSERT INTO"
+                        + " catalogue_fts (docid, keywords) VALUES (NEW._id, NEW.keywords); END",
+                "CREATE TRIGGER catalogue_delete BEFORE DELETE ON catalogue BEGIN DELETE FROM"
+                        + " catalogue_fts WHERE docid = OLD._id; END",
+                "CREATE TRIGGER catalogue_update_before BEFORE UPDATE ON catalogue BEGIN"
+                        + " DELETE FROM catalogue_fts WHERE docid = OLD._id; END",
+                "CREATE TRIGGER catalogue_update_after AFTER UPDATE ON catalogue BEGIN INSERT"
+                        + " INTO catalogue_fts (docid, keywords) VALUES (NEW._id, NEW.keywords);"
+                        + " END"
+        });
+        STEPS.put(6, new String[] {
+                "CREATE TABLE latest (_sensor_id INTEGER PRIMARY KEY ON CONFLICT REPLACE,"
+                        + "_station_id INTEGER,timestamp INTEGER,value REAL,score INTEGER)",
+                "INSERT INTO latest (_sensor_id, _station_id, timestamp, value, score) SELECT"
+                        + " _sensor_id, _station_id, MAX(timestamp), value,"
+                        + " CASE (SELECT parameter FROM sensors WHERE _id = _sensor_id)"
+                        + " WHEN 'CO' THEN"
+                        + " CAST(ROUND(100 * value / 7000.0) AS INTEGER) WHEN 'C₆H₆' THEN"
+                        + " CAST(ROUND(100 * value / 5.0) AS INTEGER) WHEN 'NO₂' THEN"
+                        + " CAST(ROUND(100 * value / 40.0) AS INTEGER) WHEN 'O₃' THEN"
+                        + " CAST(ROUND(100 * value / 100.0) AS INTEGER) WHEN 'PM10' THEN"
+                        + " CAST(ROUND(100 * value / 40.0) AS INTEGER) WHEN 'PM2.5' THEN"
+                        + " CAST(ROUND(100 * value / 25.0) AS INTEGER) WHEN 'SO₂' THEN"
+                        + " CAST(ROUND(100 * value / 75.0) AS INTEGER) END FROM data"
+                        + " GROUP BY _sensor_id",
+                "CREATE TRIGGER data_latest_insert AFTER INSERT ON data WHEN NEW.timestamp >="
+                        + " IFNULL((SELECT timestamp FROM latest WHERE _sensor_id ="
+                        + " NEW._sensor_id), NEW.timestamp) BEGIN INSERT INTO latest (_sensor_id,"
+                        + " _station_id, timestamp, value, score) SELECT _sensor_id, _station_id,"
+                        + " timestamp, value,"
+                        + " CASE (SELECT parameter FROM sensors WHERE _id = _sensor_id)"
+                        + " WHEN 'CO' THEN"
+                        + " CAST(ROUND(100 * value / 7000.0) AS INTEGER) WHEN 'C₆H₆' THEN"
+                        + " CAST(ROUND(100 * value / 5.0) AS INTEGER) WHEN 'NO₂' THEN"
+                        + " CAST(ROUND(100 * value / 40.0) AS INTEGER) WHEN 'O₃' THEN"
+                        + " CAST(ROUND(100 * value / 100.0) AS INTEGER) WHEN 'PM10' THEN"
+                        + " CAST(ROUND(100 * value / 40.0) AS INTEGER) WHEN 'PM2.5' THEN"
+                        + " CAST(ROUND(100 * value / 25.0) AS INTEGER) WHEN 'SO₂' THEN"
+                        + " CAST(ROUND(100 * value / 75.0) AS INTEGER) END FROM data"
+                        + " WHERE _id = NEW._id; END",
+                "CREATE TRIGGER data_latest_delete AFTER DELETE ON data WHEN OLD.timestamp ="
+                        + " (SELECT timestamp FROM latest WHERE _sensor_id = OLD._sensor_id)"
+                        + " BEGIN DELETE FROM latest WHERE _sensor_id = OLD._sensor_id; INSERT"
+                        + " INTO latest (_sensor_id, _station_id, timestamp, value, score) SELECT"
+                        + " _sensor_id, _station_id, timestamp, value,"
+                        + " CASE (SELECT parameter FROM sensors WHERE _id = _sensor_id)"
+                        + " WHEN 'CO' THEN"
+                        + " CAST(ROUND(100 * value / 7000.0) AS INTEGER) WHEN 'C₆H₆' THEN"
+                        + " CAST(ROUND(100 * value / 5.0) AS INTEGER) WHEN 'NO₂' THEN"
+                        + " CAST(ROUND(100 * value / 40.0) AS INTEGER) WHEN 'O₃' THEN"
+                        + " CAST(ROUND(100 * value / 100.0) AS INTEGER) WHEN 'PM10' THEN"
+                        + " CAST(ROUND(100 * value / 40.0) AS INTEGER) WHEN 'PM2.5' THEN"
+                        + " CAST(ROUND(100 * value / 25.0) AS INTEGER) WHEN 'SO₂' THEN"
+                        + " CAST(ROUND(100 * value / 75.0) AS INTEGER) END FROM data"
+                        + " WHERE _sensor_id = OLD._sensor_id ORDER BY"
+                        + " timestamp DESC LIMIT 1; END"
+        });
+    }
+
+    private Migrations() {}
+
+    /**
+     * Applies every step from {@code oldVersion} to {@code newVersion} in order.
+     *
+     * @return false if a step is missing and the database has to be recreated instead
+     */
+    static boolean migrate(SQLiteDatabase db, int oldVersion, int newVersion) {
+        for (int version = oldVersion + 1; version <= newVersion; version++) {
+            if (STEPS.get(version) == null) return false;
+        }
+        for (int version = oldVersion + 1; version <= newVersion; version++) {
+            for (String sql : STEPS.get(version)) {
+                db.execSQL(sql);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.hazyair.data;
+
+import android.content.Context;
+import android.net.Uri;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Change notifications of the provider. While a batch is applied on the current thread the
+ * notify hooks only collect their URIs, and every distinct URI is notified once when the batch
+ * ends instead of once per operation. URIs of operations whose transaction was rolled back are
+ * dropped.
+ */
+final class Notifications {
+
+    private static final ThreadLocal<Set<Uri>> sPending = new ThreadLocal<>();
+    private static final ThreadLocal<Set<Uri>> sCommitted = new ThreadLocal<>();
+
+    private Notifications() {}
+
+    static void begin() {
+        sPending.set(new LinkedHashSet<>());
+        sCommitted.set(new LinkedHashSet<>());
+    }
+
+    /**
+     * Marks the URIs collected so far as changed by a committed transaction.
+     */
+    static void commit() {
+        Set<Uri> pending = sPending.get();
+        Set<Uri> committed = sCommitted.get();
+        if (pending == null || committed == null) return;
+        committed.addAll(pending);
+        pending.clear();
+    }
+
+    static void end(Context context) {
+        Set<Uri> committed = sCommitted.get();
+        sPending.remove();
+        sCommitted.remove();
+        if (committed != null) notify(context, committed);
+    }
+
+    static void notify(Context context, Set<Uri> uris) {
+        if (context == null) return;
+        for (Uri uri : uris) context.getContentResolver().notifyChange(uri, null);
+    }
+
+    /**
+     * @return URIs the provider has to notify now, none while a batch collects them
+     */
+    static Uri[] of(Uri... uris) {
+        Set<Uri> pending = sPending.get();
+        if (pending == null) return uris;
+        Collections.addAll(pending, uris);
+        return new Uri[0];
+    }
+}
@@ -8,9 +8,8 @@ import io.github.hazyair.source.Sensor;
 public class SensorsLoader extends CursorLoader {
 
     private SensorsLoader(Context context, int _id) {
-        super(context, HazyairProvider.Sensors.CONTENT_URI, Sensor.keys(),
-                SensorsContract.COLUMN__STATION_ID + "=?",
-                new String[] { String.valueOf(_id) }, HazyairProvider.Sensors.DEFAULT_SORT);
+        super(context, HazyairProvider.Sensors.fromStation(_id), Sensor.keys(), null, null,
+                HazyairProvider.Sensors.DEFAULT_SORT);
     }
 
     public static SensorsLoader newInstanceForAllSensorsFromStation(Context context, int _id) {
@@ -0,0 +1,133 @@
+package io.github.hazyair.gui;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import android.util.DisplayMetrics;
+
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
+
+import java.util.ArrayList;
+
+import androidx.loader.content.AsyncTaskLoader;
+import io.github.hazyair.R;
+import io.github.hazyair.data.HazyairProvider;
+import io.github.hazyair.util.Series;
+
+/**
+ * Builds the chart of a sensor's whole kept history off the main thread from its hourly, daily
+ * and weekly averages, the finest still kept for every part of it. Histories with more points
+ * than the screen is wide in density-independent pixels are downsampled to that many, finer
+ * steps are not told apart on a line chart. The result is kept until the sensor's data changes,
+ * so the chart is rebound without touching the database or the points again. A cancelled load
+ * aborts its queries and stops before downsampling.
+ */
+class ChartLoader extends AsyncTaskLoader<LineData> {
+
+    private final Uri mUri;
+    private final int mId;
+    private final String mLabel;
+    private final int mThreshold;
+    private final ForceLoadContentObserver mObserver = new ForceLoadContentObserver();
+    private boolean mObserving;
+    private LineData mData;
+    private CancellationSignal mCancellationSignal;
+
+    private ChartLoader(Context context, int _station_id, int _id, String label) {
+        super(context);
+        mUri = HazyairProvider.Data.fromSensor(_station_id, _id);
+        mId = _id;
+        mLabel = label;
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        mThreshold = (int) (metrics.widthPixels / metrics.density);
+    }
+
+    static ChartLoader newInstanceForSensor(Context context, int _station_id, int _id,
+                                            String label) {
+        return new ChartLoader(context, _station_id, _id, label);
+    }
+
+    @Override
+    public LineData loadInBackground() {
+        synchronized (this) {
+            if (isLoadInBackgroundCanceled()) throw new OperationCanceledException();
+            mCancellationSignal = new CancellationSignal();
+        }
+        Cursor cursor;
+        try {
+            cursor = HazyairProvider.Aggregates.select(getContext(), mId,
+                    System.currentTimeMillis(), mCancellationSignal);
+        } finally {
+            synchronized (this) {
+                mCancellationSignal = null;
+            }
+        }
+        if (cursor == null) return null;
+        int length = cursor.getCount();
+        long[] timestamps = new long[length];
+        double[] values = new double[length];
+        try {
+            for (int i = 0; i < length && cursor.moveToPosition(i); i++) {
+                timestamps[i] = cursor.getLong(0);
+                values[i] = cursor.getDouble(1);
+            }
+        } finally {
+            cursor.close();
+        }
+        if (length == 0) return null;
+        if (isLoadInBackgroundCanceled()) throw new OperationCanceledException();
+        int[] points = Series.lttb(timestamps, values, length, mThreshold);
+        ArrayList<Entry> entries = new ArrayList<>(points.length);
+        for (int point : points) entries.add(new Entry(timestamps[point], (float) values[point]));
+        LineDataSet lineDataSet = new LineDataSet(entries, mLabel);
+        lineDataSet.setDrawCircles(false);
+        lineDataSet.setDrawValues(false);
+        lineDataSet.setColor(getContext().getColor(R.color.accent));
+        return new LineData(lineDataSet);
+    }
+
+    @Override
+    public void cancelLoadInBackground() {
+        super.cancelLoadInBackground();
+        synchronized (this) {
+            if (mCancellationSignal != null) mCancellationSignal.cancel();
+        }
+    }
+
+    @Override
+    public void deliverResult(LineData data) {
+        if (isReset()) return;
+        mData = data;
+        if (isStarted()) super.deliverResult(data);
+    }
+
+    @Override
+    protected void onStartLoading() {
+        if (!mObserving) {
+            getContext().getContentResolver().registerContentObserver(mUri, true, mObserver);
+            mObserving = true;
+        }
+        if (mData != null) deliverResult(mData);
+        if (takeContentChanged() || mData == null) forceLoad();
+    }
+
+    @Override
+    protected void onStopLoading() {
+        cancelLoad();
+    }
+
+    @Override
+    protected void onReset() {
+        super.onReset();
+        onStopLoading();
+        mData = null;
+        if (mObserving) {
+            getContext().getContentResolver().unregisterContentObserver(mObserver);
+            mObserving = false;
+        }
+    }
+}
@@ -6,8 +6,6 @@ import android.os.StrictMode;
 import com.facebook.stetho.Stetho;
 import com.squareup.leakcanary.LeakCanary;
 
-import net.danlew.android.joda.JodaTimeAndroid;
-
 import io.github.hazyair.BuildConfig;
 
 @SuppressWarnings("WeakerAccess")
@@ -30,6 +28,5 @@ public class HazyairApplication extends Application {
                     .penaltyDeath()
                     .build());
         }
-        JodaTimeAndroid.init(this);
     }
 }
@@ -50,10 +50,13 @@ import io.fabric.sdk.android.Fabric;
 import io.github.hazyair.R;
 import io.github.hazyair.data.StationsContract;
 import io.github.hazyair.data.StationsLoader;
+import io.github.hazyair.service.MaintenanceService;
 import io.github.hazyair.service.NotificationService;
 import io.github.hazyair.source.Station;
 import android.support.v4.app.DatabaseService;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import io.github.hazyair.service.DatabaseSyncService;
@@ -189,39 +192,54 @@ public class MainActivity extends AppCompatActivity implements
         }
     }
 
-    class StationListAdapter extends RecyclerView.Adapter<ViewHolder> {
+    class StationListAdapter extends StationRowAdapter<ViewHolder> {
 
         private Cursor mCursor;
+        private List<Bundle> mStations = new ArrayList<>();
         private int mCurrentItem = 0;
         private ViewHolder mCurrentViewHolder;
-        private Location mLocation;
-        private boolean mDistance;
+
+        StationListAdapter() {
+            super(false);
+        }
 
         void setCursor(Cursor cursor) {
             mCursor = cursor;
-            if (mCursor != null) notifyDataSetChanged();
+            if (mCursor == null) return;
+            List<Bundle> stations = new ArrayList<>();
+            mCursor.moveToPosition(-1);
+            while (mCursor.moveToNext()) stations.add(Station.toBundleFromCursor(mCursor));
+            mStations = stations;
+            update();
         }
 
         Cursor getCursor() {
             return mCursor;
         }
 
-        void setLocation(Location location) {
-            mLocation = location;
-            notifyDataSetChanged();
-        }
-
-        void setDistance(boolean distance) {
-            mDistance = distance;
-            notifyDataSetChanged();
-        }
-
         void setCurrentItem(int currentItem) {
             mCurrentItem = currentItem;
-            notifyDataSetChanged();
+            update();
         }
 
-        private void selectStation(ViewHolder holder, int position) {
+        @Override
+        Rows rows(boolean distance, Location location) {
+            Context context = getApplicationContext();
+            List<Bundle> stations = mStations;
+            int currentItem = mCurrentItem;
+            return () -> {
+                List<StationRow> rows = new ArrayList<>();
+                for (int i = 0; i < stations.size(); i++) {
+                    Bundle bundle = stations.get(i);
+                    rows.add(StationRow.of(context, 0, i == currentItem ?
+                                    StationRow.STATE_SELECTED : StationRow.STATE_NONE,
+                            new Station(bundle), bundle, distance, location));
+                }
+                return rows;
+            };
+        }
+
+        private void selectStation(ViewHolder holder, int position, Bundle station) {
             if (holder.card == null) return;
             holder.card.setCardBackgroundColor(getColor(R.color.primaryLight));
             if (holder.place == null) return;
@@ -238,9 +256,8 @@ public class MainActivity extends AppCompatActivity implements
             if (width > 0) {
                 layoutParams.width = width;
                 mViewPager.setLayoutParams(layoutParams);
-                mCursor.moveToPosition(position);
                 mViewPager.setCurrentItem(position, false);
-                mSelectedStation = Station.toBundleFromCursor(mCursor);
+                mSelectedStation = station;
                 DatabaseService.selectStation(holder.itemView.getContext(),
                         mSelectedStation);
             } else {
@@ -253,9 +270,8 @@ public class MainActivity extends AppCompatActivity implements
                                 (ConstraintLayout.LayoutParams) mViewPager.getLayoutParams();
                         layoutParams.width = mViewPager.getMeasuredWidth();
                         mViewPager.setLayoutParams(layoutParams);
-                        mCursor.moveToPosition(position);
                         mViewPager.setCurrentItem(position, false);
-                        mSelectedStation = Station.toBundleFromCursor(mCursor);
+                        mSelectedStation = station;
                         DatabaseService.selectStation(holder.itemView.getContext(),
                                 mSelectedStation);
                     }
@@ -290,52 +306,31 @@ public class MainActivity extends AppCompatActivity implements
 
         @Override
         public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-            int layoutPosition = holder.getLayoutPosition();
-            if (mCursor == null || !mCursor.moveToPosition(layoutPosition)) return;
-            Bundle station = Station.toBundleFromCursor(mCursor);
+            StationRow row = getRow(position);
             if (holder.place == null) return;
-            holder.place.setText(String.format("%s %s",
-                    getString(station.getInt(StationsContract.COLUMN_COUNTRY)),
-                    station.getString(StationsContract.COLUMN_LOCALITY)));
+            holder.place.setText(row.place);
             if (holder.address == null) return;
-            holder.address.setText(station.getString(StationsContract.COLUMN_ADDRESS));
+            holder.address.setText(row.address);
             if (holder.station == null) return;
-            holder.station.setText(String.format("%s %s",
-                    getString(R.string.text_station_by),
-                    getString(station.getInt(StationsContract.COLUMN_SOURCE))));
+            holder.station.setText(row.by);
             if (holder.distance != null) {
-                holder.distance.setVisibility(mDistance ? View.VISIBLE : View.GONE);
-                if (mDistance && mLocation != null) {
-                    Location location = new Location(
-                            station.getString(StationsContract.COLUMN_SOURCE));
-                    location.setLongitude(
-                            station.getDouble(StationsContract.COLUMN_LONGITUDE));
-                    location.setLatitude(
-                            station.getDouble(StationsContract.COLUMN_LATITUDE));
-                    holder.distance.setText(String.format("%s %s",
-                            String.valueOf((int) (location.distanceTo(mLocation) / 1000)),
-                            getString(R.string.text_km)));
-                }
+                holder.distance.setVisibility(row.distance == null ? View.GONE : View.VISIBLE);
+                if (row.distance != null) holder.distance.setText(row.distance);
             }
-            if (layoutPosition == mCurrentItem) {
-                selectStation(holder, layoutPosition);
+            if (row.state == StationRow.STATE_SELECTED) {
+                selectStation(holder, position, row.bundle);
                 mCurrentViewHolder = holder;
             } else {
                 deselectStation(holder);
+                if (mCurrentViewHolder == holder) mCurrentViewHolder = null;
             }
             holder.itemView.setOnClickListener((v) -> {
-                if (layoutPosition == mCurrentItem) return;
-                deselectCurrentStation();
-                selectStation(holder, layoutPosition);
-                mCurrentViewHolder = holder;
-                mCurrentItem = layoutPosition;
+                int adapterPosition = holder.getAdapterPosition();
+                if (adapterPosition == RecyclerView.NO_POSITION ||
+                        adapterPosition == mCurrentItem) return;
+                setCurrentItem(adapterPosition);
             });
         }
-
-        @Override
-        public int getItemCount() {
-            return mCursor == null ? 0 : mCursor.getCount();
-        }
     }
 
     // Class members
@@ -556,7 +551,8 @@ public class MainActivity extends AppCompatActivity implements
         mMenu = menu;
         getMenuInflater().inflate(R.menu.menu_main, menu);
         if (mTwoPane) {
-            if (mStationListAdapter != null && mStationListAdapter.getItemCount() > 0) {
+            if (mStationListAdapter != null && mStationListAdapter.getCursor() != null &&
+                    mStationListAdapter.getCursor().getCount() > 0) {
                 addRemoveStationButton();
             }
         } else {
@@ -650,6 +646,7 @@ public class MainActivity extends AppCompatActivity implements
         });
         DatabaseSyncService.schedule(this);
         NotificationService.schedule(this);
+        MaintenanceService.schedule(this);
         if (mTwoPane) requestUpdates();
     }
 
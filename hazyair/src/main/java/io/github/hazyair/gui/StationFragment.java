@@ -10,7 +10,6 @@ import android.database.Cursor;
 import android.graphics.Rect;
 import android.location.Location;
 import android.os.Bundle;
-import android.util.LongSparseArray;
 import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -20,11 +19,9 @@ import android.widget.FrameLayout;
 import android.widget.TextView;
 
 import com.github.mikephil.charting.charts.LineChart;
-import com.github.mikephil.charting.components.Description;
 import com.github.mikephil.charting.components.XAxis;
-import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.formatter.IAxisValueFormatter;
 import com.github.mikephil.charting.data.LineData;
-import com.github.mikephil.charting.data.LineDataSet;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationAvailability;
 import com.google.android.gms.location.LocationCallback;
@@ -40,7 +37,6 @@ import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.MarkerOptions;
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
@@ -55,8 +51,10 @@ import androidx.recyclerview.widget.RecyclerView;
 import butterknife.BindView;
 import butterknife.ButterKnife;
 import io.github.hazyair.R;
+import io.github.hazyair.data.AggregatesContract;
 import io.github.hazyair.data.DataContract;
-import io.github.hazyair.data.DataLoader;
+import io.github.hazyair.data.LatestContract;
+import io.github.hazyair.data.LatestLoader;
 import io.github.hazyair.data.SensorsContract;
 import io.github.hazyair.data.SensorsLoader;
 import io.github.hazyair.data.StationsContract;
@@ -65,9 +63,7 @@ import io.github.hazyair.source.Data;
 import io.github.hazyair.source.Sensor;
 import io.github.hazyair.source.Station;
 import io.github.hazyair.util.LocationCallbackReference;
-import io.github.hazyair.util.Quality;
 import io.github.hazyair.util.Text;
-import io.github.hazyair.util.Time;
 
 @SuppressWarnings("WeakerAccess")
 public class StationFragment extends Fragment implements LoaderManager.LoaderCallbacks<Cursor> {
@@ -75,6 +71,8 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
     // Final definitions
     private static final String PARAM_SENSOR_SELECTED = "io.github.hazyair.PARAM_SENSOR_SELECTED";
     private static final String PARAM_STATION_SELECTED = "io.github.hazyair.PARAM_STATION_SELECTED";
+    private static final int LOADER_SENSORS = 0;
+    private static final int LOADER_LATEST = 1;
 
     // Nested class definitions
     class ViewHolder extends RecyclerView.ViewHolder {
@@ -175,7 +173,16 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
 
         private Cursor mCursor;
         private final SparseArray<Bundle> mData = new SparseArray<>();
-        private final SparseArray<LongSparseArray<Double>> mChart = new SparseArray<>();
+        private final SparseArray<LineData> mChart = new SparseArray<>();
+        private final Date mDate = new Date();
+        private SimpleDateFormat mDateFormat;
+        private SimpleDateFormat mDayFormat;
+        // Charts spanning more than a week are labelled with days only.
+        private final IAxisValueFormatter mAxisValueFormatter = (value, axis) -> {
+            mDate.setTime((long) value);
+            return (axis.mAxisRange > AggregatesContract.RESOLUTION_WEEK ? mDayFormat :
+                    mDateFormat).format(mDate);
+        };
         private Location mLocation;
         private boolean mDistance;
 
@@ -189,6 +196,13 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
             mStation = station;
             mSelectedItem = selectedItem;
             mDistance = distance;
+            setTimeZone();
+        }
+
+        // The format keeps the zone it was created in.
+        void setTimeZone() {
+            mDateFormat = new SimpleDateFormat("E HH:mm", Locale.getDefault());
+            mDayFormat = new SimpleDateFormat("d MMM", Locale.getDefault());
         }
 
         @SuppressWarnings("deprecation")
@@ -197,39 +211,31 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
                 mCursor = null;
                 return;
             }
-            for (int i = 0; i < cursor.getCount(); i++) {
-                cursor.moveToPosition(i);
-                Bundle bundle = Sensor.toBundleFromCursor(cursor);
-                getLoaderManager().initLoader(bundle.getInt(SensorsContract.COLUMN__ID), bundle,
-                        StationFragment.this);
-            }
             if (mSelectedItem != null) {
                 getLoaderManager().initLoader(-mSelectedItem.getInt(SensorsContract.COLUMN__ID),
-                        mSelectedItem, StationFragment.this);
+                        mSelectedItem, mChartCallbacks);
             }
             mCursor = cursor;
             notifyItemRangeChanged(1, getItemCount()-1);
         }
 
         void setData(Cursor cursor) {
-            if (cursor == null || cursor.getCount() == 0) return;
-            cursor.moveToFirst();
-            Bundle bundle = Data.toBundleFromCursor(cursor);
-            mData.put(bundle.getInt(DataContract.COLUMN__SENSOR_ID), bundle);
+            if (cursor == null) return;
+            mData.clear();
+            int score = cursor.getColumnIndex(LatestContract.COLUMN_SCORE);
+            cursor.moveToPosition(-1);
+            while (cursor.moveToNext()) {
+                Bundle bundle = Data.toBundleFromCursor(cursor);
+                if (!cursor.isNull(score))
+                    bundle.putInt(LatestContract.COLUMN_SCORE, cursor.getInt(score));
+                mData.put(bundle.getInt(DataContract.COLUMN__SENSOR_ID), bundle);
+            }
             notifyItemRangeChanged(1, getItemCount()-1);
         }
 
-        void setChart(Cursor cursor) {
-            if (cursor == null || cursor.getCount() == 0) return;
-            LongSparseArray<Double> data = new LongSparseArray<>();
-            Bundle bundle = null;
-            for (int position = 0; position < cursor.getCount(); position++) {
-                cursor.moveToPosition(position);
-                bundle = Data.toBundleFromCursor(cursor);
-                data.put(Time.getTimestamp(bundle.getLong(DataContract.COLUMN_TIMESTAMP)),
-                        bundle.getDouble(DataContract.COLUMN_VALUE));
-            }
-            if (bundle != null) mChart.put(bundle.getInt(DataContract.COLUMN__SENSOR_ID), data);
+        void setChart(int _id, LineData data) {
+            if (data == null) return;
+            mChart.put(_id, data);
             notifyItemRangeChanged(1, getItemCount()-1);
         }
 
@@ -325,16 +331,13 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
                             sensorViewHolder.cardView
                                     .setCardBackgroundColor(context.getColor(android.R.color.white));
                         if (sensorViewHolder.result != null) {
-                            int percent = Quality.normalize(
-                                    sensor.getString(SensorsContract.COLUMN_PARAMETER),
-                                    data.getDouble(DataContract.COLUMN_VALUE));
+                            int percent = data.getInt(LatestContract.COLUMN_SCORE);
                             sensorViewHolder.result.setText(String.format(": %s %s (%s%%)",
                                     String.valueOf(data.getDouble(DataContract.COLUMN_VALUE)),
                                     sensor.getString(SensorsContract.COLUMN_UNIT),
                                     String.valueOf(percent)));
                             if (sensorViewHolder.updated != null) {
-                                long timestamp = Time
-                                        .getTimestamp(data.getLong(DataContract.COLUMN_TIMESTAMP));
+                                long timestamp = data.getLong(DataContract.COLUMN_TIMESTAMP);
                                 long hours = (System.currentTimeMillis() - timestamp) /
                                         TimeUnit.HOURS.toMillis(1);
                                 long minutes = (System.currentTimeMillis() -
@@ -359,29 +362,16 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
                             }
                         }
                     }
-                    LongSparseArray<Double> chart =
-                            mChart.get(sensor.getInt(SensorsContract.COLUMN__ID));
+                    LineData chart = mChart.get(sensor.getInt(SensorsContract.COLUMN__ID));
                     if (chart != null && sensorViewHolder.chart != null) {
-                        ArrayList<Entry> values = new ArrayList<>();
-                        for (int i = 0; i < chart.size(); i++) {
-                            values.add(new Entry(chart.keyAt(i), chart.valueAt(i).floatValue()));
-                        }
                         XAxis xAxis = sensorViewHolder.chart.getXAxis();
                         xAxis.setLabelCount(3, true);
-                        xAxis.setValueFormatter((value, axis) ->
-                                new SimpleDateFormat("E HH:mm",
-                                        Locale.getDefault()).format(new Date((long) value))
-                        );
+                        xAxis.setValueFormatter(mAxisValueFormatter);
                         xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-                        LineDataSet lineDataSet = new LineDataSet(values,
-                                sensor.getString(SensorsContract.COLUMN_PARAMETER));
-                        lineDataSet.setDrawCircles(false);
-                        lineDataSet.setDrawValues(false);
-                        lineDataSet.setColor(context.getColor(R.color.accent));
-                        Description description = new Description();
-                        description.setText(sensor.getString(SensorsContract.COLUMN_UNIT));
-                        sensorViewHolder.chart.setDescription(description);
-                        sensorViewHolder.chart.setData(new LineData(lineDataSet));
+                        sensorViewHolder.chart.getDescription()
+                                .setText(sensor.getString(SensorsContract.COLUMN_UNIT));
+                        if (sensorViewHolder.chart.getData() != chart)
+                            sensorViewHolder.chart.setData(chart);
                     }
                     if (Base.equals(mSelectedItem, sensor))
                         expand(context, sensorViewHolder, sensor);
@@ -465,16 +455,18 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
                     if (sensorViewHolder.chart != null)
                         sensorViewHolder.chart.setVisibility(View.GONE);
                 }
+                cancelChart();
                 mSelectedItem = null;
             } else {
                 for (int i = 0; i < getItemCount(); i++) {
                     collapse(context,
                             (ViewHolder) mRecyclerView.findViewHolderForLayoutPosition(i));
                 }
+                cancelChart();
                 mChart.clear();
                 if (viewHolder instanceof SensorViewHolder)
                     getLoaderManager().initLoader(-bundle.getInt(SensorsContract.COLUMN__ID),
-                            bundle, StationFragment.this);
+                            bundle, mChartCallbacks);
                 expand(context, viewHolder, bundle);
             }
         }
@@ -487,6 +479,13 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
         Bundle getSelectedItem() {
             return mSelectedItem;
         }
+
+        // Drops the chart loader of a sensor being collapsed, aborting a load still in flight.
+        @SuppressWarnings("deprecation")
+        private void cancelChart() {
+            if (mSelectedItem == null || Base.equals(mSelectedItem, mStation)) return;
+            getLoaderManager().destroyLoader(-mSelectedItem.getInt(SensorsContract.COLUMN__ID));
+        }
     }
 
     private SensorsAdapter mSensorsAdapter;
@@ -499,6 +498,28 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
 
     private SupportMapFragment mSupportMapFragment;
 
+    private final LoaderManager.LoaderCallbacks<LineData> mChartCallbacks =
+            new LoaderManager.LoaderCallbacks<LineData>() {
+
+                @NonNull
+                @Override
+                public Loader<LineData> onCreateLoader(int id, @Nullable Bundle args) {
+                    return ChartLoader.newInstanceForSensor(getContext(),
+                            args == null ? 0 : args.getInt(SensorsContract.COLUMN__STATION_ID),
+                            args == null ? 0 : args.getInt(SensorsContract.COLUMN__ID),
+                            args == null ? null : args.getString(SensorsContract.COLUMN_PARAMETER));
+                }
+
+                @Override
+                public void onLoadFinished(@NonNull Loader<LineData> loader, LineData data) {
+                    mSensorsAdapter.setChart(-loader.getId(), data);
+                }
+
+                @Override
+                public void onLoaderReset(@NonNull Loader<LineData> loader) {
+                }
+            };
+
     // ButterKnife
     @BindView(R.id.sensors)
     RecyclerView mRecyclerView;
@@ -509,9 +530,11 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
             String action = intent.getAction();
             if (action == null) return;
             switch (action) {
+                case Intent.ACTION_TIMEZONE_CHANGED:
+                    mSensorsAdapter.setTimeZone();
+                    // fall through
                 case Intent.ACTION_TIME_CHANGED:
                 case Intent.ACTION_TIME_TICK:
-                case Intent.ACTION_TIMEZONE_CHANGED:
                     mSensorsAdapter.notifyItemRangeChanged(1,
                             mSensorsAdapter.getItemCount()-1);
                     break;
@@ -619,7 +642,8 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
             }
         });
 
-        getLoaderManager().initLoader(0, station, this);
+        getLoaderManager().initLoader(LOADER_SENSORS, station, this);
+        getLoaderManager().initLoader(LOADER_LATEST, station, this);
 
         return rootView;
     }
@@ -677,33 +701,28 @@ public class StationFragment extends Fragment implements LoaderManager.LoaderCal
     @NonNull
     @Override
     public Loader<Cursor> onCreateLoader(int id, @Nullable Bundle args) {
-        if (id == 0) {
+        if (id == LOADER_SENSORS) {
             return SensorsLoader.newInstanceForAllSensorsFromStation(getContext(),
                     args == null ? 0 : args.getInt(StationsContract.COLUMN__ID));
-        } else if (id > 0) {
-            return DataLoader.newInstanceForLastDataFromSensor(getContext(),
-                    args == null ? 0 : args.getInt(SensorsContract.COLUMN__ID));
         } else {
-            return DataLoader.newInstanceForAllDataFromSensor(getContext(),
-                    args == null ? 0 : args.getInt(SensorsContract.COLUMN__ID));
+            return LatestLoader.newInstanceForAllSensorsFromStation(getContext(),
+                    args == null ? 0 : args.getInt(StationsContract.COLUMN__ID));
         }
     }
 
     @Override
     public void onLoadFinished(@NonNull Loader<Cursor> loader, Cursor cursor) {
         int id = loader.getId();
-        if (id == 0) {
+        if (id == LOADER_SENSORS) {
             mSensorsAdapter.setCursor(cursor);
-        } else if (id > 0) {
+        } else if (id == LOADER_LATEST) {
             mSensorsAdapter.setData(cursor);
-        } else {
-            mSensorsAdapter.setChart(cursor);
         }
     }
 
     @Override
     public void onLoaderReset(@NonNull Loader<Cursor> loader) {
-        mSensorsAdapter.setCursor(null);
+        if (loader.getId() == LOADER_SENSORS) mSensorsAdapter.setCursor(null);
     }
 
     @Override
@@ -0,0 +1,128 @@
+package io.github.hazyair.gui;
+
+import android.content.Context;
+import android.location.Location;
+import android.os.Bundle;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import io.github.hazyair.R;
+import io.github.hazyair.data.StationsContract;
+import io.github.hazyair.source.Station;
+
+/**
+ * Immutable content of a row in a station list, distance label included. Rows are built off
+ * the main thread and compared by content, so an update rebinds only the rows that changed.
+ */
+final class StationRow {
+
+    static final int STATE_NONE = 0;
+    static final int STATE_SELECTED = 1;
+    static final int STATE_PENDING = 2;
+
+    static final DiffUtil.ItemCallback<StationRow> DIFF = new DiffUtil.ItemCallback<StationRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull StationRow oldItem, @NonNull StationRow newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull StationRow oldItem,
+                                          @NonNull StationRow newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    // Catalogue stations carry no _id, so ids are handed out per station key instead.
+    private static final Map<List<String>, Integer> sIds = new HashMap<>();
+
+    final long id;
+    final int type;
+    final int state;
+    final String place;
+    final String address;
+    final String by;
+    // null when distances are not shown
+    final String distance;
+    final Station station;
+    final Bundle bundle;
+
+    private StationRow(long id, int type, int state, String place, String address, String by,
+                       String distance, Station station, Bundle bundle) {
+        this.id = id;
+        this.type = type;
+        this.state = state;
+        this.place = place;
+        this.address = address;
+        this.by = by;
+        this.distance = distance;
+        this.station = station;
+        this.bundle = bundle;
+    }
+
+    /**
+     * @param location location distances are measured from, null if not known yet
+     */
+    static StationRow of(Context context, int type, int state, Station station, Bundle bundle,
+                         boolean distance, Location location) {
+        String label = null;
+        if (distance) {
+            label = "";
+            if (location != null) {
+                float[] meters = new float[1];
+                Location.distanceBetween(location.getLatitude(), location.getLongitude(),
+                        station.latitude, station.longitude, meters);
+                label = String.format("%s %s", String.valueOf((int) (meters[0] / 1000)),
+                        context.getString(R.string.text_km));
+            }
+        }
+        return new StationRow(id(type, key(station)), type, state,
+                String.format("%s %s", context.getString(station.country), station.locality),
+                station.address, String.format("%s %s",
+                        context.getString(R.string.text_station_by),
+                        context.getString(station.source)), label, station, bundle);
+    }
+
+    static StationRow divider(int type, boolean visible) {
+        return new StationRow(id(type, 0), type, visible ? STATE_SELECTED : STATE_NONE, null,
+                null, null, null, null, null);
+    }
+
+    // Ids of different row types never collide.
+    private static long id(int type, int key) {
+        return ((long) type << 32) | (key & 0xffffffffL);
+    }
+
+    private static int key(Station station) {
+        List<String> key = Arrays.asList(StationsContract.selectionArgs(station));
+        synchronized (sIds) {
+            Integer id = sIds.get(key);
+            if (id == null) {
+                id = sIds.size() + 1;
+                sIds.put(key, id);
+            }
+            return id;
+        }
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) return true;
+        if (!(object instanceof StationRow)) return false;
+        StationRow row = (StationRow) object;
+        return id == row.id && type == row.type && state == row.state &&
+                Objects.equals(place, row.place) && Objects.equals(address, row.address) &&
+                Objects.equals(by, row.by) && Objects.equals(distance, row.distance);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, type, state, place, address, by, distance);
+    }
+}
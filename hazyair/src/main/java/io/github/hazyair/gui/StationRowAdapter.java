@@ -0,0 +1,85 @@
+package io.github.hazyair.gui;
+
+import android.location.Location;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Adapter over {@link StationRow}s. Every change of content, location or distance setting
+ * builds the rows on a background thread, then lets the differ dispatch only the changes.
+ */
+abstract class StationRowAdapter<VH extends RecyclerView.ViewHolder>
+        extends RecyclerView.Adapter<VH> {
+
+    interface Rows {
+        List<StationRow> build();
+    }
+
+    private static final Executor sExecutor = Executors.newSingleThreadExecutor();
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final AsyncListDiffer<StationRow> mDiffer = new AsyncListDiffer<>(this,
+            StationRow.DIFF);
+    private int mGeneration;
+    private Location mLocation;
+    private boolean mDistance;
+
+    StationRowAdapter(boolean distance) {
+        mDistance = distance;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Captures the current content on the main thread; the rows are built from it later on a
+     * background thread.
+     */
+    abstract Rows rows(boolean distance, Location location);
+
+    void update() {
+        int generation = ++mGeneration;
+        Rows rows = rows(mDistance, mLocation);
+        sExecutor.execute(() -> {
+            List<StationRow> list = rows.build();
+            mHandler.post(() -> {
+                if (generation == mGeneration) mDiffer.submitList(list);
+            });
+        });
+    }
+
+    void setLocation(Location location) {
+        mLocation = location;
+        if (mDistance) update();
+    }
+
+    void setDistance(boolean distance) {
+        if (mDistance == distance) return;
+        mDistance = distance;
+        update();
+    }
+
+    StationRow getRow(int position) {
+        return mDiffer.getCurrentList().get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getRow(position).id;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return getRow(position).type;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mDiffer.getCurrentList().size();
+    }
+}
@@ -22,8 +22,6 @@ import android.view.WindowManager;
 import android.widget.TextView;
 import android.net.ConnectivityManager;
 
-import com.annimon.stream.Collectors;
-import com.annimon.stream.Stream;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationAvailability;
 import com.google.android.gms.location.LocationCallback;
@@ -31,7 +29,14 @@ import com.google.android.gms.location.LocationRequest;
 import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -50,11 +55,10 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import butterknife.BindView;
 import butterknife.ButterKnife;
 import io.github.hazyair.R;
+import io.github.hazyair.data.CatalogueLoader;
 import io.github.hazyair.data.HazyairProvider;
 import io.github.hazyair.data.StationsContract;
 import io.github.hazyair.data.StationsLoader;
-import io.github.hazyair.source.iface.StationsCallback;
-import io.github.hazyair.source.Source;
 import io.github.hazyair.source.Station;
 
 import android.support.v4.app.DatabaseService;
@@ -63,7 +67,6 @@ import io.github.hazyair.util.GDPR;
 import io.github.hazyair.util.License;
 import io.github.hazyair.util.LocationCallbackReference;
 import io.github.hazyair.util.Network;
-import io.github.hazyair.util.Text;
 
 import static androidx.recyclerview.widget.ItemTouchHelper.ACTION_STATE_SWIPE;
 import static androidx.recyclerview.widget.ItemTouchHelper.LEFT;
@@ -78,6 +81,8 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
     private final static String PARAM_STATION_LIST_POSITION =
             "io.github.hazyair.PARAM_STATION_LIST_POSITION";
     private final static String PARAM_QUERY_STRING = "io.github.hazyair.PARAM_QUERY_STRING";
+    private final static int LOADER_SELECTED = 0;
+    private final static int LOADER_CATALOGUE = 1;
     private final static String PARAM_ICONIFIED = "io.github.hazyair.PARAM_ICONIFIED";
 
     // Nested classes definitions
@@ -114,50 +119,70 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
         }
     }
 
-    class StationListAdapter extends RecyclerView.Adapter<ViewHolder> {
+    class StationListAdapter extends StationRowAdapter<ViewHolder> {
 
         static final int VIEW_TYPE_SELECTED = 0;
         static final int VIEW_TYPE_DIVIDER = 1;
         static final int VIEW_TYPE_ALL = 2;
 
         private List<Station> mStations;
+        // Keys of the stations being added or removed; rows only read a copy of it.
+        private final Set<List<String>> mPending = new HashSet<>();
+        private List<Bundle> mSelected = new ArrayList<>();
         private Cursor mCursor;
 
-        private boolean mDistance;
-        private Location mLocation;
         private boolean mDivider;
 
         StationListAdapter() {
+            super(false);
         }
 
         @SuppressWarnings("SameParameterValue")
         StationListAdapter(boolean distance, boolean divider) {
-            mDistance = distance;
+            super(distance);
             mDivider = divider;
         }
 
         void setCursor(Cursor cursor) {
             mCursor = cursor;
-            if (mCursor != null) notifyDataSetChanged();
+            if (mCursor == null) return;
+            List<Bundle> selected = new ArrayList<>();
+            mCursor.moveToPosition(-1);
+            while (mCursor.moveToNext()) selected.add(Station.toBundleFromCursor(mCursor));
+            setSelected(selected);
         }
 
         Cursor getCursor() {
             return mCursor;
         }
 
-        void setStations(List<Station> stations) {
-            mStations = stations;
-            notifyDataSetChanged();
+        // Stations already added, shown as rows only when the adapter has the cursor.
+        void setSelected(List<Bundle> selected) {
+            mSelected = selected;
+            update();
         }
 
-        void setDistance(boolean distance) {
-            mDistance = distance;
-            notifyDataSetChanged();
+        List<Bundle> getSelected() {
+            return mSelected;
         }
 
-        void setLocation(Location location) {
-            mLocation = location;
-            notifyDataSetChanged();
+        int getSelectedCount() {
+            int count = 0;
+            while (count < getItemCount() &&
+                    getItemViewType(count) == VIEW_TYPE_SELECTED) count++;
+            return count;
+        }
+
+        void setStations(List<Station> stations) {
+            mStations = stations;
+            update();
+        }
+
+        void setPending(String[] selectionArgs, boolean pending) {
+            List<String> key = Arrays.asList(selectionArgs);
+            if (pending) mPending.add(key);
+            else mPending.remove(key);
+            update();
         }
 
         List<Station> getStations() {
@@ -165,19 +190,42 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
         }
 
         @Override
-        public int getItemViewType(int position) {
-            int count = (mCursor == null ? 0 : mCursor.getCount());
-            if (position < count) {
-                return VIEW_TYPE_SELECTED;
-            }
-            int size = (mStations == null ? 0 : mStations.size());
-            if (mDivider && position == count) {
-                return VIEW_TYPE_DIVIDER;
-            }
-            if (position - count - (mDivider ? 1 : 0) < size) {
-                return VIEW_TYPE_ALL;
-            }
-            return -1;
+        Rows rows(boolean distance, Location location) {
+            Context context = getApplicationContext();
+            List<Bundle> selected = mCursor == null ? new ArrayList<>() : mSelected;
+            List<Bundle> keys = mSelected;
+            List<Station> stations = mStations == null ? new ArrayList<>() : mStations;
+            boolean divider = mDivider;
+            Set<List<String>> pending = new HashSet<>(mPending);
+            return () -> {
+                List<StationRow> rows = new ArrayList<>();
+                for (Bundle bundle : selected) {
+                    rows.add(StationRow.of(context, VIEW_TYPE_SELECTED, StationRow.STATE_SELECTED,
+                            new Station(bundle), bundle, distance, location));
+                }
+                if (divider) {
+                    rows.add(StationRow.divider(VIEW_TYPE_DIVIDER,
+                            selected.size() > 0 && stations.size() > 0));
+                }
+                Set<List<String>> added = new HashSet<>();
+                for (Bundle bundle : keys) {
+                    added.add(Arrays.asList(StationsContract.selectionArgs(new Station(bundle))));
+                }
+                List<Station> listed = distance && location != null ?
+                        nearestFirst(context, stations, location) : stations;
+                for (Station station : listed) {
+                    List<String> key = Arrays.asList(StationsContract.selectionArgs(station));
+                    int state = StationRow.STATE_NONE;
+                    if (pending.contains(key)) {
+                        state = StationRow.STATE_PENDING;
+                    } else if (added.contains(key)) {
+                        state = StationRow.STATE_SELECTED;
+                    }
+                    rows.add(StationRow.of(context, VIEW_TYPE_ALL, state, station, null, distance,
+                            location));
+                }
+                return rows;
+            };
         }
 
         @NonNull
@@ -191,128 +239,63 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
 
         @Override
         public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-            int viewType = holder.viewType;
-            switch (viewType) {
-                case VIEW_TYPE_SELECTED: {
-                    if (mCursor == null || !mCursor.moveToPosition(holder.getLayoutPosition()))
-                        break;
-                    Bundle station = Station.toBundleFromCursor(mCursor);
-                    if (holder.place == null) return;
-                    holder.place.setText(String.format("%s %s",
-                            getString(station.getInt(StationsContract.COLUMN_COUNTRY)),
-                            station.getString(StationsContract.COLUMN_LOCALITY)));
-                    if (holder.address == null) return;
-                    holder.address.setText(station.getString(StationsContract.COLUMN_ADDRESS));
-                    if (holder.station == null) return;
-                    holder.station.setText(String.format("%s %s",
-                            getString(R.string.text_station_by),
-                            getString(station.getInt(StationsContract.COLUMN_SOURCE))));
-                    if (holder.distance == null) return;
-                    holder.distance.setVisibility(mDistance ? View.VISIBLE : View.GONE);
-                    Location location =
-                            new Location(getString(station.getInt(StationsContract.COLUMN_SOURCE)));
-                    location.setLongitude(station.getDouble(StationsContract.COLUMN_LONGITUDE));
-                    location.setLatitude(station.getDouble(StationsContract.COLUMN_LATITUDE));
-                    if (mDistance && mLocation != null)
-                        holder.distance.setText(String.format("%s %s",
-                                String.valueOf((int) (location.distanceTo(mLocation) / 1000)),
-                                getString(R.string.text_km)));
-                    holder._id = station.getInt(StationsContract.COLUMN__ID);
-                    if (holder.card == null) return;
-                    holder.card.setCardBackgroundColor(getColor(R.color.accent));
-                    holder.place.setTextColor(getColor(R.color.textLighter));
-                    holder.address.setTextColor(getColor(R.color.textLight));
-                    holder.station.setTextColor(getColor(R.color.textLight));
-                    holder.distance.setTextColor(getColor(R.color.textLight));
-                    holder.itemView.setOnClickListener((v) -> {
-                        Intent intent = new Intent(StationsActivity.this,
-                                MainActivity.class);
-                        intent.putExtra(MainActivity.PARAM_STATION, station);
-                        NavUtils.navigateUpTo(StationsActivity.this, intent);
-                    });
-
-                }
-                break;
-                case VIEW_TYPE_DIVIDER: {
-                    int count = (mCursor == null ? 0 : mCursor.getCount());
-                    int size = (mStations == null ? 0 : mStations.size());
-                    if (count > 0 && size > 0) {
-                        holder.itemView.setVisibility(View.VISIBLE);
-                    } else {
-                        holder.itemView.setVisibility(View.GONE);
-                    }
-                }
-                break;
-                case VIEW_TYPE_ALL: {
-                    if (holder.card == null) break;
-                    int layoutPosition = holder.getLayoutPosition() -
-                            (mCursor == null ? 0 : mCursor.getCount()) - (mDivider ? 1 : 0);
-                    Station station = mStations.get(layoutPosition);
-                    if (holder.place == null) break;
-                    holder.place.setText(String.format("%s %s",
-                            getString(station.country), station.locality));
-                    if (holder.address == null) break;
-                    holder.address.setText(station.address);
-                    if (holder.station == null) break;
-                    holder.station.setText(String.format("%s %s",
-                            getString(R.string.text_station_by), getString(station.source)));
-                    if (holder.distance == null) break;
-                    holder.distance.setVisibility(mDistance ? View.VISIBLE : View.GONE);
-                    Location location = new Location(getString(station.source));
-                    location.setLongitude(station.longitude);
-                    location.setLatitude(station.latitude);
-                    if (mDistance && mLocation != null)
-                        holder.distance.setText(String.format("%s %s",
-                                String.valueOf((int) (location.distanceTo(mLocation) / 1000)),
-                                getString(R.string.text_km)));
-                    if (station._status) {
-                        holder.card.setCardBackgroundColor(getColor(R.color.accent));
-                        holder.place.setTextColor(getColor(R.color.textLighter));
-                        holder.address.setTextColor(getColor(R.color.textLight));
-                        holder.station.setTextColor(getColor(R.color.textLight));
-                        holder.distance.setTextColor(getColor(R.color.textLight));
+            StationRow row = getRow(position);
+            if (row.type == VIEW_TYPE_DIVIDER) {
+                holder.itemView.setVisibility(row.state == StationRow.STATE_SELECTED ?
+                        View.VISIBLE : View.GONE);
+                return;
+            }
+            if (holder.card == null || holder.place == null || holder.address == null ||
+                    holder.station == null || holder.distance == null) return;
+            holder.place.setText(row.place);
+            holder.address.setText(row.address);
+            holder.station.setText(row.by);
+            holder.distance.setVisibility(row.distance == null ? View.GONE : View.VISIBLE);
+            if (row.distance != null) holder.distance.setText(row.distance);
+            holder._id = row.station._id;
+            if (row.type == VIEW_TYPE_SELECTED || row.state == StationRow.STATE_PENDING) {
+                holder.card.setCardBackgroundColor(getColor(R.color.accent));
+                holder.place.setTextColor(getColor(R.color.textLighter));
+                holder.address.setTextColor(getColor(R.color.textLight));
+                holder.station.setTextColor(getColor(R.color.textLight));
+                holder.distance.setTextColor(getColor(R.color.textLight));
+            } else if (row.state == StationRow.STATE_SELECTED) {
+                holder.card.setCardBackgroundColor(getColor(R.color.primaryLight));
+                holder.place.setTextColor(getColor(R.color.textLighter));
+                holder.address.setTextColor(getColor(R.color.textLight));
+                holder.station.setTextColor(getColor(R.color.textLight));
+                holder.distance.setTextColor(getColor(R.color.textLight));
+            } else {
+                holder.card.setCardBackgroundColor(getColor(android.R.color.white));
+                holder.place.setTextColor(getColor(R.color.textDarker));
+                holder.address.setTextColor(getColor(R.color.textDark));
+                holder.station.setTextColor(getColor(R.color.textDark));
+                holder.distance.setTextColor(getColor(R.color.textDark));
+            }
+            if (row.type == VIEW_TYPE_SELECTED) {
+                holder.itemView.setOnClickListener((v) -> {
+                    Intent intent = new Intent(StationsActivity.this,
+                            MainActivity.class);
+                    intent.putExtra(MainActivity.PARAM_STATION, row.bundle);
+                    NavUtils.navigateUpTo(StationsActivity.this, intent);
+                });
+            } else if (row.state == StationRow.STATE_PENDING) {
+                holder.itemView.setOnClickListener(null);
+            } else {
+                holder.itemView.setOnClickListener((v) -> {
+                    if (Network.isAvailable(v.getContext())) {
+                        String[] key = StationsContract.selectionArgs(row.station);
+                        mSwipeRefreshLayout.setRefreshing(true);
+                        setEnabled(false);
+                        setPending(key, true);
+                        DatabaseService.insertOrDelete(StationsActivity.this, key,
+                                row.station);
                     } else {
-                        if (HazyairProvider.Stations.selected(StationsActivity.this,
-                                station)) {
-                            holder.card.setCardBackgroundColor(getColor(R.color.primaryLight));
-                            holder.place.setTextColor(getColor(R.color.textLighter));
-                            holder.address.setTextColor(getColor(R.color.textLight));
-                            holder.station.setTextColor(getColor(R.color.textLight));
-                            holder.distance.setTextColor(getColor(R.color.textLight));
-                        } else {
-                            holder.card.setCardBackgroundColor(getColor(android.R.color.white));
-                            holder.place.setTextColor(getColor(R.color.textDarker));
-                            holder.address.setTextColor(getColor(R.color.textDark));
-                            holder.station.setTextColor(getColor(R.color.textDark));
-                            holder.distance.setTextColor(getColor(R.color.textDark));
-                        }
-                        holder.itemView.setOnClickListener((v) -> {
-                            if (Network.isAvailable(v.getContext())) {
-                                mSwipeRefreshLayout.setRefreshing(true);
-                                setEnabled(false);
-                                station._status = true;
-                                holder.card.setCardBackgroundColor(getColor(R.color.accent));
-                                holder.place.setTextColor(getColor(R.color.textLighter));
-                                holder.address.setTextColor(getColor(R.color.textLight));
-                                holder.station.setTextColor(getColor(R.color.textLight));
-                                holder.distance.setTextColor(getColor(R.color.textLight));
-                                DatabaseService.insertOrDelete(StationsActivity.this,
-                                        layoutPosition, station);
-                            } else {
-                                Network.showWarning(v.getContext());
-                            }
-                        });
+                        Network.showWarning(v.getContext());
                     }
-                }
-                break;
+                });
             }
         }
-
-        @Override
-        public int getItemCount() {
-            return (mCursor == null ? 0 : mCursor.getCount()) + (mDivider ? 1 : 0) +
-                    (mStations == null ? 0 : mStations.size());
-        }
     }
 
     class SwipeController extends ItemTouchHelper.Callback {
@@ -391,13 +374,14 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
             }
             if (itemCount > 0) {
                 int padding = getResources().getDimensionPixelSize(R.dimen.edge);
+                int selected = mStationListAdapter.getSelectedCount();
                 if (((mStationListAdapter.getCursor() != null &&
                         mStationListAdapter.getStations() != null &&
-                        itemPosition == mStationListAdapter.getCursor().getCount() - 1) ||
+                        itemPosition == selected - 1) ||
                         itemPosition == itemCount - 1)) {
                     outRect.set(0, 0, padding, padding);
                 } else if (mStationListAdapter.getCursor() == null ||
-                        itemPosition != mStationListAdapter.getCursor().getCount()) {
+                        itemPosition != selected) {
                     outRect.set(0, 0, padding, 0);
                 }
 
@@ -449,40 +433,36 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
                     mSwipeRefreshLayout.setRefreshing(true);
                     break;
                 case DatabaseService.ACTION_UPDATED:
-                    int position = intent.getIntExtra(DatabaseService.PARAM_POSITION,
-                            -1);
-                    if (position == -1) {
+                    String[] key = intent.getStringArrayExtra(DatabaseService.PARAM_KEY);
+                    if (key == null) {
                         if (mTwoPane) {
-                            mAdapter.notifyDataSetChanged();
+                            mAdapter.update();
                         } else {
-                            mStationListAdapter.notifyDataSetChanged();
+                            mStationListAdapter.update();
                         }
                     } else {
-                        List<Station> stations;
                         if (mTwoPane) {
-                            stations = mAdapter.getStations();
-                            if (stations != null && stations.size() > 0)
-                                stations.get(position)._status = false;
-                            mAdapter.notifyDataSetChanged();
-                            setEnabled(true);
+                            mAdapter.setPending(key, false);
                         } else {
-                            stations = mStationListAdapter.getStations();
-                            if (stations != null && stations.size() > 0)
-                                stations.get(position)._status = false;
-                            mStationListAdapter.notifyDataSetChanged();
-                            setEnabled(true);
+                            mStationListAdapter.setPending(key, false);
                         }
+                        setEnabled(true);
                     }
                     mSwipeRefreshLayout.setRefreshing(false);
+                    setEnabled(true);
                     String message = intent.getStringExtra(DatabaseService.PARAM_MESSAGE);
                     if (message != null) {
                         DatabaseService.showWarning(context, message);
                     }
                     break;
+                case DatabaseService.ACTION_CATALOGUED:
+                    mSwipeRefreshLayout.setRefreshing(false);
+                    setEnabled(true);
+                    break;
                 case ConnectivityManager.CONNECTIVITY_ACTION:
                     if (Network.isAvailable(StationsActivity.this)) {
                         mSwipeRefreshLayout.setRefreshing(true);
-                        getStations(true);
+                        refresh(false);
                     } else {
                         Network.showWarning(StationsActivity.this);
                     }
@@ -491,6 +471,31 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
         }
     };
 
+    private final LoaderManager.LoaderCallbacks<Cursor> mCatalogueCallbacks =
+            new LoaderManager.LoaderCallbacks<Cursor>() {
+                @NonNull
+                @Override
+                public Loader<Cursor> onCreateLoader(int id, Bundle args) {
+                    return CatalogueLoader.newInstanceForQuery(StationsActivity.this,
+                            args == null ? null : args.getString(PARAM_QUERY_STRING));
+                }
+
+                @Override
+                public void onLoadFinished(@NonNull Loader<Cursor> loader, Cursor data) {
+                    List<Station> stations = new ArrayList<>();
+                    if (data != null) {
+                        data.moveToPosition(-1);
+                        while (data.moveToNext()) stations.add(new Station(data));
+                    }
+                    setStations(stations);
+                }
+
+                @Override
+                public void onLoaderReset(@NonNull Loader<Cursor> loader) {
+                    setStations(null);
+                }
+            };
+
     private StationListAdapter mStationListAdapter;
 
     private StationListAdapter mAdapter;
@@ -513,7 +518,7 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
 
     private boolean mIconified = true;
 
-    private List<Station> mStations;
+    private boolean mScroll = true;
 
     // ButterKnife
     @BindView(R.id.swipe)
@@ -543,54 +548,65 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
         }
     }
 
-    private void getStations(boolean scroll) {
+    private void refresh(boolean force) {
         setEnabled(false);
-        Source.with(StationsActivity.this).load(Source.Type.GIOS).into(new StationsCallback() {
-            @Override
-            public boolean isAlive() {
-                return true;
-            }
+        DatabaseService.catalogue(this, force);
+    }
 
-            @Override
-            public void onSuccess(List<Station> stations) {
-                if (mTwoPane) {
-                    if (mAdapter != null) mAdapter.setStations(stations);
-                    if (scroll && mAllStations != null) {
-                        RecyclerView.LayoutManager layoutManager
-                                = mAllStations.getLayoutManager();
-                        if (layoutManager instanceof GridLayoutManager) {
-                            ((GridLayoutManager) layoutManager)
-                                    .scrollToPositionWithOffset(mAllStationsPosition,
-                                            0);
-                        }
-                    }
-                } else {
-                    if (mStationListAdapter != null) mStationListAdapter.setStations(stations);
-                }
-                if (scroll && mStationList != null) {
-                    RecyclerView.LayoutManager layoutManager
-                            = mStationList.getLayoutManager();
-                    if (layoutManager instanceof LinearLayoutManager) {
-                        ((LinearLayoutManager) layoutManager)
-                                .scrollToPositionWithOffset(mStationListPosition,
-                                        0);
-                    }
-                }
-                if (!mIconified) {
-                    mStations = stations;
-                    if (mTwoPane) query(mAdapter, mQueryString);
-                    else query(mStationListAdapter, mQueryString);
+    private void setStations(List<Station> stations) {
+        if (mTwoPane) {
+            if (mAdapter != null) mAdapter.setStations(stations);
+            if (mScroll && mAllStations != null) {
+                RecyclerView.LayoutManager layoutManager
+                        = mAllStations.getLayoutManager();
+                if (layoutManager instanceof GridLayoutManager) {
+                    ((GridLayoutManager) layoutManager)
+                            .scrollToPositionWithOffset(mAllStationsPosition,
+                                    0);
                 }
-                if (mSwipeRefreshLayout != null) mSwipeRefreshLayout.setRefreshing(false);
-                setEnabled(true);
             }
-
-            @Override
-            public void onError() {
-                mSwipeRefreshLayout.setRefreshing(false);
-                setEnabled(true);
+        } else {
+            if (mStationListAdapter != null) mStationListAdapter.setStations(stations);
+        }
+        if (mScroll && mStationList != null) {
+            RecyclerView.LayoutManager layoutManager
+                    = mStationList.getLayoutManager();
+            if (layoutManager instanceof LinearLayoutManager) {
+                ((LinearLayoutManager) layoutManager)
+                        .scrollToPositionWithOffset(mStationListPosition,
+                                0);
             }
-        });
+        }
+        if (stations != null && stations.size() > 0) mScroll = false;
+    }
+
+    // The catalogue's spatial index orders the stations, stations it does not know yet go last.
+    private static List<Station> nearestFirst(Context context, List<Station> stations,
+                                              Location location) {
+        List<Station> nearest = HazyairProvider.Catalogue.nearest(context,
+                location.getLatitude(), location.getLongitude(), Integer.MAX_VALUE);
+        Map<List<String>, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < nearest.size(); i++) {
+            ranks.put(Arrays.asList(StationsContract.selectionArgs(nearest.get(i))), i);
+        }
+        int[] rank = new int[stations.size()];
+        List<Integer> order = new ArrayList<>(rank.length);
+        for (int i = 0; i < rank.length; i++) {
+            Integer value = ranks.get(
+                    Arrays.asList(StationsContract.selectionArgs(stations.get(i))));
+            rank[i] = value == null ? Integer.MAX_VALUE : value;
+            order.add(i);
+        }
+        Collections.sort(order, (a, b) -> Integer.compare(rank[a], rank[b]));
+        List<Station> result = new ArrayList<>(rank.length);
+        for (int i : order) result.add(stations.get(i));
+        return result;
+    }
+
+    private static Bundle query(String query) {
+        Bundle args = new Bundle();
+        args.putString(PARAM_QUERY_STRING, query);
+        return args;
     }
 
     @SuppressWarnings("deprecation")
@@ -667,7 +683,7 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
 
         mSwipeRefreshLayout.setOnRefreshListener(() -> {
             if (Network.isAvailable(StationsActivity.this)) {
-                getStations(false);
+                refresh(true);
             } else {
                 mSwipeRefreshLayout.setRefreshing(false);
                 Network.showWarning(StationsActivity.this);
@@ -679,7 +695,9 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
         SwipeController swipeController = new SwipeController();
         ItemTouchHelper itemTouchhelper = new ItemTouchHelper(swipeController);
         itemTouchhelper.attachToRecyclerView(mStationList);
-        getSupportLoaderManager().initLoader(0, null,
+        getSupportLoaderManager().initLoader(LOADER_CATALOGUE,
+                query(mIconified ? null : mQueryString), mCatalogueCallbacks);
+        getSupportLoaderManager().initLoader(LOADER_SELECTED, null,
                 new LoaderManager.LoaderCallbacks<Cursor>() {
                     @NonNull
                     @Override
@@ -691,6 +709,8 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
                     @Override
                     public void onLoadFinished(@NonNull Loader<Cursor> loader, Cursor data) {
                         mStationListAdapter.setCursor(data);
+                        if (mTwoPane && data != null)
+                            mAdapter.setSelected(mStationListAdapter.getSelected());
                     }
 
                     @Override
@@ -703,6 +723,7 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
 
     @Override
     protected void onDestroy() {
+        if (isFinishing()) DatabaseService.cancel(this);
         mSearchView = null;
         mLocationCallback = null;
         mLocationRequest = null;
@@ -720,18 +741,6 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
         super.onDestroy();
     }
 
-    private void query(StationListAdapter stationListAdapter, String newText) {
-        if (stationListAdapter == null) return;
-        if (mStations == null) mStations = stationListAdapter.getStations();
-        if (mStations == null || mStations.size() == 0) return;
-        stationListAdapter.setStations(Stream.of(mStations)
-                .filter(p -> Text.contains(p.locality, newText) ||
-                        Text.contains(p.address, newText) ||
-                        Text.contains(getString(p.country), newText))
-                .collect(Collectors.toList()));
-    }
-
-
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_stations, menu);
@@ -796,6 +805,7 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
         IntentFilter intentFilter = new IntentFilter();
         intentFilter.addAction(DatabaseService.ACTION_UPDATING);
         intentFilter.addAction(DatabaseService.ACTION_UPDATED);
+        intentFilter.addAction(DatabaseService.ACTION_CATALOGUED);
         intentFilter.addAction(ConnectivityManager.CONNECTIVITY_ACTION);
         registerReceiver(mBroadcastReceiver, intentFilter);
     }
@@ -866,10 +876,9 @@ public class StationsActivity extends AppCompatActivity implements SearchView.On
 
     @Override
     public boolean onQueryTextChange(String newText) {
-        // TODO: Create normalized keywords on async thread
-        if (mTwoPane) query(mAdapter, newText);
-        else query(mStationListAdapter, newText);
         mQueryString = newText;
+        getSupportLoaderManager().restartLoader(LOADER_CATALOGUE, query(newText),
+                mCatalogueCallbacks);
         return false;
     }
 
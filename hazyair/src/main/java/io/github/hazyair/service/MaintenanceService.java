@@ -0,0 +1,60 @@
+package io.github.hazyair.service;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.hazyair.data.HazyairProvider;
+import io.github.hazyair.data.Maintenance;
+
+public class MaintenanceService extends JobService {
+    private static final String TAG = "MaintenanceService";
+    private static final int JOB_ID = 0xC0FFEE;
+
+    public static void schedule(Context context) {
+        JobScheduler jobScheduler = context.getSystemService(JobScheduler.class);
+        if (jobScheduler == null) return;
+        // Scheduling again would restart the period, so a pending job is left alone.
+        for (JobInfo jobInfo : jobScheduler.getAllPendingJobs()) {
+            if (jobInfo.getId() == JOB_ID) return;
+        }
+        jobScheduler.schedule(new JobInfo.Builder(JOB_ID,
+                new ComponentName(context, MaintenanceService.class))
+                .setPeriodic(TimeUnit.DAYS.toMillis(1))
+                .setRequiresDeviceIdle(true)
+                .setRequiresCharging(true)
+                .setPersisted(true)
+                .build());
+    }
+
+    private Thread mThread;
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        // The provider lives in this process, so maintenance runs on this thread and stops
+        // before its next step once the thread is interrupted.
+        mThread = new Thread(() -> {
+            Maintenance.Report report = HazyairProvider.maintain(this);
+            if (Thread.currentThread().isInterrupted()) return;
+            if (report != null) Log.i(TAG, report.toString());
+            jobFinished(params, report == null);
+        });
+        mThread.start();
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        if (mThread != null) {
+            mThread.interrupt();
+            mThread = null;
+        }
+        return true;
+    }
+}
@@ -23,7 +23,6 @@ import io.github.hazyair.source.Info;
 import io.github.hazyair.util.Config;
 import io.github.hazyair.util.Preference;
 import io.github.hazyair.util.Quality;
-import io.github.hazyair.util.Time;
 
 import static android.app.job.JobScheduler.RESULT_SUCCESS;
 
@@ -80,7 +79,7 @@ public class NotificationService extends JobService {
             String parameter = info.sensors.get(i).parameter;
             Data data = info.data.get(i);
             int percent = Quality.normalize(parameter, data.value);
-            if (timestamp - Time.getTimestamp(data.timestamp) < TimeUnit.HOURS.toMillis(2)
+            if (timestamp - data.timestamp < TimeUnit.HOURS.toMillis(2)
                     && percent > 100) {
                 stringBuilder.append(parameter).append(": ").append(percent).append("%")
                         .append(", ");
@@ -0,0 +1,70 @@
+package io.github.hazyair.source;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide counters of how {@link Source} requests were served.
+ */
+public final class CacheStatistics {
+
+    private static final AtomicLong mHits = new AtomicLong();
+    private static final AtomicLong mMisses = new AtomicLong();
+    private static final AtomicLong mRevalidations = new AtomicLong();
+    private static final AtomicLong mBytesSaved = new AtomicLong();
+    private static final AtomicLong mBytesDownloaded = new AtomicLong();
+
+    private CacheStatistics() {}
+
+    static void hit(int bytes) {
+        mHits.incrementAndGet();
+        mBytesSaved.addAndGet(bytes);
+    }
+
+    static void revalidation(int bytes) {
+        mRevalidations.incrementAndGet();
+        mBytesSaved.addAndGet(bytes);
+    }
+
+    static void miss(int bytes) {
+        mMisses.incrementAndGet();
+        mBytesDownloaded.addAndGet(bytes);
+    }
+
+    // Responses served from a fresh cache entry without touching the network.
+    public static long hits() {
+        return mHits.get();
+    }
+
+    // Responses downloaded in full.
+    public static long misses() {
+        return mMisses.get();
+    }
+
+    // Stale entries confirmed by the server with 304 Not Modified.
+    public static long revalidations() {
+        return mRevalidations.get();
+    }
+
+    public static long bytesSaved() {
+        return mBytesSaved.get();
+    }
+
+    public static long bytesDownloaded() {
+        return mBytesDownloaded.get();
+    }
+
+    public static void reset() {
+        mHits.set(0);
+        mMisses.set(0);
+        mRevalidations.set(0);
+        mBytesSaved.set(0);
+        mBytesDownloaded.set(0);
+    }
+
+    public static String summary() {
+        return String.format(Locale.US,
+                "hits=%d misses=%d revalidations=%d saved=%dB downloaded=%dB", hits(), misses(),
+                revalidations(), bytesSaved(), bytesDownloaded());
+    }
+}
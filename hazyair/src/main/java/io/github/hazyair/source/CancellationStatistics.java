@@ -0,0 +1,61 @@
+package io.github.hazyair.source;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide counters of the work cancelled {@link Source} requests did not do.
+ */
+public final class CancellationStatistics {
+
+    private static final AtomicLong mUnsent = new AtomicLong();
+    private static final AtomicLong mUnparsed = new AtomicLong();
+    private static final AtomicLong mBytesUnparsed = new AtomicLong();
+    private static final AtomicLong mUndelivered = new AtomicLong();
+
+    private CancellationStatistics() {}
+
+    static void unsent() {
+        mUnsent.incrementAndGet();
+    }
+
+    static void unparsed(int bytes) {
+        mUnparsed.incrementAndGet();
+        mBytesUnparsed.addAndGet(bytes);
+    }
+
+    static void undelivered() {
+        mUndelivered.incrementAndGet();
+    }
+
+    // Requests cancelled before their response arrived, so not downloaded or not in full.
+    public static long unsentRequests() {
+        return mUnsent.get();
+    }
+
+    // Responses which were not parsed or whose parsing was aborted.
+    public static long unparsedResponses() {
+        return mUnparsed.get();
+    }
+
+    public static long bytesUnparsed() {
+        return mBytesUnparsed.get();
+    }
+
+    // Parsed results dropped because their callback was no longer alive.
+    public static long undeliveredResults() {
+        return mUndelivered.get();
+    }
+
+    public static void reset() {
+        mUnsent.set(0);
+        mUnparsed.set(0);
+        mBytesUnparsed.set(0);
+        mUndelivered.set(0);
+    }
+
+    public static String summary() {
+        return String.format(Locale.US, "unsent=%d unparsed=%d (%dB) undelivered=%d",
+                unsentRequests(), unparsedResponses(), bytesUnparsed(), undeliveredResults());
+    }
+}
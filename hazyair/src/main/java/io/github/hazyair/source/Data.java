@@ -1,11 +1,15 @@
 package io.github.hazyair.source;
 
+import android.content.ContentValues;
 import android.database.Cursor;
 import android.os.Bundle;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import io.github.hazyair.mapper.Mapper;
+
 @SuppressWarnings("WeakerAccess")
+@Mapper
 public class Data extends Base implements Parcelable {
     public int _id;
     public int _station_id;
@@ -35,11 +39,11 @@ public class Data extends Base implements Parcelable {
     };
 
     public static Bundle toBundleFromCursor(Cursor cursor) {
-        return new Data()._toBundleFromCursor(cursor);
+        return DataMapper.toBundleFromCursor(cursor);
     }
 
     public static String[] keys() {
-        return new Data()._keys();
+        return DataMapper.keys();
     }
 
     public Data() {
@@ -53,11 +57,21 @@ public class Data extends Base implements Parcelable {
 
     @SuppressWarnings("unused")
     public Data(Bundle bundle) {
-        super(bundle);
+        DataMapper.fill(this, bundle);
     }
 
     public Data(Cursor cursor) {
-        super(cursor);
+        DataMapper.fill(this, cursor);
+    }
+
+    @Override
+    public ContentValues toContentValues() {
+        return DataMapper.toContentValues(this);
+    }
+
+    @Override
+    public Bundle toBundle() {
+        return DataMapper.toBundle(this);
     }
 
     @Override
@@ -3,9 +3,20 @@ package io.github.hazyair.source;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Info implements Parcelable {
+    private final static int VERSION = 1;
+    // Smallest encoded sensor and data entry, bounding the counts a blob of a given size holds.
+    private final static int SENSOR_BYTES = 12;
+    private final static int DATA_BYTES = 28;
+
     public final Station station;
     public final List<Sensor> sensors;
     public final List<Data> data;
@@ -45,4 +56,164 @@ public class Info implements Parcelable {
         dest.writeTypedList(sensors);
         dest.writeTypedList(data);
     }
+
+    /**
+     * @return deep copy, so callers sharing a cached snapshot cannot change it for each other
+     */
+    public Info copy() {
+        Station station = null;
+        if (this.station != null) {
+            station = new Station();
+            station._id = this.station._id;
+            station.id = this.station.id;
+            station.name = this.station.name;
+            station.latitude = this.station.latitude;
+            station.longitude = this.station.longitude;
+            station.country = this.station.country;
+            station.locality = this.station.locality;
+            station.address = this.station.address;
+            station.source = this.station.source;
+        }
+        List<Sensor> sensors = null;
+        if (this.sensors != null) {
+            sensors = new ArrayList<>(this.sensors.size());
+            for (Sensor sensor : this.sensors) {
+                Sensor copy = new Sensor();
+                copy._id = sensor._id;
+                copy._station_id = sensor._station_id;
+                copy.id = sensor.id;
+                copy.station_id = sensor.station_id;
+                copy.parameter = sensor.parameter;
+                copy.unit = sensor.unit;
+                sensors.add(copy);
+            }
+        }
+        List<Data> data = null;
+        if (this.data != null) {
+            data = new ArrayList<>(this.data.size());
+            for (Data entry : this.data) {
+                Data copy = new Data();
+                copy._id = entry._id;
+                copy._station_id = entry._station_id;
+                copy._sensor_id = entry._sensor_id;
+                copy.timestamp = entry.timestamp;
+                copy.value = entry.value;
+                data.add(copy);
+            }
+        }
+        return new Info(station, sensors, data);
+    }
+
+    /**
+     * Compact binary form of the snapshot, prefixed with the encoding version.
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeBoolean(station != null);
+            if (station != null) {
+                out.writeInt(station._id);
+                writeString(out, station.id);
+                writeString(out, station.name);
+                out.writeDouble(station.latitude);
+                out.writeDouble(station.longitude);
+                out.writeInt(station.country);
+                writeString(out, station.locality);
+                writeString(out, station.address);
+                out.writeInt(station.source);
+            }
+            out.writeInt(sensors == null ? -1 : sensors.size());
+            if (sensors != null) {
+                for (Sensor sensor : sensors) {
+                    out.writeInt(sensor._id);
+                    out.writeInt(sensor._station_id);
+                    writeString(out, sensor.id);
+                    writeString(out, sensor.station_id);
+                    writeString(out, sensor.parameter);
+                    writeString(out, sensor.unit);
+                }
+            }
+            out.writeInt(data == null ? -1 : data.size());
+            if (data != null) {
+                for (Data entry : data) {
+                    out.writeInt(entry._id);
+                    out.writeInt(entry._station_id);
+                    out.writeInt(entry._sensor_id);
+                    out.writeLong(entry.timestamp);
+                    out.writeDouble(entry.value);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the decoded snapshot or {@code null} if the bytes are not a snapshot of a known
+     * encoding version or are truncated
+     */
+    public static Info decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != VERSION) return null;
+            Station station = null;
+            if (in.readBoolean()) {
+                station = new Station();
+                station._id = in.readInt();
+                station.id = readString(in);
+                station.name = readString(in);
+                station.latitude = in.readDouble();
+                station.longitude = in.readDouble();
+                station.country = in.readInt();
+                station.locality = readString(in);
+                station.address = readString(in);
+                station.source = in.readInt();
+            }
+            List<Sensor> sensors = null;
+            int count = in.readInt();
+            if (count > in.available() / SENSOR_BYTES) return null;
+            if (count >= 0) {
+                sensors = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    Sensor sensor = new Sensor();
+                    sensor._id = in.readInt();
+                    sensor._station_id = in.readInt();
+                    sensor.id = readString(in);
+                    sensor.station_id = readString(in);
+                    sensor.parameter = readString(in);
+                    sensor.unit = readString(in);
+                    sensors.add(sensor);
+                }
+            }
+            List<Data> data = null;
+            count = in.readInt();
+            if (count > in.available() / DATA_BYTES) return null;
+            if (count >= 0) {
+                data = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    Data entry = new Data();
+                    entry._id = in.readInt();
+                    entry._station_id = in.readInt();
+                    entry._sensor_id = in.readInt();
+                    entry.timestamp = in.readLong();
+                    entry.value = in.readDouble();
+                    data.add(entry);
+                }
+            }
+            return new Info(station, sensors, data);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null) out.writeUTF(string);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
 }
@@ -0,0 +1,52 @@
+package io.github.hazyair.source;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.github.hazyair.source.iface.Cancellable;
+
+/**
+ * Requests scoped to one owner, cancelled together when the owner goes away. Anything added
+ * after the group has been cancelled is cancelled right away.
+ */
+public class RequestGroup implements Cancellable {
+
+    private final Set<Cancellable> mMembers = new LinkedHashSet<>();
+    private boolean mCancelled;
+
+    public void add(Cancellable member) {
+        if (member == null) return;
+        boolean cancelled;
+        synchronized (mMembers) {
+            cancelled = mCancelled;
+            if (!cancelled) mMembers.add(member);
+        }
+        if (cancelled) member.cancel();
+    }
+
+    public void remove(Cancellable member) {
+        synchronized (mMembers) {
+            mMembers.remove(member);
+        }
+    }
+
+    public boolean isCancelled() {
+        synchronized (mMembers) {
+            return mCancelled;
+        }
+    }
+
+    @Override
+    public void cancel() {
+        List<Cancellable> members;
+        synchronized (mMembers) {
+            if (mCancelled) return;
+            mCancelled = true;
+            members = new ArrayList<>(mMembers);
+            mMembers.clear();
+        }
+        for (Cancellable member : members) member.cancel();
+    }
+}
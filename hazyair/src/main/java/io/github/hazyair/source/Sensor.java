@@ -1,11 +1,15 @@
 package io.github.hazyair.source;
 
+import android.content.ContentValues;
 import android.database.Cursor;
 import android.os.Bundle;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import io.github.hazyair.mapper.Mapper;
+
 @SuppressWarnings("WeakerAccess")
+@Mapper
 public class Sensor extends Base implements Parcelable {
     public int _id;
     public int _station_id;
@@ -36,11 +40,11 @@ public class Sensor extends Base implements Parcelable {
     };
 
     public static Bundle toBundleFromCursor(Cursor cursor) {
-        return new Sensor()._toBundleFromCursor(cursor);
+        return SensorMapper.toBundleFromCursor(cursor);
     }
 
     public static String[] keys() {
-        return new Sensor()._keys();
+        return SensorMapper.keys();
     }
 
     public Sensor() {
@@ -56,11 +60,21 @@ public class Sensor extends Base implements Parcelable {
 
     @SuppressWarnings("unused")
     public Sensor(Bundle bundle) {
-        super(bundle);
+        SensorMapper.fill(this, bundle);
     }
 
     public Sensor(Cursor cursor) {
-        super(cursor);
+        SensorMapper.fill(this, cursor);
+    }
+
+    @Override
+    public ContentValues toContentValues() {
+        return SensorMapper.toContentValues(this);
+    }
+
+    @Override
+    public Bundle toBundle() {
+        return SensorMapper.toBundle(this);
     }
 
     @SuppressWarnings({"unused", "SameReturnValue"})
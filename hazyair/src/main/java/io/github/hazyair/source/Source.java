@@ -1,16 +1,26 @@
 package io.github.hazyair.source;
 
+import android.app.ActivityManager;
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 
-import com.android.volley.Request;
+import com.android.volley.DefaultRetryPolicy;
+import com.android.volley.ExecutorDelivery;
 import com.android.volley.RequestQueue;
-import com.android.volley.toolbox.StringRequest;
-import com.android.volley.toolbox.Volley;
+import com.android.volley.toolbox.BasicNetwork;
+import com.android.volley.toolbox.DiskBasedCache;
+import com.android.volley.toolbox.HurlStack;
 
+import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
+import io.github.hazyair.source.iface.Cancellable;
 import io.github.hazyair.source.iface.DataCallback;
 import io.github.hazyair.source.iface.SensorsCallback;
 import io.github.hazyair.source.iface.StationsCallback;
@@ -23,18 +33,57 @@ public class Source {
         SMOKSMOG*/
     }
 
+    private final static String CACHE_DIRECTORY = "source";
+    private final static int CACHE_SIZE = 10 * 1024 * 1024;
+    private final static int THREADS = 4;
+    private final static long STATIONS_TTL = TimeUnit.DAYS.toMillis(1);
+    private final static long SENSORS_TTL = TimeUnit.DAYS.toMillis(1);
+    private final static long DATA_TTL = TimeUnit.MINUTES.toMillis(10);
+    private final static Executor MAIN = new Handler(Looper.getMainLooper())::post;
+    private final static Cancellable NONE = () -> { };
+
     private final Map<Type, io.github.hazyair.source.iface.Source> mSources;
     private static RequestQueue mRequestQueue;
     private Type mType;
     private Station mStation;
     private Sensor mSensor;
+    private int mTimeout = DefaultRetryPolicy.DEFAULT_TIMEOUT_MS;
+    private Executor mExecutor = MAIN;
+    private RequestGroup mGroup;
 
     private Source(Context context) {
         mSources = new HashMap<>();
         mSources.put(Type.GIOS, io.github.hazyair.source.gios.Source.getInstance());
         //mSources.put(Type.AIRLY, io.github.hazyair.source.airly.Source.getInstance(context));
         //mSources.put(Type.SMOKSMOG, io.github.hazyair.source.smoksmog.Source.getInstance(context));
-        mRequestQueue = Volley.newRequestQueue(context);
+        synchronized (Source.class) {
+            if (mRequestQueue == null) {
+                // Requests post their results to their own executor, so the queue hands them over
+                // on the dispatcher thread instead of going through the main thread first.
+                mRequestQueue = new RequestQueue(new DiskBasedCache(new File(context.getCacheDir(),
+                        CACHE_DIRECTORY + "-" + process(context)), CACHE_SIZE),
+                        new BasicNetwork(new HurlStack()), THREADS,
+                        new ExecutorDelivery(Runnable::run));
+                mRequestQueue.addRequestFinishedListener((request) -> {
+                    if (request instanceof SourceRequest) ((SourceRequest) request).finished();
+                });
+                mRequestQueue.start();
+            }
+        }
+    }
+
+    // DiskBasedCache is not safe to share between processes, so every process gets its own.
+    private static String process(Context context) {
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        if (activityManager != null && activityManager.getRunningAppProcesses() != null) {
+            int pid = android.os.Process.myPid();
+            for (ActivityManager.RunningAppProcessInfo info :
+                    activityManager.getRunningAppProcesses()) {
+                if (info.pid == pid) return info.processName.replace(':', '-');
+            }
+        }
+        return String.valueOf(android.os.Process.myPid());
     }
 
     public static Source with(Context context) {
@@ -47,13 +96,63 @@ public class Source {
         return this;
     }
 
-    public void into(StationsCallback callback) {
-        if (callback == null) return;
+    /**
+     * @param timeout milliseconds all attempts of a request have together; the first attempt
+     *                gets the share that leaves room for the retry and its backoff
+     */
+    public Source timeout(int timeout) {
+        mTimeout = attempt(timeout);
+        return this;
+    }
+
+    // Volley grows the timeout of every retry by the backoff multiplier.
+    static int attempt(int timeout) {
+        double total = 0;
+        double share = 1;
+        for (int i = 0; i <= DefaultRetryPolicy.DEFAULT_MAX_RETRIES; i++) {
+            total += share;
+            share *= 1 + DefaultRetryPolicy.DEFAULT_BACKOFF_MULT;
+        }
+        return (int) (timeout / total);
+    }
+
+    /**
+     * Lists handed to the callbacks are unmodifiable, but only shallowly: every request decodes
+     * its own stations, sensors and data, which belong to the callback from then on, so it may
+     * fill in database ids without copying them.
+     *
+     * @param executor executor the callbacks run on, the main thread by default
+     */
+    public Source on(Executor executor) {
+        mExecutor = executor == null ? MAIN : executor;
+        return this;
+    }
+
+    /**
+     * @param group group the requests are cancelled with
+     */
+    public Source in(RequestGroup group) {
+        mGroup = group;
+        return this;
+    }
+
+    private <T> Cancellable add(SourceRequest<T> request) {
+        if (!request.isAlive()) return request;
+        request.setRetryPolicy(new DefaultRetryPolicy(mTimeout,
+                DefaultRetryPolicy.DEFAULT_MAX_RETRIES, DefaultRetryPolicy.DEFAULT_BACKOFF_MULT));
+        request.setGroup(mGroup);
+        if (request.isCanceled()) return request;
+        mRequestQueue.add(request);
+        return request;
+    }
+
+    public Cancellable into(StationsCallback callback) {
+        if (callback == null) return NONE;
         io.github.hazyair.source.iface.Source source = mSources.get(mType);
-        if (source == null) return;
-        mRequestQueue.add(new StringRequest(Request.Method.GET, source.stationsUrl(),
-                (response) -> callback.onSuccess(source.stations(response)),
-                (error -> callback.onError())));
+        if (source == null) return NONE;
+        return add(new SourceRequest<>(source.stationsUrl(), STATIONS_TTL, mExecutor, callback,
+                (reader) -> Collections.unmodifiableList(source.stations(reader)),
+                callback::onSuccess, (error -> callback.onError())));
     }
 
     public Source from(Station station) {
@@ -61,25 +160,27 @@ public class Source {
         return this;
     }
 
-    public void into(SensorsCallback callback) {
-        if (callback == null) return;
+    public Cancellable into(SensorsCallback callback) {
+        if (callback == null) return NONE;
         if (mStation == null) {
             callback.onError();
-            return;
+            return NONE;
         }
         io.github.hazyair.source.iface.Source source = mSources.get(mType);
         if (source == null) {
             callback.onError();
-            return;
+            return NONE;
         }
-        mRequestQueue.add(new StringRequest(Request.Method.GET, source.sensorsUrl(mStation.id),
-                (response) -> {
-                    List<Sensor> sensors = source.sensors(response);
+        final Station station = mStation;
+        return add(new SourceRequest<>(source.sensorsUrl(station.id), SENSORS_TTL, mExecutor,
+                callback,
+                (reader) -> {
+                    List<Sensor> sensors = source.sensors(reader);
                     for (Sensor sensor : sensors) {
-                        sensor._station_id = mStation._id;
+                        sensor._station_id = station._id;
                     }
-                    callback.onSuccess(sensors);
-                }, (error -> callback.onError())));
+                    return Collections.unmodifiableList(sensors);
+                }, callback::onSuccess, (error -> callback.onError())));
     }
 
     public Source from(Sensor sensor) {
@@ -87,25 +188,26 @@ public class Source {
         return this;
     }
 
-    public void into(DataCallback callback) {
-        if (callback == null) return;
+    public Cancellable into(DataCallback callback) {
+        if (callback == null) return NONE;
         if (mSensor == null) {
             callback.onError();
-            return;
+            return NONE;
         }
         io.github.hazyair.source.iface.Source source = mSources.get(mType);
         if (source == null) {
             callback.onError();
-            return;
+            return NONE;
         }
-        mRequestQueue.add(new StringRequest(Request.Method.GET, source.dataUrl(mSensor.id),
-                (response) -> {
-                    List<Data> data = source.data(response);
+        final Sensor sensor = mSensor;
+        return add(new SourceRequest<>(source.dataUrl(sensor.id), DATA_TTL, mExecutor, callback,
+                (reader) -> {
+                    List<Data> data = source.data(reader);
                     for (Data entry : data) {
-                        entry._station_id = mSensor._station_id;
-                        entry._sensor_id = mSensor._id;
+                        entry._station_id = sensor._station_id;
+                        entry._sensor_id = sensor._id;
                     }
-                    callback.onSuccess(data);
-                }, (error -> callback.onError())));
+                    return Collections.unmodifiableList(data);
+                }, callback::onSuccess, (error -> callback.onError())));
     }
 }
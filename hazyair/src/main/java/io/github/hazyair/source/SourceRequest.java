@@ -0,0 +1,174 @@
+package io.github.hazyair.source;
+
+import com.android.volley.Cache;
+import com.android.volley.NetworkResponse;
+import com.android.volley.ParseError;
+import com.android.volley.Request;
+import com.android.volley.Response;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.HttpHeaderParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.concurrent.Executor;
+
+import io.github.hazyair.source.iface.Cancellable;
+import io.github.hazyair.source.iface.Worker;
+
+/**
+ * Request that decodes the body Volley has already buffered in the response data on the network
+ * dispatcher thread, so neither a String copy of it nor any intermediate DTO list is made. The
+ * result and errors are handed to the listeners on the request's own executor. Once the request
+ * is cancelled or its worker is no longer alive, parsing stops at the next read and nothing is
+ * delivered.
+ */
+class SourceRequest<T> extends Request<T> implements Cancellable {
+
+    interface Parser<T> {
+        T parse(Reader reader) throws IOException;
+    }
+
+    private final Parser<T> mParser;
+    private final long mTtl;
+    private final Executor mExecutor;
+    private final Worker mWorker;
+    private final Object mLock = new Object();
+    private Response.Listener<T> mListener;
+    private volatile boolean mCacheHit;
+    private volatile boolean mDone;
+    private RequestGroup mGroup;
+
+    SourceRequest(String url, long ttl, Executor executor, Worker worker, Parser<T> parser,
+                  Response.Listener<T> listener, Response.ErrorListener errorListener) {
+        super(Method.GET, url, errorListener);
+        mTtl = ttl;
+        mExecutor = executor;
+        mWorker = worker;
+        mParser = parser;
+        mListener = listener;
+    }
+
+    @Override
+    public void addMarker(String tag) {
+        super.addMarker(tag);
+        if ("cache-hit".equals(tag)) mCacheHit = true;
+    }
+
+    void setGroup(RequestGroup group) {
+        mGroup = group;
+        if (group != null) group.add(this);
+    }
+
+    // Called by the queue once the request has been delivered, dropped or cancelled.
+    void finished() {
+        mDone = true;
+        if (mGroup != null) mGroup.remove(this);
+    }
+
+    @Override
+    public void cancel() {
+        synchronized (mLock) {
+            if (isCanceled()) return;
+            super.cancel();
+            mListener = null;
+        }
+        if (!mDone) CancellationStatistics.unsent();
+    }
+
+    boolean isAlive() {
+        if (isCanceled()) return false;
+        if (mWorker.isAlive()) return true;
+        cancel();
+        return false;
+    }
+
+    @Override
+    protected Response<T> parseNetworkResponse(NetworkResponse response) {
+        mDone = true;
+        int bytes = response.data == null ? 0 : response.data.length;
+        if (mCacheHit) {
+            CacheStatistics.hit(bytes);
+        } else if (response.notModified) {
+            CacheStatistics.revalidation(bytes);
+        } else {
+            CacheStatistics.miss(bytes);
+        }
+        if (!isAlive()) {
+            CancellationStatistics.unparsed(bytes);
+            return Response.error(new VolleyError("cancelled"));
+        }
+        try (Reader reader = new CancellableReader(new InputStreamReader(
+                new ByteArrayInputStream(response.data),
+                HttpHeaderParser.parseCharset(response.headers, "UTF-8")))) {
+            return Response.success(mParser.parse(reader), cacheEntry(response));
+        } catch (InterruptedIOException e) {
+            CancellationStatistics.unparsed(bytes);
+            return Response.error(new VolleyError("cancelled"));
+        } catch (IOException | RuntimeException e) {
+            return Response.error(new ParseError(e));
+        }
+    }
+
+    /**
+     * Cache entry keeping the server validators (ETag, Last-Modified) for conditional requests
+     * but expiring after the endpoint's own time to live instead of the server's. Responses the
+     * server marks no-cache or no-store are not cached at all.
+     */
+    private Cache.Entry cacheEntry(NetworkResponse response) {
+        Cache.Entry entry = HttpHeaderParser.parseCacheHeaders(response);
+        if (entry == null) return null;
+        long now = System.currentTimeMillis();
+        entry.softTtl = now + mTtl;
+        entry.ttl = entry.softTtl;
+        return entry;
+    }
+
+    @Override
+    protected void deliverResponse(T response) {
+        mExecutor.execute(() -> {
+            Response.Listener<T> listener;
+            synchronized (mLock) {
+                listener = mListener;
+            }
+            if (listener != null && isAlive()) {
+                listener.onResponse(response);
+            } else {
+                CancellationStatistics.undelivered();
+            }
+        });
+    }
+
+    @Override
+    public void deliverError(VolleyError error) {
+        mExecutor.execute(() -> {
+            if (isAlive()) super.deliverError(error);
+        });
+    }
+
+    private class CancellableReader extends FilterReader {
+
+        private CancellableReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            check();
+            return super.read();
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            check();
+            return super.read(buffer, offset, length);
+        }
+
+        private void check() throws InterruptedIOException {
+            if (!isAlive()) throw new InterruptedIOException("cancelled");
+        }
+    }
+}
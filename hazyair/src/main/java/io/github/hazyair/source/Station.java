@@ -1,11 +1,16 @@
 package io.github.hazyair.source;
 
+import android.content.ContentValues;
 import android.database.Cursor;
 import android.os.Bundle;
 import android.os.Parcel;
 import android.os.Parcelable;
 
+import io.github.hazyair.mapper.Mapper;
+
+@Mapper
 public class Station extends Base implements Parcelable {
+    @Mapper.Ignore
     public boolean _status;
     public int _id;
     public String id;
@@ -18,11 +23,11 @@ public class Station extends Base implements Parcelable {
     public int source;
 
     public static Bundle toBundleFromCursor(Cursor cursor) {
-        return new Station()._toBundleFromCursor(cursor);
+        return StationMapper.toBundleFromCursor(cursor);
     }
 
     public static String[] keys() {
-        return new Station()._keys();
+        return StationMapper.keys();
     }
 
     public Station() {
@@ -44,11 +49,21 @@ public class Station extends Base implements Parcelable {
     }
 
     public Station(Bundle bundle) {
-        super(bundle);
+        StationMapper.fill(this, bundle);
     }
 
     public Station(Cursor cursor) {
-        super(cursor);
+        StationMapper.fill(this, cursor);
+    }
+
+    @Override
+    public ContentValues toContentValues() {
+        return StationMapper.toContentValues(this);
+    }
+
+    @Override
+    public Bundle toBundle() {
+        return StationMapper.toBundle(this);
     }
 
     private Station(Parcel in) {
@@ -1,8 +0,0 @@
-package io.github.hazyair.source.gios;
-
-@SuppressWarnings("unused")
-public class City {
-    public int id;
-    public String name;
-    public Commune commune;
-}
@@ -1,8 +0,0 @@
-package io.github.hazyair.source.gios;
-
-@SuppressWarnings("unused")
-public class Commune {
-    public String communeName;
-    public String districtName;
-    public String provinceName;
-}
@@ -1,9 +0,0 @@
-package io.github.hazyair.source.gios;
-
-import java.util.List;
-
-@SuppressWarnings("unused")
-class Data {
-    public String key;
-    public List<Value> values;
-}
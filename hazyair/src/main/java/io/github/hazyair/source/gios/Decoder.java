@@ -0,0 +1,59 @@
+package io.github.hazyair.source.gios;
+
+import io.github.hazyair.util.Zone;
+
+/**
+ * Decodes GIOS dates and values without formatters or intermediate objects. Dates come as
+ * yyyy-MM-dd HH:mm:ss in Polish local time and are converted through a shared offset table, so
+ * concurrent workers need no locking.
+ */
+final class Decoder {
+
+    private final static Zone POLAND = Zone.get("Europe/Warsaw");
+
+    private Decoder() {}
+
+    /**
+     * @return UTC milliseconds of the date, or -1 if it is malformed
+     */
+    static long timestamp(String date) {
+        if (date == null || date.length() != 19 || date.charAt(4) != '-' ||
+                date.charAt(7) != '-' || date.charAt(10) != ' ' || date.charAt(13) != ':' ||
+                date.charAt(16) != ':') return -1;
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 2);
+        int day = digits(date, 8, 2);
+        int hour = digits(date, 11, 2);
+        int minute = digits(date, 14, 2);
+        int second = digits(date, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 ||
+                hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) return -1;
+        long local = (((days(year, month, day) * 24 + hour) * 60 + minute) * 60 + second) * 1000;
+        return POLAND.toUtc(local);
+    }
+
+    // Two decimal places, half up.
+    static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static int digits(String text, int offset, int length) {
+        int result = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    // Days since 1970-01-01 of a proleptic Gregorian date.
+    private static long days(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097L + doe - 719468;
+    }
+}
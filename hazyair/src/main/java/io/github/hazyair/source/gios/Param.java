@@ -1,9 +0,0 @@
-package io.github.hazyair.source.gios;
-
-@SuppressWarnings("unused")
-public class Param {
-    public String paramName;
-    public String paramFormula;
-    public String paramCode;
-    public int idParam;
-}
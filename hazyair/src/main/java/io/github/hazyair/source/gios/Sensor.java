@@ -1,8 +0,0 @@
-package io.github.hazyair.source.gios;
-
-@SuppressWarnings("unused")
-class Sensor {
-    public int id;
-    public int stationId;
-    public Param param;
-}
@@ -3,22 +3,16 @@ package io.github.hazyair.source.gios;
 import android.net.Uri;
 
 import com.crashlytics.android.Crashlytics;
-import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
-
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.io.IOException;
+import java.io.Reader;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 import io.github.hazyair.R;
@@ -30,8 +24,6 @@ public class Source implements io.github.hazyair.source.iface.Source {
     private final static String SENSORS = "sensors";
     private final static String DATA = "data";
     private final static String GET_DATA = "getData";
-    private final static SimpleDateFormat format =
-            new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
     private static final Map<String, String> parameters = Collections.unmodifiableMap(
             new HashMap<String, String>() {{
                 put("C6H6", "C₆H₆");
@@ -74,66 +66,186 @@ public class Source implements io.github.hazyair.source.iface.Source {
     }
 
     @Override
-    public List<io.github.hazyair.source.Station> stations(String json) {
+    public List<io.github.hazyair.source.Station> stations(Reader in) throws IOException {
         List<io.github.hazyair.source.Station> result = new ArrayList<>();
-        List<Station> stations;
-        try {
-            stations = new Gson().fromJson(json,
-                    new TypeToken<List<Station>>() {}.getType());
-        } catch (JsonSyntaxException e) {
-            return result;
+        JsonReader reader = new JsonReader(in);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            io.github.hazyair.source.Station station = readStation(reader);
+            if (station != null) result.add(station);
         }
-        for(Station station : stations) {
-            if (station.gegrLat == null || station.gegrLon == null || station.city == null)
+        reader.endArray();
+        return result;
+    }
+
+    private static io.github.hazyair.source.Station readStation(JsonReader reader)
+            throws IOException {
+        String id = null;
+        String name = null;
+        String latitude = null;
+        String longitude = null;
+        String locality = null;
+        String address = null;
+        boolean city = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
                 continue;
-            result.add(new io.github.hazyair.source.Station(String.valueOf(station.id),
-                    station.stationName, Double.valueOf(station.gegrLat),
-                    Double.valueOf(station.gegrLon), R.string.data_poland, station.city.name,
-                    station.addressStreet, R.string.data_source_gios));
+            }
+            switch (key) {
+                case "id":
+                    id = String.valueOf(reader.nextInt());
+                    break;
+                case "stationName":
+                    name = reader.nextString();
+                    break;
+                case "gegrLat":
+                    latitude = reader.nextString();
+                    break;
+                case "gegrLon":
+                    longitude = reader.nextString();
+                    break;
+                case "city":
+                    city = true;
+                    locality = readCityName(reader);
+                    break;
+                case "addressStreet":
+                    address = reader.nextString();
+                    break;
+                default:
+                    reader.skipValue();
+            }
         }
-        return result;
+        reader.endObject();
+        if (latitude == null || longitude == null || !city) return null;
+        return new io.github.hazyair.source.Station(id, name, Double.valueOf(latitude),
+                Double.valueOf(longitude), R.string.data_poland, locality, address,
+                R.string.data_source_gios);
+    }
+
+    private static String readCityName(JsonReader reader) throws IOException {
+        String name = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("name") && reader.peek() != JsonToken.NULL) {
+                name = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return name;
     }
 
     @Override
-    public List<io.github.hazyair.source.Sensor> sensors(String json) {
+    public List<io.github.hazyair.source.Sensor> sensors(Reader in) throws IOException {
         List<io.github.hazyair.source.Sensor> result = new ArrayList<>();
-        List<Sensor> sensors;
-        try {
-            sensors = new Gson().fromJson(json,
-                    new TypeToken<List<Sensor>>() {}.getType());
-        } catch (JsonSyntaxException e) {
-            return result;
-        }
-        for (Sensor sensor : sensors) {
-            result.add(new io.github.hazyair.source.Sensor(String.valueOf(sensor.id),
-                    String.valueOf(sensor.stationId), parameters.get(sensor.param.paramFormula),
-                    ug_m3));
+        JsonReader reader = new JsonReader(in);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(readSensor(reader));
         }
+        reader.endArray();
         return result;
     }
 
+    private static io.github.hazyair.source.Sensor readSensor(JsonReader reader)
+            throws IOException {
+        int id = 0;
+        int stationId = 0;
+        String formula = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (key) {
+                case "id":
+                    id = reader.nextInt();
+                    break;
+                case "stationId":
+                    stationId = reader.nextInt();
+                    break;
+                case "param":
+                    formula = readParamFormula(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new io.github.hazyair.source.Sensor(String.valueOf(id), String.valueOf(stationId),
+                formula == null ? null : parameters.get(formula), ug_m3);
+    }
+
+    private static String readParamFormula(JsonReader reader) throws IOException {
+        String formula = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("paramFormula") && reader.peek() != JsonToken.NULL) {
+                formula = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return formula;
+    }
+
     @Override
-    public List<io.github.hazyair.source.Data> data(String json) {
+    public List<io.github.hazyair.source.Data> data(Reader in) throws IOException {
         List<io.github.hazyair.source.Data> result = new ArrayList<>();
-        Data data;
-        try {
-            data = new Gson().fromJson(json, new TypeToken<Data>() {}.getType());
-        } catch (JsonSyntaxException e) {
-            return result;
-        }
-        long timestamp = 0;
-        for (Value value : data.values) {
-            if (value.value == null) continue;
-            try {
-                timestamp = format.parse(value.date).getTime();
-            } catch (ParseException e) {
-                Crashlytics.logException(e);
+        JsonReader reader = new JsonReader(in);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("values") && reader.peek() != JsonToken.NULL) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    io.github.hazyair.source.Data data = readValue(reader);
+                    if (data != null) result.add(data);
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
             }
-            result.add(new io.github.hazyair.source.Data(new DateTime(timestamp,
-                    DateTimeZone.forID("Poland")).withZone(DateTimeZone.forID("UTC")).getMillis(),
-                    new BigDecimal(value.value).setScale(2,
-                            RoundingMode.HALF_UP).doubleValue()));
         }
+        reader.endObject();
         return result;
     }
+
+    private static io.github.hazyair.source.Data readValue(JsonReader reader)
+            throws IOException {
+        String date = null;
+        Double value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            switch (key) {
+                case "date":
+                    date = reader.nextString();
+                    break;
+                case "value":
+                    value = reader.nextDouble();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (date == null || value == null) return null;
+        long timestamp = Decoder.timestamp(date);
+        if (timestamp < 0) {
+            Crashlytics.logException(new ParseException(date, 0));
+            return null;
+        }
+        return new io.github.hazyair.source.Data(timestamp, Decoder.round(value));
+    }
 }
@@ -1,11 +0,0 @@
-package io.github.hazyair.source.gios;
-
-@SuppressWarnings("unused")
-class Station {
-    public int id;
-    public String stationName;
-    public String gegrLat;
-    public String gegrLon;
-    public City city;
-    public String addressStreet;
-}
@@ -1,7 +0,0 @@
-package io.github.hazyair.source.gios;
-
-@SuppressWarnings("unused")
-class Value {
-    public String date;
-    public Double value;
-}
@@ -0,0 +1,5 @@
+package io.github.hazyair.source.iface;
+
+public interface Cancellable {
+    void cancel();
+}
@@ -1,5 +1,7 @@
 package io.github.hazyair.source.iface;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 
 import io.github.hazyair.source.Data;
@@ -10,7 +12,7 @@ public interface Source {
     String stationsUrl();
     String sensorsUrl(String id);
     String dataUrl(String id);
-    List<Station> stations(String json);
-    List<Sensor> sensors(String json);
-    List<Data> data(String json);
+    List<Station> stations(Reader reader) throws IOException;
+    List<Sensor> sensors(Reader reader) throws IOException;
+    List<Data> data(Reader reader) throws IOException;
 }
@@ -5,43 +5,75 @@ import android.content.Context;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
-import org.joda.time.DateTime;
-import org.joda.time.DateTimeZone;
-
-import io.github.hazyair.data.HazyairProvider;
+import io.github.hazyair.data.ConfigStore;
 import io.github.hazyair.source.Info;
 
 public class Config {
     private final static String PARAM_UPDATE = "io.github.hazyair.PARAM_UPDATE";
     private final static String PREF_INFO = "io.github.hazyair.PREF_INFO";
+    private final static String PARAM_CATALOGUE = "io.github.hazyair.PARAM_CATALOGUE";
+    private final static String PARAM_CATALOGUE_UPDATE = "io.github.hazyair.PARAM_CATALOGUE_UPDATE";
+    private final static String PARAM_SNAPSHOT = "io.github.hazyair.PARAM_SNAPSHOT";
+
+    private static byte[] sBytes;
+    private static Info sInfo;
 
     public static void setUpdate(Context context) {
-        HazyairProvider.Config.set(context,
-                PARAM_UPDATE,
-                String.valueOf(new DateTime(DateTime.now(),
-                        DateTimeZone.getDefault()).withZone(DateTimeZone.UTC)
-                        .getMillis()));
+        if (context == null) return;
+        ConfigStore.putLong(context, PARAM_UPDATE, System.currentTimeMillis());
     }
 
     public static long getUpdate(Context context) {
-        String result = HazyairProvider.Config.get(context, PARAM_UPDATE);
-        if (result == null || result.isEmpty()) result = "0";
-        return Long.valueOf(result);
+        return ConfigStore.getLong(context, PARAM_UPDATE, 0);
     }
 
     public static void setInfo(Context context, Info info) {
         if (context == null) return;
-        if (info == null) {
-            HazyairProvider.Config.set(context, PREF_INFO, "");
-        } else {
-            HazyairProvider.Config.set(context, PREF_INFO, new Gson().toJson(info));
-        }
+        ConfigStore.putBlob(context, PARAM_SNAPSHOT, info == null ? new byte[0] : info.encode());
     }
 
-    public static Info getInfo(Context context) {
+    /**
+     * The snapshot is decoded again only when the stored bytes changed. Every caller gets its
+     * own copy of the cached snapshot.
+     */
+    public synchronized static Info getInfo(Context context) {
         if (context == null) return null;
-        String info = HazyairProvider.Config.get(context, PREF_INFO);
-        if (info.isEmpty()) return null;
-        return new Gson().fromJson(info, new TypeToken<Info>() {}.getType());
+        byte[] bytes = ConfigStore.getBlob(context, PARAM_SNAPSHOT);
+        if (bytes == null) return migrateInfo(context);
+        if (bytes != sBytes) {
+            sInfo = Info.decode(bytes);
+            sBytes = bytes;
+        }
+        return sInfo == null ? null : sInfo.copy();
+    }
+
+    private static Info migrateInfo(Context context) {
+        String json = ConfigStore.getString(context, PREF_INFO, "");
+        if (json.isEmpty()) return null;
+        Info info = new Gson().fromJson(json, new TypeToken<Info>() {}.getType());
+        setInfo(context, info);
+        ConfigStore.putString(context, PREF_INFO, "");
+        // Written through at once, so the migration does not run again and the other process
+        // sees the snapshot.
+        ConfigStore.flush(context);
+        return info;
+    }
+
+    /**
+     * Stores the hash of the catalogue just fetched, marking the catalogue fresh.
+     */
+    public static void setCatalogue(Context context, String hash) {
+        if (context == null || hash == null) return;
+        ConfigStore.putString(context, PARAM_CATALOGUE, hash);
+        ConfigStore.putLong(context, PARAM_CATALOGUE_UPDATE, System.currentTimeMillis());
+    }
+
+    public static String getCatalogue(Context context) {
+        return ConfigStore.getString(context, PARAM_CATALOGUE, "");
+    }
+
+    public static boolean isCatalogueStale(Context context, long ttl) {
+        return getCatalogue(context).isEmpty() || System.currentTimeMillis() -
+                ConfigStore.getLong(context, PARAM_CATALOGUE_UPDATE, 0) > ttl;
     }
 }
@@ -0,0 +1,208 @@
+package io.github.hazyair.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.github.hazyair.source.iface.Cancellable;
+
+/**
+ * Runs asynchronous jobs with a bounded number of them in flight at once. Every job has its own
+ * deadline, counted from the moment it is started; a job which neither succeeds nor fails in time
+ * is recorded as failed, the work it started is cancelled and its late result is dropped.
+ * Results are collected in submission order, so callers can build dependent batches
+ * deterministically after {@link #join()}.
+ */
+public class FanOut<T> {
+
+    public interface Sink<T> {
+        void success(T result);
+        void error();
+    }
+
+    public interface Job<T> {
+        /**
+         * @return handle cancelling the started work once the job's deadline has passed
+         */
+        Cancellable start(Sink<T> sink);
+    }
+
+    private class Task implements Sink<T> {
+        private final int mIndex;
+        private final Job<T> mJob;
+        private long mDeadline;
+        private boolean mDone;
+        private boolean mExpired;
+        private Cancellable mHandle;
+
+        private Task(int index, Job<T> job) {
+            mIndex = index;
+            mJob = job;
+        }
+
+        @Override
+        public void success(T result) {
+            complete(this, result, true);
+        }
+
+        @Override
+        public void error() {
+            complete(this, null, false);
+        }
+    }
+
+    private final int mParallelism;
+    private final long mTimeout;
+    private final ReentrantLock mLock = new ReentrantLock();
+    private final Condition mCondition = mLock.newCondition();
+    private final ArrayDeque<Task> mPending = new ArrayDeque<>();
+    private final List<Task> mRunning = new ArrayList<>();
+    private final List<T> mResults = new ArrayList<>();
+    private final BitSet mFailed = new BitSet();
+    private int mRemaining;
+
+    public FanOut(int parallelism, long timeout, TimeUnit unit) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism < 1");
+        mParallelism = parallelism;
+        mTimeout = unit.toNanos(timeout);
+    }
+
+    public int submit(Job<T> job) {
+        Task task;
+        boolean start = false;
+        mLock.lock();
+        try {
+            task = new Task(mResults.size(), job);
+            mResults.add(null);
+            mRemaining++;
+            if (mRunning.size() < mParallelism) {
+                run(task);
+                start = true;
+            } else {
+                mPending.add(task);
+            }
+        } finally {
+            mLock.unlock();
+        }
+        if (start) start(task);
+        return task.mIndex;
+    }
+
+    /**
+     * Blocks until every submitted job has completed or timed out.
+     *
+     * @return results in submission order, {@code null} for jobs which failed
+     */
+    public List<T> join() throws InterruptedException {
+        List<Task> next = new ArrayList<>();
+        List<Cancellable> expired = new ArrayList<>();
+        mLock.lock();
+        try {
+            while (mRemaining > 0) {
+                long now = System.nanoTime();
+                long wait = Long.MAX_VALUE;
+                for (Task task : new ArrayList<>(mRunning)) {
+                    long left = task.mDeadline - now;
+                    if (left > 0) {
+                        wait = Math.min(wait, left);
+                        continue;
+                    }
+                    Task pending = finish(task, null, false);
+                    task.mExpired = true;
+                    if (task.mHandle != null) expired.add(task.mHandle);
+                    if (pending != null) next.add(pending);
+                }
+                if (!next.isEmpty() || !expired.isEmpty()) {
+                    mLock.unlock();
+                    try {
+                        for (Cancellable handle : expired) handle.cancel();
+                        for (Task task : next) start(task);
+                    } finally {
+                        mLock.lock();
+                    }
+                    expired.clear();
+                    next.clear();
+                    continue;
+                }
+                if (mRemaining > 0) mCondition.awaitNanos(wait);
+            }
+            return new ArrayList<>(mResults);
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public boolean failed(int index) {
+        mLock.lock();
+        try {
+            return mFailed.get(index);
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    public int failed() {
+        mLock.lock();
+        try {
+            return mFailed.cardinality();
+        } finally {
+            mLock.unlock();
+        }
+    }
+
+    private void start(Task task) {
+        Cancellable handle;
+        try {
+            handle = task.mJob.start(task);
+        } catch (RuntimeException e) {
+            task.error();
+            return;
+        }
+        if (handle == null) return;
+        boolean expired;
+        mLock.lock();
+        try {
+            task.mHandle = handle;
+            expired = task.mExpired;
+        } finally {
+            mLock.unlock();
+        }
+        if (expired) handle.cancel();
+    }
+
+    private void complete(Task task, T result, boolean success) {
+        Task next;
+        mLock.lock();
+        try {
+            next = finish(task, result, success);
+        } finally {
+            mLock.unlock();
+        }
+        if (next != null) start(next);
+    }
+
+    private void run(Task task) {
+        task.mDeadline = System.nanoTime() + mTimeout;
+        mRunning.add(task);
+    }
+
+    private Task finish(Task task, T result, boolean success) {
+        if (task.mDone) return null;
+        task.mDone = true;
+        mRunning.remove(task);
+        if (success) {
+            mResults.set(task.mIndex, result);
+        } else {
+            mFailed.set(task.mIndex);
+        }
+        mRemaining--;
+        mCondition.signalAll();
+        Task next = mPending.poll();
+        if (next != null) run(next);
+        return next;
+    }
+}
@@ -3,6 +3,7 @@ package io.github.hazyair.util;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 // http://ec.europa.eu/environment/air/quality/standards.htm
 // http://powietrze.gios.gov.pl/pjp/content/health_informations
@@ -61,4 +62,17 @@ public final class Quality {
     public static int normalize(String parameter, double value) {
         return (int)Math.round(100 * value / limits.get(parameter));
     }
+
+    /**
+     * SQL counterpart of {@link #normalize(String, double)}, NULL for unknown parameters.
+     */
+    public static String normalize(String parameter, String value) {
+        StringBuilder sql = new StringBuilder("CASE ").append(parameter);
+        for (Map.Entry<String, Double> limit : new TreeMap<>(limits).entrySet()) {
+            sql.append(" WHEN '").append(limit.getKey()).append("' THEN CAST(ROUND(100 * ")
+                    .append(value).append(" / ").append(limit.getValue())
+                    .append(") AS INTEGER)");
+        }
+        return sql.append(" END").toString();
+    }
 }
@@ -0,0 +1,62 @@
+package io.github.hazyair.util;
+
+/**
+ * Downsampling of time series for plotting.
+ */
+public final class Series {
+
+    private Series() {}
+
+    /**
+     * Largest-Triangle-Three-Buckets downsampling. The first and the last point are kept, and
+     * from every bucket in between the point forming the largest triangle with the point kept
+     * before it and the average of the next bucket, so peaks and the overall shape survive.
+     *
+     * @param x ascending positions of the points
+     * @param y values of the points
+     * @param length number of points used from the arrays
+     * @param threshold number of points to keep, at least 3
+     * @return ascending indices of the points kept, all of them when there are not more than
+     * threshold points
+     */
+    public static int[] lttb(long[] x, double[] y, int length, int threshold) {
+        if (threshold < 3 || length <= threshold) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) all[i] = i;
+            return all;
+        }
+        // Positions relative to the first point keep the areas exact in double precision.
+        long origin = x[0];
+        int[] result = new int[threshold];
+        double every = (double) (length - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            int start = (int) ((i + 1) * every) + 1;
+            int end = Math.min((int) ((i + 2) * every) + 1, length);
+            double averageX = 0;
+            double averageY = 0;
+            for (int j = start; j < end; j++) {
+                averageX += x[j] - origin;
+                averageY += y[j];
+            }
+            averageX /= end - start;
+            averageY /= end - start;
+            double ax = x[a] - origin;
+            double ay = y[a];
+            double max = -1;
+            int next = (int) (i * every) + 1;
+            for (int j = next; j < start; j++) {
+                double area = Math.abs((ax - averageX) * (y[j] - ay) -
+                        (ax - (x[j] - origin)) * (averageY - ay));
+                if (area > max) {
+                    max = area;
+                    next = j;
+                }
+            }
+            result[i + 1] = next;
+            a = next;
+        }
+        result[threshold - 1] = length - 1;
+        return result;
+    }
+}
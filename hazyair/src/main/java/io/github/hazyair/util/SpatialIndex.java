@@ -0,0 +1,221 @@
+package io.github.hazyair.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Fixed grid over latitude and longitude answering k-nearest and within-radius queries by
+ * great-circle distance. Only the cells which can still hold a closer item are visited, so a
+ * query touches a handful of cells around the position instead of every item.
+ */
+public class SpatialIndex<T> {
+
+    private final static double EARTH_RADIUS = 6371008.8;
+
+    private static class Entry<T> {
+        private final double mLatitude;
+        private final double mLongitude;
+        private final T mItem;
+
+        private Entry(double latitude, double longitude, T item) {
+            mLatitude = latitude;
+            mLongitude = longitude;
+            mItem = item;
+        }
+    }
+
+    private static class Match<T> {
+        private final T mItem;
+        private final double mDistance;
+
+        private Match(T item, double distance) {
+            mItem = item;
+            mDistance = distance;
+        }
+    }
+
+    private final static Comparator<Match<?>> NEAREST =
+            (a, b) -> Double.compare(a.mDistance, b.mDistance);
+
+    private final double mCell;
+    private final int mRows;
+    private final int mColumns;
+    private final Map<Integer, List<Entry<T>>> mCells = new HashMap<>();
+    private int mSize;
+
+    /**
+     * @param cell cell size in degrees
+     */
+    public SpatialIndex(double cell) {
+        if (cell <= 0 || cell > 90) throw new IllegalArgumentException("cell");
+        mCell = cell;
+        mRows = (int) Math.ceil(180 / cell);
+        mColumns = (int) Math.ceil(360 / cell);
+    }
+
+    public void add(double latitude, double longitude, T item) {
+        int key = row(latitude) * mColumns + column(longitude);
+        List<Entry<T>> entries = mCells.get(key);
+        if (entries == null) {
+            entries = new ArrayList<>();
+            mCells.put(key, entries);
+        }
+        entries.add(new Entry<>(latitude, longitude, item));
+        mSize++;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * @return up to {@code count} items closest to the position, nearest first
+     */
+    public List<T> nearest(double latitude, double longitude, int count) {
+        if (count <= 0 || mSize == 0) return new ArrayList<>();
+        count = Math.min(count, mSize);
+        PriorityQueue<Match<T>> heap = new PriorityQueue<>(count,
+                Collections.reverseOrder(NEAREST));
+        int row = row(latitude);
+        int column = column(longitude);
+        int visited = 0;
+        for (int ring = 0; visited < mSize; ring++) {
+            if (heap.size() == count && Math.toRadians((ring - 1) * mCell) >=
+                    spread(latitude, heap.peek().mDistance)) break;
+            if ((2L * ring + 1) * (2L * ring + 1) > 4L * mCells.size()) {
+                // Far from every item: the rings cost more than scanning the occupied cells.
+                heap.clear();
+                for (List<Entry<T>> entries : mCells.values()) {
+                    offer(heap, count, latitude, longitude, entries);
+                }
+                break;
+            }
+            int half = Math.min(ring, mColumns / 2);
+            for (int dr = -ring; dr <= ring; dr++) {
+                int r = row + dr;
+                if (r < 0 || r >= mRows) continue;
+                if (dr == -ring || dr == ring) {
+                    for (int dc = -half; dc <= half; dc++) {
+                        if (mColumns % 2 == 0 && dc == -mColumns / 2) continue;
+                        visited += offer(heap, count, latitude, longitude,
+                                mCells.get(r * mColumns + wrap(column + dc)));
+                    }
+                } else if (ring <= half) {
+                    if (mColumns % 2 != 0 || ring != mColumns / 2) {
+                        visited += offer(heap, count, latitude, longitude,
+                                mCells.get(r * mColumns + wrap(column - ring)));
+                    }
+                    visited += offer(heap, count, latitude, longitude,
+                            mCells.get(r * mColumns + wrap(column + ring)));
+                }
+            }
+        }
+        List<Match<T>> matches = new ArrayList<>(heap);
+        Collections.sort(matches, NEAREST);
+        return items(matches);
+    }
+
+    private int offer(PriorityQueue<Match<T>> heap, int count, double latitude,
+                      double longitude, List<Entry<T>> entries) {
+        if (entries == null) return 0;
+        for (Entry<T> entry : entries) {
+            double distance = distance(latitude, longitude, entry.mLatitude, entry.mLongitude);
+            if (heap.size() < count) {
+                heap.add(new Match<>(entry.mItem, distance));
+            } else if (distance < heap.peek().mDistance) {
+                heap.poll();
+                heap.add(new Match<>(entry.mItem, distance));
+            }
+        }
+        return entries.size();
+    }
+
+    /**
+     * @param radius radius in meters
+     * @return items within the radius of the position, nearest first
+     */
+    public List<T> within(double latitude, double longitude, double radius) {
+        List<Match<T>> result = new ArrayList<>();
+        if (radius < 0 || mSize == 0) return items(result);
+        double degrees = Math.toDegrees(radius / EARTH_RADIUS);
+        int first = row(latitude - degrees);
+        int last = row(latitude + degrees);
+        double spread = Math.toDegrees(spread(latitude, radius));
+        int columns = spread >= 180 ? mColumns : (int) Math.ceil(spread / mCell) * 2 + 3;
+        int column = column(longitude) - columns / 2;
+        if (columns >= mColumns) {
+            column = 0;
+            columns = mColumns;
+        }
+        if ((long) (last - first + 1) * columns > mCells.size()) {
+            for (List<Entry<T>> entries : mCells.values()) {
+                match(result, radius, latitude, longitude, entries);
+            }
+        } else {
+            for (int r = first; r <= last; r++) {
+                for (int c = column; c < column + columns; c++) {
+                    match(result, radius, latitude, longitude,
+                            mCells.get(r * mColumns + wrap(c)));
+                }
+            }
+        }
+        Collections.sort(result, NEAREST);
+        return items(result);
+    }
+
+    private void match(List<Match<T>> result, double radius, double latitude, double longitude,
+                       List<Entry<T>> entries) {
+        if (entries == null) return;
+        for (Entry<T> entry : entries) {
+            double distance = distance(latitude, longitude, entry.mLatitude, entry.mLongitude);
+            if (distance <= radius) result.add(new Match<>(entry.mItem, distance));
+        }
+    }
+
+    /**
+     * Haversine distance in meters.
+     */
+    public static double distance(double latitude1, double longitude1,
+                                  double latitude2, double longitude2) {
+        double lat = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double lon = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double h = lat * lat + Math.cos(Math.toRadians(latitude1)) *
+                Math.cos(Math.toRadians(latitude2)) * lon * lon;
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1, Math.sqrt(h)));
+    }
+
+    /**
+     * Largest longitude difference, in radians, of any point closer than {@code distance}.
+     */
+    private static double spread(double latitude, double distance) {
+        double angle = distance / EARTH_RADIUS;
+        double extreme = Math.toRadians(Math.abs(latitude)) + angle;
+        if (extreme >= Math.PI / 2) return Math.PI;
+        double sin = Math.sin(Math.min(angle, Math.PI) / 2) / Math.cos(extreme);
+        return sin >= 1 ? Math.PI : 2 * Math.asin(sin);
+    }
+
+    private List<T> items(List<Match<T>> matches) {
+        List<T> items = new ArrayList<>(matches.size());
+        for (Match<T> match : matches) items.add(match.mItem);
+        return items;
+    }
+
+    private int row(double latitude) {
+        return Math.min(mRows - 1, Math.max(0, (int) Math.floor((latitude + 90) / mCell)));
+    }
+
+    private int column(double longitude) {
+        return wrap((int) Math.floor((longitude + 180) / mCell));
+    }
+
+    private int wrap(int column) {
+        column %= mColumns;
+        return column < 0 ? column + mColumns : column;
+    }
+}
@@ -1,8 +1,7 @@
 package io.github.hazyair.util;
 
-import org.apache.commons.lang3.StringUtils;
-
 import java.text.Normalizer;
+import java.util.Locale;
 
 public final class Text {
     private final static String ELLIPSIS = "...";
@@ -12,11 +11,25 @@ public final class Text {
         return string.length() < length ? string : string.substring(0, length - 3) + ELLIPSIS;
     }
 
-    public static boolean contains(String string, String query) {
-        return StringUtils.containsIgnoreCase(
-                Normalizer.normalize(string, Normalizer.Form.NFD)
-                        .replaceAll("\\p{InCombiningDiacriticalMarks}+",
-                                "").replaceAll("ł", "l")
-                        .replaceAll("Ł", "L"), query);
+    public static String normalize(String string) {
+        if (string == null) return "";
+        return Normalizer.normalize(string, Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "")
+                .replace('ł', 'l').replace('Ł', 'L').toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Turns free text typed by the user into a full text search expression matching every word
+     * as a prefix, or {@code null} when there is nothing to search for.
+     */
+    public static String match(String query) {
+        if (query == null) return null;
+        StringBuilder builder = new StringBuilder();
+        for (String token : normalize(query).split("[^\\p{Alnum}]+")) {
+            if (token.isEmpty()) continue;
+            if (builder.length() > 0) builder.append(' ');
+            builder.append(token).append('*');
+        }
+        return builder.length() == 0 ? null : builder.toString();
     }
 }
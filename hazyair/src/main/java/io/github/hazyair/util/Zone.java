@@ -0,0 +1,116 @@
+package io.github.hazyair.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offsets of a time zone, cached per block of about 200 days. A block keeps the offset at its
+ * start and the transitions inside it, found once through {@link TimeZone#getOffset(long)}, so
+ * every conversion after that is a lookup in a few entries. Blocks are immutable and a zone can
+ * be shared by any number of threads.
+ */
+public final class Zone {
+
+    private final static int BLOCK = 34;
+    // Transitions are months apart, so sampling a few times a day cannot miss one.
+    private final static long STEP = TimeUnit.HOURS.toMillis(6);
+
+    private static final Map<String, Zone> sZones = new HashMap<>();
+
+    private static class Block {
+        private final long mIndex;
+        private final long[] mTransitions;
+        private final int[] mOffsets;
+
+        private Block(long index, long[] transitions, int[] offsets) {
+            mIndex = index;
+            mTransitions = transitions;
+            mOffsets = offsets;
+        }
+    }
+
+    private final TimeZone mTimeZone;
+    private final Map<Long, Block> mBlocks = new ConcurrentHashMap<>();
+    private volatile Block mLast;
+
+    private Zone(TimeZone timeZone) {
+        mTimeZone = timeZone;
+    }
+
+    public static Zone get(String id) {
+        synchronized (sZones) {
+            Zone zone = sZones.get(id);
+            if (zone == null) {
+                zone = new Zone(TimeZone.getTimeZone(id));
+                sZones.put(id, zone);
+            }
+            return zone;
+        }
+    }
+
+    /**
+     * @return offset from UTC in milliseconds at the given instant
+     */
+    public int offset(long utc) {
+        long index = utc >> BLOCK;
+        Block block = mLast;
+        if (block == null || block.mIndex != index) {
+            block = mBlocks.get(index);
+            if (block == null) {
+                block = block(index);
+                mBlocks.put(index, block);
+            }
+            mLast = block;
+        }
+        int i = 0;
+        while (i < block.mTransitions.length && utc >= block.mTransitions[i]) i++;
+        return block.mOffsets[i];
+    }
+
+    /**
+     * @return instant of the given wall time; wall times skipped by a transition map to the
+     * offset in force before it, repeated ones to the offset after it
+     */
+    public long toUtc(long local) {
+        return local - offset(local - offset(local));
+    }
+
+    private Block block(long index) {
+        long start = index << BLOCK;
+        long end = start + (1L << BLOCK) - 1;
+        List<Long> transitions = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        int offset = mTimeZone.getOffset(start);
+        offsets.add(offset);
+        long from = start;
+        while (from < end) {
+            long to = Math.min(from + STEP, end);
+            if (mTimeZone.getOffset(to) == offset) {
+                from = to;
+                continue;
+            }
+            while (to - from > 1) {
+                long middle = (from + to) >>> 1;
+                if (mTimeZone.getOffset(middle) == offset) {
+                    from = middle;
+                } else {
+                    to = middle;
+                }
+            }
+            offset = mTimeZone.getOffset(to);
+            transitions.add(to);
+            offsets.add(offset);
+            from = to;
+        }
+        long[] t = new long[transitions.size()];
+        int[] o = new int[offsets.size()];
+        for (int i = 0; i < t.length; i++) t[i] = transitions.get(i);
+        for (int i = 0; i < o.length; i++) o[i] = offsets.get(i);
+        return new Block(index, t, o);
+    }
+}
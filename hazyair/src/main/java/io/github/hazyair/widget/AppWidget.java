@@ -11,6 +11,7 @@ import android.support.v4.app.DatabaseService;
 import android.widget.RemoteViews;
 
 import io.github.hazyair.R;
+import io.github.hazyair.data.ConfigStore;
 import io.github.hazyair.data.StationsContract;
 import io.github.hazyair.gui.MainActivity;
 import io.github.hazyair.util.Text;
@@ -64,6 +65,7 @@ public class AppWidget extends AppWidgetProvider {
     }
 
     public static void update(Context context) {
+        ConfigStore.flush(context);
         AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
         int [] appWidgetIds = appWidgetManager.getAppWidgetIds(
                 new ComponentName(context, AppWidget.class));
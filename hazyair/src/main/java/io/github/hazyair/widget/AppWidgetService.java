@@ -20,7 +20,6 @@ import io.github.hazyair.source.Sensor;
 import io.github.hazyair.util.Config;
 import io.github.hazyair.util.Preference;
 import io.github.hazyair.util.Quality;
-import io.github.hazyair.util.Time;
 
 import static android.graphics.Typeface.BOLD;
 
@@ -76,8 +75,7 @@ public class AppWidgetService extends RemoteViewsService {
                     return remoteViews;
                 Sensor sensor = mInfo.sensors.get(position);
                 Data data = mInfo.data.get(position);
-                long timestamp = Time
-                        .getTimestamp(data.timestamp);
+                long timestamp = data.timestamp;
                 long hours = (System.currentTimeMillis() - timestamp) /
                         TimeUnit.HOURS.toMillis(1);
                 long minutes = (System.currentTimeMillis() -
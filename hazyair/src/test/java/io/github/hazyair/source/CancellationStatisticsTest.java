@@ -0,0 +1,41 @@
+package io.github.hazyair.source;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CancellationStatisticsTest {
+
+    @Before
+    public void setUp() {
+        CancellationStatistics.reset();
+    }
+
+    @Test
+    public void countsEveryKindOfSavedWork() {
+        CancellationStatistics.unsent();
+        CancellationStatistics.unsent();
+        CancellationStatistics.unparsed(100);
+        CancellationStatistics.unparsed(24);
+        CancellationStatistics.undelivered();
+
+        assertEquals(2, CancellationStatistics.unsentRequests());
+        assertEquals(2, CancellationStatistics.unparsedResponses());
+        assertEquals(124, CancellationStatistics.bytesUnparsed());
+        assertEquals(1, CancellationStatistics.undeliveredResults());
+        assertEquals("unsent=2 unparsed=2 (124B) undelivered=1",
+                CancellationStatistics.summary());
+    }
+
+    @Test
+    public void resetClearsEveryCounter() {
+        CancellationStatistics.unsent();
+        CancellationStatistics.unparsed(1);
+        CancellationStatistics.undelivered();
+
+        CancellationStatistics.reset();
+
+        assertEquals("unsent=0 unparsed=0 (0B) undelivered=0", CancellationStatistics.summary());
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.hazyair.source;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InfoTest {
+
+    private static Info info() {
+        Station station = new Station();
+        station._id = 7;
+        station.id = "114";
+        station.name = "Warszawa, ul. Marszałkowska";
+        station.latitude = 52.2254;
+        station.longitude = 21.0048;
+        station.country = 3;
+        station.locality = "Warszawa";
+        station.address = null;
+        station.source = 5;
+        List<Sensor> sensors = new ArrayList<>();
+        List<Data> data = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Sensor sensor = new Sensor();
+            sensor._id = 10 + i;
+            sensor._station_id = 7;
+            sensor.id = String.valueOf(3576 + i);
+            sensor.station_id = "114";
+            sensor.parameter = i == 1 ? "NO₂" : "PM10";
+            sensor.unit = "μg/m3";
+            sensors.add(sensor);
+            Data entry = new Data();
+            entry._id = 100 + i;
+            entry._station_id = 7;
+            entry._sensor_id = 10 + i;
+            entry.timestamp = 1546300800000L + i * 3600000L;
+            entry.value = 12.34 * i;
+            data.add(entry);
+        }
+        return new Info(station, sensors, data);
+    }
+
+    private static void assertInfoEquals(Info expected, Info actual) {
+        assertEquals(expected.station == null, actual.station == null);
+        if (expected.station != null) {
+            assertEquals(expected.station._id, actual.station._id);
+            assertEquals(expected.station.id, actual.station.id);
+            assertEquals(expected.station.name, actual.station.name);
+            assertEquals(expected.station.latitude, actual.station.latitude, 0);
+            assertEquals(expected.station.longitude, actual.station.longitude, 0);
+            assertEquals(expected.station.country, actual.station.country);
+            assertEquals(expected.station.locality, actual.station.locality);
+            assertEquals(expected.station.address, actual.station.address);
+            assertEquals(expected.station.source, actual.station.source);
+        }
+        assertEquals(expected.sensors == null, actual.sensors == null);
+        if (expected.sensors != null) {
+            assertEquals(expected.sensors.size(), actual.sensors.size());
+            for (int i = 0; i < expected.sensors.size(); i++) {
+                Sensor sensor = expected.sensors.get(i);
+                Sensor other = actual.sensors.get(i);
+                assertEquals(sensor._id, other._id);
+                assertEquals(sensor._station_id, other._station_id);
+                assertEquals(sensor.id, other.id);
+                assertEquals(sensor.station_id, other.station_id);
+                assertEquals(sensor.parameter, other.parameter);
+                assertEquals(sensor.unit, other.unit);
+            }
+        }
+        assertEquals(expected.data == null, actual.data == null);
+        if (expected.data != null) {
+            assertEquals(expected.data.size(), actual.data.size());
+            for (int i = 0; i < expected.data.size(); i++) {
+                Data entry = expected.data.get(i);
+                Data other = actual.data.get(i);
+                assertEquals(entry._id, other._id);
+                assertEquals(entry._station_id, other._station_id);
+                assertEquals(entry._sensor_id, other._sensor_id);
+                assertEquals(entry.timestamp, other.timestamp);
+                assertEquals(entry.value, other.value, 0);
+            }
+        }
+    }
+
+    @Test
+    public void roundTrip() {
+        Info info = info();
+        assertInfoEquals(info, Info.decode(info.encode()));
+    }
+
+    @Test
+    public void roundTripWithoutContent() {
+        Info info = new Info(null, null, null);
+        assertInfoEquals(info, Info.decode(info.encode()));
+        info = new Info(null, new ArrayList<>(), new ArrayList<>());
+        assertInfoEquals(info, Info.decode(info.encode()));
+    }
+
+    @Test
+    public void truncatedBlobIsRejected() {
+        byte[] bytes = info().encode();
+        for (int length = 0; length < bytes.length; length++) {
+            assertNull("length " + length, Info.decode(Arrays.copyOf(bytes, length)));
+        }
+        assertNull(Info.decode(null));
+    }
+
+    @Test
+    public void corruptCountIsRejected() {
+        Info info = new Info(null, null, null);
+        byte[] bytes = info.encode();
+        // version, station flag, then the sensor count
+        ByteBuffer.wrap(bytes).putInt(2, Integer.MAX_VALUE);
+        assertNull(Info.decode(bytes));
+        bytes = info.encode();
+        ByteBuffer.wrap(bytes).putInt(6, Integer.MAX_VALUE);
+        assertNull(Info.decode(bytes));
+    }
+
+    @Test
+    public void unknownVersionIsRejected() {
+        byte[] bytes = info().encode();
+        bytes[0]++;
+        assertNull(Info.decode(bytes));
+    }
+
+    @Test
+    public void copyIsDeep() {
+        Info info = info();
+        Info copy = info.copy();
+        assertInfoEquals(info, copy);
+        copy.station.name = "changed";
+        copy.sensors.get(0).unit = "changed";
+        copy.data.get(0).value = -1;
+        copy.data.clear();
+        assertInfoEquals(info(), info);
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.hazyair.source;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import io.github.hazyair.source.iface.Cancellable;
+
+import static org.junit.Assert.*;
+
+public class RequestGroupTest {
+
+    private final List<String> mCancelled = new ArrayList<>();
+
+    @Test
+    public void cancelsEveryMemberOnceInOrder() {
+        RequestGroup group = new RequestGroup();
+        group.add(() -> mCancelled.add("one"));
+        group.add(() -> mCancelled.add("two"));
+        assertFalse(group.isCancelled());
+
+        group.cancel();
+        group.cancel();
+
+        assertTrue(group.isCancelled());
+        assertEquals(Arrays.asList("one", "two"), mCancelled);
+    }
+
+    @Test
+    public void removedMembersAreNotCancelled() {
+        RequestGroup group = new RequestGroup();
+        Cancellable done = () -> mCancelled.add("done");
+        group.add(done);
+        group.add(() -> mCancelled.add("running"));
+        group.remove(done);
+
+        group.cancel();
+
+        assertEquals(Collections.singletonList("running"), mCancelled);
+    }
+
+    @Test
+    public void lateMembersAreCancelledRightAway() {
+        RequestGroup group = new RequestGroup();
+        group.cancel();
+
+        group.add(() -> mCancelled.add("late"));
+        group.add(null);
+
+        assertEquals(Collections.singletonList("late"), mCancelled);
+    }
+
+    // A member may leave the group while it is being cancelled, as a request does once done.
+    @Test
+    public void membersMayLeaveWhileCancelled() {
+        RequestGroup group = new RequestGroup();
+        Cancellable[] members = new Cancellable[2];
+        for (int i = 0; i < members.length; i++) {
+            int index = i;
+            members[i] = () -> {
+                mCancelled.add(String.valueOf(index));
+                group.remove(members[index]);
+            };
+            group.add(members[i]);
+        }
+
+        group.cancel();
+
+        assertEquals(Arrays.asList("0", "1"), mCancelled);
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.hazyair.source.gios;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the decoded dates against SimpleDateFormat in the zone GIOS reports in, which maps
+ * wall times skipped in spring and repeated in autumn the same way Zone does.
+ */
+public class DecoderTest {
+
+    private static final TimeZone POLAND = TimeZone.getTimeZone("Europe/Warsaw");
+    private static final long STEP = TimeUnit.MINUTES.toMillis(30);
+
+    private static SimpleDateFormat format(TimeZone timeZone) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        format.setTimeZone(timeZone);
+        return format;
+    }
+
+    private static long utc(String date) throws ParseException {
+        return format(TimeZone.getTimeZone("UTC")).parse(date).getTime();
+    }
+
+    @Test
+    public void yearMatchesSimpleDateFormat() throws ParseException {
+        SimpleDateFormat poland = format(POLAND);
+        // Wall times of a whole year, written as UTC so none is skipped or repeated.
+        SimpleDateFormat wall = format(TimeZone.getTimeZone("UTC"));
+        int transitions = 0;
+        int offset = POLAND.getOffset(utc("2018-12-31 00:00:00"));
+        for (long local = utc("2019-01-01 00:00:00"); local < utc("2020-01-02 00:00:00");
+             local += STEP) {
+            String date = wall.format(local);
+            long expected = poland.parse(date).getTime();
+            assertEquals(date, expected, Decoder.timestamp(date));
+            if (POLAND.getOffset(expected) != offset) {
+                offset = POLAND.getOffset(expected);
+                transitions++;
+            }
+        }
+        assertEquals(2, transitions);
+    }
+
+    @Test
+    public void leapDayMatchesSimpleDateFormat() throws ParseException {
+        for (String date : new String[] { "2020-02-28 23:00:00", "2020-02-29 12:34:56",
+                "2020-03-01 00:00:00", "2000-02-29 01:00:00" }) {
+            assertEquals(date, format(POLAND).parse(date).getTime(), Decoder.timestamp(date));
+        }
+    }
+
+    // Clocks go from 02:00 CET to 03:00 CEST on 2019-03-31; skipped times keep CET.
+    @Test
+    public void skippedWallTimeUsesOffsetBeforeTransition() throws ParseException {
+        assertEquals(utc("2019-03-31 00:59:59"), Decoder.timestamp("2019-03-31 01:59:59"));
+        assertEquals(utc("2019-03-31 01:00:00"), Decoder.timestamp("2019-03-31 02:00:00"));
+        assertEquals(utc("2019-03-31 01:30:00"), Decoder.timestamp("2019-03-31 02:30:00"));
+        assertEquals(utc("2019-03-31 01:00:00"), Decoder.timestamp("2019-03-31 03:00:00"));
+        assertEquals(Decoder.timestamp("2019-03-31 03:30:00"),
+                Decoder.timestamp("2019-03-31 02:30:00"));
+    }
+
+    // Clocks go from 03:00 CEST back to 02:00 CET on 2019-10-27; repeated times take CET.
+    @Test
+    public void repeatedWallTimeUsesOffsetAfterTransition() throws ParseException {
+        assertEquals(utc("2019-10-26 23:59:59"), Decoder.timestamp("2019-10-27 01:59:59"));
+        assertEquals(utc("2019-10-27 01:00:00"), Decoder.timestamp("2019-10-27 02:00:00"));
+        assertEquals(utc("2019-10-27 01:30:00"), Decoder.timestamp("2019-10-27 02:30:00"));
+        assertEquals(utc("2019-10-27 02:00:00"), Decoder.timestamp("2019-10-27 03:00:00"));
+    }
+
+    @Test
+    public void malformedDatesAreRejected() {
+        for (String date : new String[] { null, "", "2019-01-01", "2019-01-01T00:00:00",
+                "2019/01/01 00:00:00", "2019-13-01 00:00:00", "2019-00-01 00:00:00",
+                "2019-01-32 00:00:00", "2019-01-01 24:00:00", "2019-01-01 00:60:00",
+                "2019-01-01 00:00:60", "2019-0a-01 00:00:00", "2019-01-01 00:00:000" }) {
+            assertEquals(String.valueOf(date), -1, Decoder.timestamp(date));
+        }
+    }
+
+    @Test
+    public void valuesAreRoundedHalfUp() {
+        assertEquals(12.35, Decoder.round(12.345), 0);
+        assertEquals(12.34, Decoder.round(12.3449), 0);
+        assertEquals(0, Decoder.round(0.004), 0);
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.hazyair.source.gios;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import io.github.hazyair.R;
+import io.github.hazyair.source.Data;
+import io.github.hazyair.source.Sensor;
+import io.github.hazyair.source.Station;
+import io.github.hazyair.source.iface.Source;
+
+import static org.junit.Assert.*;
+
+/**
+ * Feeds bodies shaped like the GIOS REST responses through the parsers, and prints how long
+ * they take against decoding the same bodies with Gson into DTOs, the way they were decoded
+ * before. Timings depend on the machine, so they are only printed.
+ */
+public class SourceTest {
+
+    private static final String STATION = "{\"id\":%d,\"stationName\":\"Warszawa-Marszałkowska\","
+            + "\"gegrLat\":\"52.225073\",\"gegrLon\":\"21.006886\",\"city\":{\"id\":1006,"
+            + "\"name\":\"Warszawa\",\"commune\":{\"communeName\":\"Warszawa\","
+            + "\"districtName\":\"Warszawa\",\"provinceName\":\"MAZOWIECKIE\"}},"
+            + "\"addressStreet\":\"ul. Marszałkowska\"}";
+
+    private static final String STATIONS = "[" + String.format(Locale.ROOT, STATION, 114)
+            + ",{\"id\":14,\"stationName\":\"Działoszyn\",\"gegrLat\":\"50.972167\","
+            + "\"gegrLon\":\"14.941319\",\"city\":{\"id\":192,\"name\":\"Działoszyn\","
+            + "\"commune\":{\"communeName\":\"Bogatynia\",\"districtName\":\"zgorzelecki\","
+            + "\"provinceName\":\"DOLNOŚLĄSKIE\"}},\"addressStreet\":null}"
+            + ",{\"id\":15,\"stationName\":\"Bez miasta\",\"gegrLat\":\"50.1\","
+            + "\"gegrLon\":\"15.1\",\"city\":null,\"addressStreet\":null}"
+            + ",{\"id\":16,\"stationName\":\"Bez położenia\",\"gegrLat\":null,"
+            + "\"gegrLon\":\"15.1\",\"city\":{\"id\":1,\"name\":\"X\"},\"addressStreet\":null}]";
+
+    private static final String SENSORS = "[{\"id\":92,\"stationId\":14,\"param\":{"
+            + "\"paramName\":\"pył zawieszony PM10\",\"paramFormula\":\"PM10\","
+            + "\"paramCode\":\"PM10\",\"idParam\":3}},{\"id\":88,\"stationId\":14,\"param\":{"
+            + "\"paramName\":\"dwutlenek azotu\",\"paramFormula\":\"NO2\",\"paramCode\":\"NO2\","
+            + "\"idParam\":6}},{\"id\":95,\"stationId\":14,\"param\":{"
+            + "\"paramName\":\"benzo(a)piren\",\"paramFormula\":\"BaP\",\"paramCode\":\"BaP\","
+            + "\"idParam\":17}}]";
+
+    private static final String VALUE = "{\"date\":\"%s\",\"value\":%s}";
+
+    private static final String DATA = "{\"key\":\"PM10\",\"values\":["
+            + String.format(Locale.ROOT, VALUE, "2019-12-01 02:00:00", "null") + ","
+            + String.format(Locale.ROOT, VALUE, "2019-12-01 01:00:00", "30.4536") + ","
+            + String.format(Locale.ROOT, VALUE, "2019-10-26 01:00:00", "12.346") + "]}";
+
+    private static Reader reader(String body) {
+        return new InputStreamReader(new ByteArrayInputStream(
+                body.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void stationsWithoutCityOrPositionAreSkipped() throws IOException {
+        List<Station> stations = io.github.hazyair.source.gios.Source.getInstance()
+                .stations(reader(STATIONS));
+        assertEquals(2, stations.size());
+        Station station = stations.get(0);
+        assertEquals("114", station.id);
+        assertEquals("Warszawa-Marszałkowska", station.name);
+        assertEquals(52.225073, station.latitude, 0);
+        assertEquals(21.006886, station.longitude, 0);
+        assertEquals(R.string.data_poland, station.country);
+        assertEquals("Warszawa", station.locality);
+        assertEquals("ul. Marszałkowska", station.address);
+        assertEquals(R.string.data_source_gios, station.source);
+        assertEquals("14", stations.get(1).id);
+        assertEquals("Działoszyn", stations.get(1).locality);
+        assertEquals("", stations.get(1).address);
+    }
+
+    @Test
+    public void sensorsMapTheirFormula() throws IOException {
+        List<Sensor> sensors = io.github.hazyair.source.gios.Source.getInstance()
+                .sensors(reader(SENSORS));
+        assertEquals(3, sensors.size());
+        assertEquals("92", sensors.get(0).id);
+        assertEquals("14", sensors.get(0).station_id);
+        assertEquals("PM10", sensors.get(0).parameter);
+        assertEquals("µg/m³", sensors.get(0).unit);
+        assertEquals("NO₂", sensors.get(1).parameter);
+        assertEquals("", sensors.get(2).parameter);
+    }
+
+    // Dates are Polish local time, UTC+1 in winter and UTC+2 in summer.
+    @Test
+    public void dataSkipsMissingValues() throws IOException {
+        List<Data> data = io.github.hazyair.source.gios.Source.getInstance().data(reader(DATA));
+        assertEquals(2, data.size());
+        assertEquals(1575158400000L, data.get(0).timestamp);
+        assertEquals(1572044400000L, data.get(1).timestamp);
+        assertEquals(30.45, data.get(0).value, 0);
+        assertEquals(12.35, data.get(1).value, 0);
+    }
+
+    @Test
+    public void truncatedBodiesThrow() {
+        Source source = io.github.hazyair.source.gios.Source.getInstance();
+        for (String body : new String[] { STATIONS, SENSORS, DATA }) {
+            String truncated = body.substring(0, body.length() / 2);
+            try {
+                if (body == STATIONS) source.stations(new StringReader(truncated));
+                else if (body == SENSORS) source.sensors(new StringReader(truncated));
+                else source.data(new StringReader(truncated));
+                fail(truncated);
+            } catch (IOException expected) {
+                // Thrown by the reader at the end of the input.
+            }
+        }
+    }
+
+    // Shapes Gson decoded the bodies into before they were parsed directly.
+    @SuppressWarnings("unused")
+    private static class GsonStation {
+        int id;
+        String stationName;
+        String gegrLat;
+        String gegrLon;
+        GsonCity city;
+        String addressStreet;
+    }
+
+    @SuppressWarnings("unused")
+    private static class GsonCity {
+        String name;
+    }
+
+    @SuppressWarnings("unused")
+    private static class GsonValue {
+        String date;
+        Double value;
+    }
+
+    @SuppressWarnings("unused")
+    private static class GsonData {
+        List<GsonValue> values;
+    }
+
+    private static List<Station> gsonStations(byte[] body) {
+        List<GsonStation> stations = new Gson().fromJson(
+                new String(body, StandardCharsets.UTF_8),
+                new TypeToken<List<GsonStation>>() {}.getType());
+        List<Station> result = new ArrayList<>();
+        for (GsonStation station : stations) {
+            if (station.gegrLat == null || station.gegrLon == null || station.city == null)
+                continue;
+            result.add(new Station(String.valueOf(station.id), station.stationName,
+                    Double.valueOf(station.gegrLat), Double.valueOf(station.gegrLon),
+                    R.string.data_poland, station.city.name, station.addressStreet,
+                    R.string.data_source_gios));
+        }
+        return result;
+    }
+
+    private static List<Data> gsonData(byte[] body) {
+        GsonData data = new Gson().fromJson(new String(body, StandardCharsets.UTF_8),
+                GsonData.class);
+        List<Data> result = new ArrayList<>();
+        for (GsonValue value : data.values) {
+            if (value.value == null) continue;
+            result.add(new Data(Decoder.timestamp(value.date), Decoder.round(value.value)));
+        }
+        return result;
+    }
+
+    private interface Parse {
+        int run(byte[] body) throws IOException;
+    }
+
+    private static double time(byte[] body, Parse parse, int expected) throws IOException {
+        // Once to warm up.
+        assertEquals(expected, parse.run(body));
+        int runs = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            assertEquals(expected, parse.run(body));
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < 500000000L);
+        return elapsed / 1e6 / runs;
+    }
+
+    @Test
+    public void reportsParseTimes() throws IOException {
+        int size = 5000;
+        StringBuilder stations = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) stations.append(',');
+            stations.append(String.format(Locale.ROOT, STATION, i));
+        }
+        byte[] stationsBody = stations.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        StringBuilder data = new StringBuilder("{\"key\":\"PM10\",\"values\":[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) data.append(',');
+            String date = String.format(Locale.ROOT, "2019-%02d-%02d %02d:00:00",
+                    i / 24 / 28 % 12 + 1, i / 24 % 28 + 1, i % 24);
+            data.append(String.format(Locale.ROOT, VALUE, date, i * 0.123));
+        }
+        byte[] dataBody = data.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        Source source = io.github.hazyair.source.gios.Source.getInstance();
+
+        System.out.println(String.format(Locale.ROOT, "%d stations: reader %.2f ms, gson %.2f"
+                        + " ms; %d values: reader %.2f ms, gson %.2f ms", size,
+                time(stationsBody, (body) -> source.stations(new InputStreamReader(
+                        new ByteArrayInputStream(body), StandardCharsets.UTF_8)).size(), size),
+                time(stationsBody, (body) -> gsonStations(body).size(), size), size,
+                time(dataBody, (body) -> source.data(new InputStreamReader(
+                        new ByteArrayInputStream(body), StandardCharsets.UTF_8)).size(), size),
+                time(dataBody, (body) -> gsonData(body).size(), size)));
+    }
+}
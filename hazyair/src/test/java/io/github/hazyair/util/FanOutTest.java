@@ -0,0 +1,102 @@
+package io.github.hazyair.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FanOutTest {
+
+    private static final int JOBS = 16;
+    private static final long LATENCY = 50;
+
+    private ScheduledExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mExecutor = Executors.newScheduledThreadPool(JOBS);
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    private long run(int parallelism, AtomicInteger peak) throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        FanOut<Integer> fanOut = new FanOut<>(parallelism, 10, TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        for (int i = 0; i < JOBS; i++) {
+            int value = i;
+            fanOut.submit((sink) -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                mExecutor.schedule(() -> {
+                    running.decrementAndGet();
+                    sink.success(value);
+                }, LATENCY, TimeUnit.MILLISECONDS);
+                return null;
+            });
+        }
+        List<Integer> results = fanOut.join();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(JOBS, results.size());
+        for (int i = 0; i < JOBS; i++) assertEquals(Integer.valueOf(i), results.get(i));
+        assertEquals(0, fanOut.failed());
+        return elapsed;
+    }
+
+    @Test
+    public void inFlightJobsAreBounded() throws InterruptedException {
+        for (int parallelism : new int[] { 1, 2, 4, 8 }) {
+            AtomicInteger peak = new AtomicInteger();
+            run(parallelism, peak);
+            assertEquals(parallelism, peak.get());
+        }
+    }
+
+    @Test
+    public void throughputScalesWithParallelism() throws InterruptedException {
+        long serial = run(1, new AtomicInteger());
+        long parallel = run(4, new AtomicInteger());
+        assertTrue(serial >= JOBS * LATENCY);
+        assertTrue("serial " + serial + " ms, parallel " + parallel + " ms",
+                parallel * 2 < serial);
+    }
+
+    @Test
+    public void expiredJobIsCancelled() throws InterruptedException {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        FanOut<Integer> fanOut = new FanOut<>(1, 50, TimeUnit.MILLISECONDS);
+        int stuck = fanOut.submit((sink) -> () -> cancelled.set(true));
+        int next = fanOut.submit((sink) -> {
+            sink.success(1);
+            return null;
+        });
+        List<Integer> results = fanOut.join();
+        assertTrue(cancelled.get());
+        assertTrue(fanOut.failed(stuck));
+        assertNull(results.get(stuck));
+        assertFalse(fanOut.failed(next));
+        assertEquals(Integer.valueOf(1), results.get(next));
+    }
+
+    @Test
+    public void lateResultIsDropped() throws InterruptedException {
+        FanOut<Integer> fanOut = new FanOut<>(1, 20, TimeUnit.MILLISECONDS);
+        fanOut.submit((sink) -> {
+            mExecutor.schedule(() -> sink.success(1), 200, TimeUnit.MILLISECONDS);
+            return null;
+        });
+        assertNull(fanOut.join().get(0));
+        Thread.sleep(300);
+        assertEquals(1, fanOut.failed());
+    }
+}
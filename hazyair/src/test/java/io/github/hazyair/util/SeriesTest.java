@@ -0,0 +1,122 @@
+package io.github.hazyair.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SeriesTest {
+
+    private static final long HOUR = 3600000L;
+
+    private static long[] hours(int length) {
+        long[] x = new long[length];
+        for (int i = 0; i < length; i++) x[i] = 1546300800000L + i * HOUR;
+        return x;
+    }
+
+    private static double[] noise(int length, long seed) {
+        Random random = new Random(seed);
+        double[] y = new double[length];
+        for (int i = 0; i < length; i++) y[i] = 20 + 5 * random.nextDouble();
+        return y;
+    }
+
+    private static void assertDownsampled(int[] indices, int length, int threshold) {
+        String message = length + " points to " + threshold;
+        assertEquals(message, threshold, indices.length);
+        assertEquals(message, 0, indices[0]);
+        assertEquals(message, length - 1, indices[threshold - 1]);
+        for (int i = 1; i < threshold; i++) {
+            assertTrue(message + ": " + Arrays.toString(indices), indices[i] > indices[i - 1]);
+        }
+    }
+
+    @Test
+    public void endpointsAreKept() {
+        for (int length : new int[] { 4, 10, 100, 1000 }) {
+            double[] y = noise(length, length);
+            // The endpoints are the lowest points, so only the rule keeps them.
+            y[0] = 0;
+            y[length - 1] = 0;
+            for (int threshold = 3; threshold < length; threshold++) {
+                assertDownsampled(Series.lttb(hours(length), y, length, threshold), length,
+                        threshold);
+            }
+        }
+    }
+
+    @Test
+    public void spikeSurvives() {
+        int length = 2000;
+        for (int spike : new int[] { 1, 500, 1234, length - 2 }) {
+            for (double value : new double[] { 1000, -1000 }) {
+                double[] y = noise(length, spike);
+                y[spike] = value;
+                int[] indices = Series.lttb(hours(length), y, length, 100);
+                assertDownsampled(indices, length, 100);
+                assertTrue(spike + " " + value, Arrays.binarySearch(indices, spike) >= 0);
+            }
+        }
+    }
+
+    // 61 / 7 * 7 is just below 61 in double precision, so the last bucket starts one point
+    // early.
+    @Test
+    public void lengthIsThresholdWhenBucketsRoundDown() {
+        int length = 63;
+        int threshold = 9;
+        double every = (double) (length - 2) / (threshold - 2);
+        assertTrue((int) ((threshold - 2) * every) < length - 2);
+        assertDownsampled(Series.lttb(hours(length), noise(length, 1), length, threshold),
+                length, threshold);
+        int cases = 0;
+        for (threshold = 3; threshold < 60; threshold++) {
+            for (length = threshold + 1; length < 600; length++) {
+                every = (double) (length - 2) / (threshold - 2);
+                if ((int) ((threshold - 2) * every) >= length - 2) continue;
+                assertDownsampled(Series.lttb(hours(length), noise(length, length), length,
+                        threshold), length, threshold);
+                cases++;
+            }
+        }
+        assertTrue(cases > 0);
+    }
+
+    // Timings depend on the machine, so they are only printed.
+    @Test
+    public void reportsDownsamplingTimes() {
+        int threshold = 411;
+        StringBuilder report = new StringBuilder("lttb to " + threshold + " points");
+        for (int length : new int[] { 1000, 10000, 100000, 1000000 }) {
+            long[] x = hours(length);
+            double[] y = noise(length, length);
+            int[] indices;
+            int runs = 0;
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                indices = Series.lttb(x, y, length, threshold);
+                runs++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < 200000000L);
+            assertDownsampled(indices, length, threshold);
+            report.append(String.format(Locale.ROOT, ", %d in %.3f ms", length,
+                    elapsed / 1e6 / runs));
+        }
+        System.out.println(report);
+    }
+
+    @Test
+    public void shortSeriesAreKept() {
+        long[] x = hours(10);
+        double[] y = noise(10, 0);
+        assertArrayEquals(new int[] { 0, 1, 2, 3, 4 }, Series.lttb(x, y, 5, 5));
+        assertArrayEquals(new int[] { 0, 1, 2, 3 }, Series.lttb(x, y, 4, 100));
+        assertArrayEquals(new int[] { 0, 1, 2, 3, 4, 5 }, Series.lttb(x, y, 6, 2));
+        assertArrayEquals(new int[0], Series.lttb(x, y, 0, 3));
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.hazyair.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the grid queries with a linear scan over the same points.
+ */
+public class SpatialIndexTest {
+
+    private static final double[] CELLS = { 0.25, 1, 5, 30, 90 };
+    private static final int[] COUNTS = { 1, 5, 40 };
+    private static final double[] RADII = { 0, 1000, 50000, 800000, 5000000, 20000000 };
+
+    private static class Point {
+        private final double mLatitude;
+        private final double mLongitude;
+
+        private Point(double latitude, double longitude) {
+            mLatitude = latitude;
+            mLongitude = longitude;
+        }
+
+        private double distance(double latitude, double longitude) {
+            return SpatialIndex.distance(latitude, longitude, mLatitude, mLongitude);
+        }
+
+        @Override
+        public String toString() {
+            return mLatitude + "," + mLongitude;
+        }
+    }
+
+    // Points anywhere, around both poles, along the antimeridian and in one dense cluster.
+    private static List<Point> points(Random random, int size) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            double latitude;
+            double longitude;
+            switch (i % 4) {
+                case 0:
+                    latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+                    longitude = 360 * random.nextDouble() - 180;
+                    break;
+                case 1:
+                    latitude = (random.nextBoolean() ? 1 : -1) * (90 - 3 * random.nextDouble());
+                    longitude = 360 * random.nextDouble() - 180;
+                    break;
+                case 2:
+                    latitude = 170 * random.nextDouble() - 85;
+                    longitude = (random.nextBoolean() ? 180 : -180) +
+                            (random.nextDouble() - 0.5) * 4;
+                    if (longitude > 180) longitude -= 360;
+                    if (longitude < -180) longitude += 360;
+                    break;
+                default:
+                    latitude = 52 + random.nextDouble();
+                    longitude = 21 + random.nextDouble();
+                    break;
+            }
+            points.add(new Point(latitude, longitude));
+        }
+        return points;
+    }
+
+    private static List<Point> queries(Random random, int size) {
+        List<Point> queries = points(random, size);
+        queries.add(new Point(90, 0));
+        queries.add(new Point(-90, 123));
+        queries.add(new Point(0, 180));
+        queries.add(new Point(0, -180));
+        queries.add(new Point(89.99, 179.99));
+        queries.add(new Point(-45, -179.999));
+        return queries;
+    }
+
+    private static SpatialIndex<Point> index(double cell, List<Point> points) {
+        SpatialIndex<Point> index = new SpatialIndex<>(cell);
+        for (Point point : points) index.add(point.mLatitude, point.mLongitude, point);
+        return index;
+    }
+
+    private static List<Double> distances(List<Point> points, Point query) {
+        List<Double> distances = new ArrayList<>();
+        for (Point point : points) {
+            distances.add(point.distance(query.mLatitude, query.mLongitude));
+        }
+        return distances;
+    }
+
+    private static void assertNearest(SpatialIndex<Point> index, List<Point> points,
+                                      Point query, int count, String message) {
+        List<Double> expected = distances(points, query);
+        Collections.sort(expected);
+        expected = expected.subList(0, Math.min(count, expected.size()));
+        List<Double> actual = distances(index.nearest(query.mLatitude, query.mLongitude, count),
+                query);
+        assertEquals(message, expected, actual);
+    }
+
+    private static void assertWithin(SpatialIndex<Point> index, List<Point> points,
+                                     Point query, double radius, String message) {
+        HashSet<Point> expected = new HashSet<>();
+        for (Point point : points) {
+            if (point.distance(query.mLatitude, query.mLongitude) <= radius) expected.add(point);
+        }
+        List<Point> actual = index.within(query.mLatitude, query.mLongitude, radius);
+        assertEquals(message, expected.size(), actual.size());
+        assertEquals(message, expected, new HashSet<>(actual));
+        List<Double> distances = distances(actual, query);
+        List<Double> sorted = new ArrayList<>(distances);
+        Collections.sort(sorted);
+        assertEquals(message, sorted, distances);
+    }
+
+    @Test
+    public void nearestMatchesLinearScan() {
+        Random random = new Random(7);
+        for (int size : new int[] { 1, 3, 50, 1000 }) {
+            List<Point> points = points(random, size);
+            for (double cell : CELLS) {
+                SpatialIndex<Point> index = index(cell, points);
+                assertEquals(size, index.size());
+                for (Point query : queries(random, 40)) {
+                    for (int count : COUNTS) {
+                        assertNearest(index, points, query, count,
+                                size + " points, cell " + cell + ", " + count + " nearest to "
+                                        + query);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void withinMatchesLinearScan() {
+        Random random = new Random(11);
+        for (int size : new int[] { 1, 3, 50, 1000 }) {
+            List<Point> points = points(random, size);
+            for (double cell : CELLS) {
+                SpatialIndex<Point> index = index(cell, points);
+                for (Point query : queries(random, 40)) {
+                    for (double radius : RADII) {
+                        assertWithin(index, points, query, radius,
+                                size + " points, cell " + cell + ", within " + radius + " of "
+                                        + query);
+                    }
+                }
+            }
+        }
+    }
+
+    // A lone cluster queried from the other side of the globe takes the dense scan.
+    @Test
+    public void farQueriesMatchLinearScan() {
+        Random random = new Random(13);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            points.add(new Point(50 + random.nextDouble(), 19 + random.nextDouble()));
+        }
+        SpatialIndex<Point> index = index(0.25, points);
+        for (Point query : new Point[] { new Point(-50, -161), new Point(-89, 0),
+                new Point(0, -179.5), new Point(51, 20) }) {
+            for (int count : COUNTS) {
+                assertNearest(index, points, query, count, count + " nearest to " + query);
+            }
+            for (double radius : RADII) {
+                assertWithin(index, points, query, radius, "within " + radius + " of " + query);
+            }
+        }
+    }
+
+    // Time per query of the grid and of sorting every point by distance; timings depend on the
+    // machine, so they are only printed.
+    @Test
+    public void reportsQueryTimes() {
+        Random random = new Random(17);
+        List<Point> points = points(random, 10000);
+        SpatialIndex<Point> index = index(0.5, points);
+        List<Point> queries = queries(random, 100);
+        StringBuilder report = new StringBuilder(points.size() + " points");
+        for (int count : new int[] { 10, 100, points.size() }) {
+            long start = System.nanoTime();
+            for (Point query : queries) {
+                assertEquals(count, index.nearest(query.mLatitude, query.mLongitude, count)
+                        .size());
+            }
+            long grid = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (Point query : queries) {
+                List<Double> distances = distances(points, query);
+                Collections.sort(distances);
+                assertEquals(points.size(), distances.size());
+            }
+            long scan = System.nanoTime() - start;
+            report.append(String.format(Locale.ROOT, ", %d nearest in %.3f ms, sorted in %.3f ms",
+                    count, grid / 1e6 / queries.size(), scan / 1e6 / queries.size()));
+        }
+        System.out.println(report);
+    }
+
+    @Test
+    public void emptyQueries() {
+        SpatialIndex<Point> index = new SpatialIndex<>(1);
+        assertTrue(index.nearest(0, 0, 3).isEmpty());
+        assertTrue(index.within(0, 0, 1000).isEmpty());
+        index.add(10, 10, new Point(10, 10));
+        assertTrue(index.nearest(0, 0, 0).isEmpty());
+        assertTrue(index.within(0, 0, -1).isEmpty());
+    }
+}